@@ -0,0 +1,56 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static io.powerledger.vpp.batterymanagement.util.Constant.AUSTRALIAN_POSTCODE_REGEX;
+
+@State(Scope.Benchmark)
+public class BatteryDtoValidationBenchmark {
+
+    private static final Pattern POSTCODE_PATTERN = Pattern.compile(AUSTRALIAN_POSTCODE_REGEX);
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private BatteryDto validBattery;
+    private BatteryDto invalidBattery;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validBattery = BenchmarkFixtures.batteryDto("Battery A", "2000", 500);
+        invalidBattery = BenchmarkFixtures.batteryDto("", "25", 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BatteryDto>> validateValidBattery() {
+        return validator.validate(validBattery);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BatteryDto>> validateInvalidBattery() {
+        return validator.validate(invalidBattery);
+    }
+
+    @Benchmark
+    public boolean matchPostcodeRegex() {
+        return POSTCODE_PATTERN.matcher(validBattery.getPostcode()).matches();
+    }
+}
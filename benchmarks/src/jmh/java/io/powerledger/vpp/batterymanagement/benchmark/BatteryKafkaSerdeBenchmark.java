@@ -0,0 +1,52 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * The producer and consumer side of {@code POST /batteries/async}, configured like application.properties.
+ */
+@State(Scope.Benchmark)
+public class BatteryKafkaSerdeBenchmark {
+
+    private static final String TOPIC = "battery-create-topic";
+
+    private JsonSerializer<BatteryDto> serializer;
+    private JsonDeserializer<BatteryDto> deserializer;
+    private BatteryDto battery;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(), false);
+        deserializer = new JsonDeserializer<>(BatteryDto.class);
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+        battery = BenchmarkFixtures.batteryDto("Battery A", "2000", 500);
+        payload = serializer.serialize(TOPIC, battery);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, battery);
+    }
+
+    @Benchmark
+    public BatteryDto deserialize() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+}
@@ -0,0 +1,63 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.powerledger.vpp.batterymanagement.controller.BatteryController;
+import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import io.powerledger.vpp.batterymanagement.dto.BatteryResponseDto;
+import io.powerledger.vpp.batterymanagement.dto.BatterySearchRequestDto;
+import io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics;
+import io.powerledger.vpp.batterymanagement.service.BatteryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Entity to DTO mapping in {@link BatteryService} and DTO to name mapping in {@link BatteryController},
+ * with the repository answering from memory.
+ */
+@State(Scope.Benchmark)
+public class BatteryMappingBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private BatteryService batteryService;
+    private BatteryController batteryController;
+    private BatterySearchRequestDto searchRequest;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        var repository = BenchmarkFixtures.inMemoryRepository(BenchmarkFixtures.batteries(pageSize));
+        batteryService = new BatteryService(repository, null, new BatteryMetrics(new SimpleMeterRegistry()));
+        batteryController = new BatteryController(batteryService, new SyncTaskExecutor(), new ObjectMapper());
+        searchRequest = new BatterySearchRequestDto();
+        searchRequest.setMinPostCode("2000");
+        searchRequest.setMaxPostCode("3999");
+        pageable = PageRequest.of(1, pageSize);
+    }
+
+    @Benchmark
+    public List<BatteryDto> serviceSearch() {
+        return batteryService.searchBatteries(searchRequest, pageable);
+    }
+
+    @Benchmark
+    public ResponseEntity<BatteryResponseDto> controllerSearchWithoutSummary() {
+        return batteryController.searchBatteries(searchRequest, 1, pageSize, false);
+    }
+
+    @Benchmark
+    public ResponseEntity<BatteryResponseDto> controllerSearchWithSummary() {
+        return batteryController.searchBatteries(searchRequest, 0, pageSize, false);
+    }
+}
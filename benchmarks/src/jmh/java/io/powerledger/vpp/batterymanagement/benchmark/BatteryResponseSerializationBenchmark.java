@@ -0,0 +1,38 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.powerledger.vpp.batterymanagement.dto.BatteryResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+public class BatteryResponseSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int batteries;
+
+    private ObjectWriter writer;
+    private BatteryResponseDto response;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(BatteryResponseDto.class);
+        response = new BatteryResponseDto();
+        response.setBatteries(IntStream.range(0, batteries).mapToObj(i -> "Battery " + i).toList());
+        response.setTotalBatteries((long) batteries);
+        response.setTotalCapacity(batteries * 550L);
+        response.setAverageCapacity(550.0);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+}
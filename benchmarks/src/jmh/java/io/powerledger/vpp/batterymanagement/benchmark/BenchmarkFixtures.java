@@ -0,0 +1,85 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.repository.BatteryRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static BatteryDto batteryDto(String name, String postcode, Integer capacity) {
+        BatteryDto dto = new BatteryDto();
+        dto.setName(name);
+        dto.setPostcode(postcode);
+        dto.setCapacity(capacity);
+        return dto;
+    }
+
+    static List<Battery> batteries(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Battery battery = new Battery();
+            battery.setId(UUID.randomUUID());
+            battery.setName("Battery " + i);
+            battery.setPostcode(String.valueOf(2000 + i % 2000));
+            battery.setWattCapacity(100 + i % 900);
+            return battery;
+        }).toList();
+    }
+
+    /**
+     * A loaded fleet store of {@code size} batteries spread uniformly over the postcodes, with capacities clustered
+     * around typical home batteries and a long tail of larger ones.
+     */
+    static FleetColumnStore fleetColumnStore(int size) {
+        var fleetColumnStore = new FleetColumnStore();
+        var random = new SplittableRandom(42);
+        String[] postcodes = new String[9200];
+        for (int i = 0; i < postcodes.length; i++) {
+            postcodes[i] = String.format("%04d", 800 + i);
+        }
+        for (int i = 0; i < size; i++) {
+            int capacity = 5000 + (int) (random.nextDouble() * random.nextDouble() * 95_000);
+            fleetColumnStore.add(new UUID(i, random.nextLong()), "Battery " + i % 100_000,
+                    postcodes[random.nextInt(postcodes.length)], capacity);
+        }
+        fleetColumnStore.markLoaded();
+        return fleetColumnStore;
+    }
+
+    /**
+     * Repository answering every query from memory, so the benchmarks measure the code around it and not the database.
+     */
+    static BatteryRepository inMemoryRepository(List<Battery> page) {
+        BatterySummary summary = new BatterySummary((long) page.size(),
+                page.stream().mapToLong(Battery::getWattCapacity).sum(),
+                page.stream().mapToLong(Battery::getWattCapacity).average().orElse(0));
+        return (BatteryRepository) Proxy.newProxyInstance(
+                BatteryRepository.class.getClassLoader(),
+                new Class<?>[]{BatteryRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByPostcodeRangeOrderByName", "findBySearchCriteria" -> pageOf(page, (Pageable) args[args.length - 1]);
+                    case "findSummaryByPostcodeRange", "findSummaryBySearchCriteria" -> summary;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryBatteryRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Page<Battery> pageOf(List<Battery> content, Pageable pageable) {
+        return new PageImpl<>(content, pageable, content.size());
+    }
+}
@@ -0,0 +1,44 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import io.powerledger.vpp.batterymanagement.model.DispatchSelection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch selection from the {@link FleetColumnStore} over a state of about 110k batteries (1M fleet) or 1.1M
+ * batteries (10M fleet), for a demand met by a handful and by hundreds of batteries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FleetDispatchSelectionBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int fleetSize;
+
+    @Param({"1000000", "50000000"})
+    private long demand;
+
+    private FleetColumnStore fleetColumnStore;
+
+    @Setup
+    public void setUp() {
+        fleetColumnStore = BenchmarkFixtures.fleetColumnStore(fleetSize);
+    }
+
+    @Benchmark
+    public DispatchSelection state() {
+        return fleetColumnStore.selectForDemand("2000", "2999", demand, 10_000);
+    }
+}
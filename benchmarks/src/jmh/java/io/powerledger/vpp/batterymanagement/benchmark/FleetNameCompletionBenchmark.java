@@ -0,0 +1,44 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name completion from the {@link FleetColumnStore}'s name index over the 100k distinct names of the fixture fleet,
+ * for a prefix shared by a tenth of them and for one shared by a handful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FleetNameCompletionBenchmark {
+
+    @Param({"1000000"})
+    private int fleetSize;
+
+    @Param({"Battery 1", "Battery 4242"})
+    private String prefix;
+
+    private FleetColumnStore fleetColumnStore;
+
+    @Setup
+    public void setUp() {
+        fleetColumnStore = BenchmarkFixtures.fleetColumnStore(fleetSize);
+    }
+
+    @Benchmark
+    public List<String> complete() {
+        return fleetColumnStore.completeNames(prefix, 10);
+    }
+}
@@ -0,0 +1,51 @@
+package io.powerledger.vpp.batterymanagement.benchmark;
+
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K by capacity from the {@link FleetColumnStore}: the k-way merge of the per-postcode runs, for a single state
+ * and for the whole country.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// 10M batteries take about 1 GB with the id index and the runs
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FleetTopCapacityBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int fleetSize;
+
+    @Param({"100"})
+    private int k;
+
+    private FleetColumnStore fleetColumnStore;
+
+    @Setup
+    public void setUp() {
+        fleetColumnStore = BenchmarkFixtures.fleetColumnStore(fleetSize);
+    }
+
+    @Benchmark
+    public List<Battery> state() {
+        return fleetColumnStore.findTopByCapacity("2000", "2999", k);
+    }
+
+    @Benchmark
+    public List<Battery> country() {
+        return fleetColumnStore.findTopByCapacity("0800", "9999", k);
+    }
+}
@@ -0,0 +1,111 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Samples how far the battery consumer group is behind the end of the topic.
+ */
+final class ConsumerLagMonitor implements AutoCloseable {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(250);
+
+    record Sample(long elapsedMillis, long lag) {
+    }
+
+    /**
+     * @param drainTime time from the end of the load until the group caught up, {@code null} if it did not
+     */
+    record Result(long maxLag, Duration drainTime, List<Sample> samples) {
+    }
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final Admin admin;
+    private final String groupId;
+    private final String topic;
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+
+    ConsumerLagMonitor(String bootstrapServers, String groupId, String topic) {
+        this.admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        this.groupId = groupId;
+        this.topic = topic;
+    }
+
+    /**
+     * Samples the lag while {@code load} runs and afterwards until the group has caught up or {@code drainTimeout} passed.
+     */
+    <T> Measured<T> measure(Supplier<T> load, Duration drainTimeout) throws InterruptedException {
+        List<Sample> samples = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+        ScheduledFuture<?> sampling = sampler.scheduleAtFixedRate(
+                () -> samples.add(new Sample((System.nanoTime() - start) / 1_000_000, currentLag())),
+                0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            T value = load.get();
+            long loadEnd = System.nanoTime();
+            Duration drainTime = null;
+            while (System.nanoTime() - loadEnd < drainTimeout.toNanos()) {
+                if (currentLag() == 0) {
+                    drainTime = Duration.ofNanos(System.nanoTime() - loadEnd);
+                    break;
+                }
+                Thread.sleep(SAMPLE_INTERVAL.toMillis());
+            }
+            long maxLag = samples.stream().mapToLong(Sample::lag).max().orElse(0);
+            return new Measured<>(value, new Result(maxLag, drainTime, List.copyOf(samples)));
+        } finally {
+            sampling.cancel(false);
+        }
+    }
+
+    long currentLag() {
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata().get();
+            var partitions = admin.describeTopics(List.of(topic)).allTopicNames().get().get(topic).partitions().stream()
+                    .map(partition -> new TopicPartition(topic, partition.partition()))
+                    .collect(Collectors.toMap(partition -> partition, partition -> OffsetSpec.latest()));
+            var endOffsets = admin.listOffsets(partitions).all().get();
+            return endOffsets.entrySet().stream()
+                    .mapToLong(entry -> {
+                        OffsetAndMetadata offset = committed.get(entry.getKey());
+                        return entry.getValue().offset() - (offset != null ? offset.offset() : 0);
+                    })
+                    .sum();
+        } catch (ExecutionException ex) {
+            // the topic is only created with the first async request
+            log.debug("Could not read consumer lag: {}", ex.getCause().getMessage());
+            return 0;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        admin.close();
+    }
+
+    record Measured<T>(T value, Result lag) {
+    }
+}
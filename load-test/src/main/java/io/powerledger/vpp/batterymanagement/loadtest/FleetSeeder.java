@@ -0,0 +1,51 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+final class FleetSeeder {
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    FleetSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the same fleet for the same size and seed, so runs on different commits start from identical data.
+     */
+    void seed(int fleetSize, long seed) {
+        var random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < fleetSize; i++) {
+            batch.add(new Object[]{
+                    "Battery " + i,
+                    PostcodeDistribution.format(PostcodeDistribution.nextPostcode(random)),
+                    PostcodeDistribution.nextCapacity(random)
+            });
+            if (batch.size() == BATCH_SIZE) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch);
+        }
+        jdbcTemplate.execute("ANALYZE batteries");
+        log.info("Seeded {} batteries in {} ms", fleetSize, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO batteries (name, postcode, watt_capacity) VALUES (?, ?, ?)", batch);
+    }
+}
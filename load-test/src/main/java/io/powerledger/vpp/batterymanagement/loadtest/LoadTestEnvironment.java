@@ -0,0 +1,71 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import io.powerledger.vpp.batterymanagement.VppBatteryManagementApiApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.lifecycle.Startables;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PostgreSQL and Kafka in containers with the application running in this JVM against them.
+ */
+final class LoadTestEnvironment implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("loadtestdb")
+            .withUsername("loadtest")
+            .withPassword("loadtest")
+            .withUrlParam("reWriteBatchedInserts", "true");
+
+    private final ConfluentKafkaContainer kafkaContainer = new ConfluentKafkaContainer("confluentinc/cp-kafka:7.4.0");
+
+    private ConfigurableApplicationContext context;
+
+    void start(LoadTestSettings settings) {
+        Startables.deepStart(postgreSQLContainer, kafkaContainer).join();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", postgreSQLContainer.getJdbcUrl());
+        properties.put("spring.datasource.username", postgreSQLContainer.getUsername());
+        properties.put("spring.datasource.password", postgreSQLContainer.getPassword());
+        properties.put("spring.kafka.bootstrap-servers", kafkaContainer.getBootstrapServers());
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.threads.virtual.enabled", settings.virtualThreads());
+        properties.put("concurrency-limit.enabled", settings.concurrencyLimit());
+        context = new SpringApplicationBuilder(VppBatteryManagementApiApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    URI baseUri() {
+        return URI.create("http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    String kafkaBootstrapServers() {
+        return kafkaContainer.getBootstrapServers();
+    }
+
+    String property(String name) {
+        return context.getEnvironment().getRequiredProperty(name);
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+        kafkaContainer.stop();
+        postgreSQLContainer.stop();
+    }
+}
@@ -0,0 +1,123 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes one directory per run and appends a line per scenario to {@code history.csv} next to it,
+ * which is what runs on different commits are compared with.
+ */
+final class LoadTestReport {
+
+    private static final String HISTORY_HEADER =
+            "label,timestamp,scenario,fleet_size,virtual_threads,target_rate,throughput,p50_ms,p99_ms,p999_ms,max_ms,"
+                    + "failures,max_consumer_lag,consumer_drain_ms";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    Path write(LoadTestSettings settings, List<ScenarioResult> results) throws IOException {
+        Instant timestamp = Instant.now();
+        Path runDirectory = settings.reportDirectory()
+                .resolve(settings.label() + "-" + timestamp.toString().replace(':', '-'));
+        Files.createDirectories(runDirectory);
+
+        for (ScenarioResult result : results) {
+            // HdrHistogram percentile distribution in milliseconds, can be plotted with the HdrHistogram plotter
+            try (var out = new PrintStream(Files.newOutputStream(runDirectory.resolve(result.scenario().id() + ".hgrm")))) {
+                result.latencies().outputPercentileDistribution(out, 1_000_000.0);
+            }
+            if (result.consumerLag() != null) {
+                writeLagSamples(runDirectory.resolve(result.scenario().id() + "-consumer-lag.csv"), result.consumerLag());
+            }
+        }
+        objectMapper.writeValue(runDirectory.resolve("summary.json").toFile(), summary(settings, timestamp, results));
+        appendHistory(settings, timestamp, results);
+        return runDirectory;
+    }
+
+    private Map<String, Object> summary(LoadTestSettings settings, Instant timestamp, List<ScenarioResult> results) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("label", settings.label());
+        summary.put("timestamp", timestamp.toString());
+        summary.put("fleetSize", settings.fleetSize());
+        summary.put("seed", settings.seed());
+        summary.put("targetRate", settings.requestsPerSecond());
+        summary.put("durationSeconds", settings.duration().toSeconds());
+        summary.put("batchSize", settings.batchSize());
+        summary.put("virtualThreads", settings.virtualThreads());
+        summary.put("concurrencyLimit", settings.concurrencyLimit());
+        summary.put("scenarios", results.stream().map(this::scenarioSummary).toList());
+        return summary;
+    }
+
+    private Map<String, Object> scenarioSummary(ScenarioResult result) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("scenario", result.scenario().id());
+        summary.put("sent", result.sent());
+        summary.put("succeeded", result.succeeded());
+        summary.put("failures", result.failures());
+        summary.put("throughput", result.throughput());
+        summary.put("p50Ms", result.percentileMillis(50));
+        summary.put("p99Ms", result.percentileMillis(99));
+        summary.put("p999Ms", result.percentileMillis(99.9));
+        summary.put("maxMs", result.maxMillis());
+        if (result.consumerLag() != null) {
+            summary.put("maxConsumerLag", result.consumerLag().maxLag());
+            summary.put("consumerDrainMs", drainMillis(result.consumerLag()));
+        }
+        return summary;
+    }
+
+    private void writeLagSamples(Path file, ConsumerLagMonitor.Result lag) throws IOException {
+        var lines = new StringBuilder("elapsed_ms,lag\n");
+        lag.samples().forEach(sample -> lines.append(sample.elapsedMillis()).append(',').append(sample.lag()).append('\n'));
+        Files.writeString(file, lines);
+    }
+
+    private void appendHistory(LoadTestSettings settings, Instant timestamp, List<ScenarioResult> results) throws IOException {
+        Path history = settings.reportDirectory().resolve("history.csv");
+        var lines = new StringBuilder();
+        if (Files.notExists(history)) {
+            lines.append(HISTORY_HEADER).append('\n');
+        }
+        for (ScenarioResult result : results) {
+            var lag = result.consumerLag();
+            lines.append(String.join(",",
+                    settings.label(),
+                    timestamp.toString(),
+                    result.scenario().id(),
+                    String.valueOf(settings.fleetSize()),
+                    String.valueOf(settings.virtualThreads()),
+                    format(result.targetRate()),
+                    format(result.throughput()),
+                    format(result.percentileMillis(50)),
+                    format(result.percentileMillis(99)),
+                    format(result.percentileMillis(99.9)),
+                    format(result.maxMillis()),
+                    String.valueOf(result.failures().values().stream().mapToLong(Long::longValue).sum()),
+                    lag != null ? String.valueOf(lag.maxLag()) : "",
+                    lag != null && lag.drainTime() != null ? String.valueOf(drainMillis(lag)) : ""))
+                    .append('\n');
+        }
+        Files.writeString(history, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static Long drainMillis(ConsumerLagMonitor.Result lag) {
+        return lag.drainTime() != null ? lag.drainTime().toMillis() : null;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,72 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against PostgreSQL and Kafka containers, seeds a fleet and runs each scenario at a fixed
+ * request rate. Run it with {@code ./gradlew :load-test:run}, settings are described in the README.
+ */
+public final class LoadTestRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final Duration CONSUMER_DRAIN_TIMEOUT = Duration.ofMinutes(2);
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var settings = LoadTestSettings.fromSystemProperties();
+        log.info("Running load test {}", settings);
+
+        try (var environment = new LoadTestEnvironment();
+             var generator = new OpenModelLoadGenerator()) {
+            environment.start(settings);
+            new FleetSeeder(environment.jdbcTemplate()).seed(settings.fleetSize(), settings.seed());
+            var requestFactory = new RequestFactory(environment.baseUri(), settings.seed(), settings.batchSize());
+
+            List<ScenarioResult> results = new ArrayList<>();
+            try (var lagMonitor = new ConsumerLagMonitor(environment.kafkaBootstrapServers(),
+                    environment.property("spring.kafka.consumer.group-id"),
+                    environment.property("kafka.topic.battery-create"))) {
+                for (Scenario scenario : settings.scenarios()) {
+                    results.add(runScenario(scenario, settings, generator, requestFactory, lagMonitor));
+                }
+            }
+
+            var reportDirectory = new LoadTestReport().write(settings, results);
+            log.info("Load test report written to {}", reportDirectory.toAbsolutePath());
+        }
+    }
+
+    private static ScenarioResult runScenario(Scenario scenario, LoadTestSettings settings, OpenModelLoadGenerator generator,
+                                              RequestFactory requestFactory, ConsumerLagMonitor lagMonitor)
+            throws InterruptedException {
+        log.info("Warming up {} for {}s", scenario.id(), settings.warmup().toSeconds());
+        generator.run(scenario, requestFactory, settings.requestsPerSecond(), settings.warmup());
+
+        log.info("Measuring {} at {} req/s for {}s", scenario.id(), settings.requestsPerSecond(), settings.duration().toSeconds());
+        ScenarioResult result;
+        if (scenario == Scenario.ASYNC_CREATE) {
+            // the backlog of the warm-up must not count against the measured run
+            lagMonitor.measure(() -> null, CONSUMER_DRAIN_TIMEOUT);
+            var measured = lagMonitor.measure(
+                    () -> generator.run(scenario, requestFactory, settings.requestsPerSecond(), settings.duration()),
+                    CONSUMER_DRAIN_TIMEOUT);
+            result = measured.value().withConsumerLag(measured.lag());
+        } else {
+            result = generator.run(scenario, requestFactory, settings.requestsPerSecond(), settings.duration());
+        }
+
+        log.info("{}: {} req/s, p50 {} ms, p99 {} ms, p99.9 {} ms, failures {}", scenario.id(),
+                String.format("%.1f", result.throughput()), String.format("%.2f", result.percentileMillis(50)),
+                String.format("%.2f", result.percentileMillis(99)), String.format("%.2f", result.percentileMillis(99.9)),
+                result.failures());
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+record LoadTestSettings(int fleetSize,
+                        long seed,
+                        List<Scenario> scenarios,
+                        double requestsPerSecond,
+                        Duration warmup,
+                        Duration duration,
+                        int batchSize,
+                        boolean virtualThreads,
+                        boolean concurrencyLimit,
+                        Path reportDirectory,
+                        String label) {
+
+    static LoadTestSettings fromSystemProperties() {
+        var settings = new LoadTestSettings(
+                Integer.parseInt(property("fleet-size", "100000")),
+                Long.parseLong(property("seed", "42")),
+                Arrays.stream(property("scenarios", "sync-create,async-create,range,search").split(","))
+                        .map(Scenario::fromId)
+                        .toList(),
+                Double.parseDouble(property("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(property("warmup-seconds", "15"))),
+                Duration.ofSeconds(Long.parseLong(property("duration-seconds", "60"))),
+                Integer.parseInt(property("batch-size", "10")),
+                Boolean.parseBoolean(property("virtual-threads", "false")),
+                Boolean.parseBoolean(property("concurrency-limit", "true")),
+                Path.of(property("report-dir", "build/reports/load-test")),
+                property("label", "local"));
+        if (settings.requestsPerSecond() <= 0 || settings.batchSize() <= 0 || settings.fleetSize() < 0) {
+            throw new IllegalArgumentException("rate and batch-size must be positive, fleet-size must not be negative");
+        }
+        return settings;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
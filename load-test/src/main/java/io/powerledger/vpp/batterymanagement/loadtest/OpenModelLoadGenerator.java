@@ -0,0 +1,77 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate whether or not earlier requests have completed, the way independent clients arrive.
+ * Latency is taken from the time a request was scheduled to start, so a stalled server shows up as queueing delay
+ * instead of slowing down the load (coordinated omission).
+ */
+final class OpenModelLoadGenerator implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    ScenarioResult run(Scenario scenario, RequestFactory requestFactory, double requestsPerSecond, Duration duration) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long total = (long) (requestsPerSecond * duration.toSeconds());
+        var latencies = new ConcurrentHistogram(3);
+        var succeeded = new LongAdder();
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            var request = requestFactory.next(scenario);
+            pending.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies.recordValue(System.nanoTime() - intendedStart);
+                        if (error != null) {
+                            failures.computeIfAbsent(error.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                        } else if (response.statusCode() >= 400) {
+                            failures.computeIfAbsent(String.valueOf(response.statusCode()), key -> new LongAdder()).increment();
+                        } else {
+                            succeeded.increment();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join();
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Long> failureCounts = new TreeMap<>();
+        failures.forEach((key, count) -> failureCounts.put(key, count.sum()));
+        return new ScenarioResult(scenario, requestsPerSecond, total, succeeded.sum(), failureCounts,
+                latencies, elapsed, null);
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+        executor.close();
+    }
+}
@@ -0,0 +1,58 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Postcodes weighted by the share of dwellings per state. Inside a state the capital city postcodes come first,
+ * so draws are skewed towards the start of each band.
+ */
+final class PostcodeDistribution {
+
+    private record Band(int min, int max, double weight) {
+    }
+
+    private static final List<Band> BANDS = List.of(
+            new Band(2000, 2599, 0.30), // NSW, Sydney first
+            new Band(2640, 2899, 0.02), // regional NSW
+            new Band(2600, 2618, 0.02), // ACT
+            new Band(3000, 3999, 0.26), // VIC
+            new Band(4000, 4999, 0.20), // QLD
+            new Band(5000, 5799, 0.07), // SA
+            new Band(6000, 6797, 0.10), // WA
+            new Band(7000, 7799, 0.02), // TAS
+            new Band(800, 899, 0.01)    // NT
+    );
+
+    private PostcodeDistribution() {
+    }
+
+    static int nextPostcode(SplittableRandom random) {
+        double draw = random.nextDouble();
+        Band band = BANDS.get(BANDS.size() - 1);
+        for (Band candidate : BANDS) {
+            if (draw < candidate.weight()) {
+                band = candidate;
+                break;
+            }
+            draw -= candidate.weight();
+        }
+        // squaring a uniform draw puts most batteries in the low, metropolitan postcodes of the band
+        double skewed = Math.pow(random.nextDouble(), 2);
+        return band.min() + (int) (skewed * (band.max() - band.min() + 1));
+    }
+
+    static String format(int postcode) {
+        return String.format("%04d", postcode);
+    }
+
+    /**
+     * Home batteries between 5 and 13.5 kW, one in five sites is a commercial install of up to 250 kW.
+     */
+    static int nextCapacity(SplittableRandom random) {
+        if (random.nextInt(5) == 0) {
+            return (int) (30_000 * Math.pow(250_000 / 30_000.0, random.nextDouble()));
+        }
+        return 5_000 + random.nextInt(8_501);
+    }
+}
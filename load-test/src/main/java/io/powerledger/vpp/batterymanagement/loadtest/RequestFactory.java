@@ -0,0 +1,87 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the requests of a scenario from a seeded random, only called from the thread pacing the load.
+ */
+final class RequestFactory {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int[] RANGE_SPANS = {10, 100, 500};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI batteriesUri;
+    private final SplittableRandom random;
+    private final int batchSize;
+    private long sequence;
+
+    RequestFactory(URI baseUri, long seed, int batchSize) {
+        this.batteriesUri = baseUri.resolve("/batteries");
+        // a different stream than the fleet seeder, created batteries do not repeat seeded names
+        this.random = new SplittableRandom(seed).split();
+        this.batchSize = batchSize;
+    }
+
+    HttpRequest next(Scenario scenario) {
+        return switch (scenario) {
+            case SYNC_CREATE -> post(batteriesUri, newBatteries());
+            case ASYNC_CREATE -> post(URI.create(batteriesUri + "/async"), newBatteries());
+            case RANGE -> rangeRequest();
+            case SEARCH -> searchRequest();
+        };
+    }
+
+    private HttpRequest rangeRequest() {
+        int minPostCode = PostcodeDistribution.nextPostcode(random);
+        int maxPostCode = Math.min(9999, minPostCode + RANGE_SPANS[random.nextInt(RANGE_SPANS.length)]);
+        // most clients only look at the first page, which also carries the summary
+        int page = random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 0;
+        URI uri = URI.create(batteriesUri + "?minPostCode=" + PostcodeDistribution.format(minPostCode)
+                + "&maxPostCode=" + PostcodeDistribution.format(maxPostCode) + "&page=" + page + "&size=10");
+        return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest searchRequest() {
+        int minPostCode = PostcodeDistribution.nextPostcode(random);
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        criteria.put("minPostCode", PostcodeDistribution.format(minPostCode));
+        criteria.put("maxPostCode", PostcodeDistribution.format(Math.min(9999, minPostCode + 200)));
+        criteria.put("minCapacity", 5_000 + random.nextInt(10_000));
+        return post(URI.create(batteriesUri + "/search"), criteria);
+    }
+
+    private List<Map<String, Object>> newBatteries() {
+        List<Map<String, Object>> batteries = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Map<String, Object> battery = new LinkedHashMap<>();
+            battery.put("name", "Load Test Battery " + sequence++);
+            battery.put("postcode", PostcodeDistribution.format(PostcodeDistribution.nextPostcode(random)));
+            battery.put("capacity", PostcodeDistribution.nextCapacity(random));
+            batteries.add(battery);
+        }
+        return batteries;
+    }
+
+    private HttpRequest post(URI uri, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri)
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize request body", ex);
+        }
+    }
+}
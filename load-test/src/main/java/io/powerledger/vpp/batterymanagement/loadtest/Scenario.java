@@ -0,0 +1,27 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import java.util.Arrays;
+
+enum Scenario {
+    SYNC_CREATE("sync-create"),
+    ASYNC_CREATE("async-create"),
+    RANGE("range"),
+    SEARCH("search");
+
+    private final String id;
+
+    Scenario(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    static Scenario fromId(String id) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.id.equals(id.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load test scenario: " + id));
+    }
+}
@@ -0,0 +1,34 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * Latencies are measured from the intended start of each request, in nanoseconds.
+ */
+record ScenarioResult(Scenario scenario,
+                      double targetRate,
+                      long sent,
+                      long succeeded,
+                      Map<String, Long> failures,
+                      Histogram latencies,
+                      long elapsedNanos,
+                      ConsumerLagMonitor.Result consumerLag) {
+
+    double throughput() {
+        return succeeded / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    double maxMillis() {
+        return latencies.getMaxValue() / 1_000_000.0;
+    }
+
+    ScenarioResult withConsumerLag(ConsumerLagMonitor.Result consumerLag) {
+        return new ScenarioResult(scenario, targetRate, sent, succeeded, failures, latencies, elapsedNanos, consumerLag);
+    }
+}
@@ -0,0 +1,190 @@
+package io.powerledger.vpp.batterymanagement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.lifecycle.Startables;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the extracted boot jar as a separate JVM in the default, fast-start and fast-start with CDS modes and
+ * measures the time from process start until {@code /actuator/health/readiness} reports UP. Run it with
+ * {@code ./gradlew :load-test:startupBenchmark}.
+ */
+public final class StartupBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private final Path jar;
+    private final Path reportDirectory;
+
+    private StartupBenchmark(Path jar, Path reportDirectory) {
+        this.jar = jar;
+        this.reportDirectory = reportDirectory;
+    }
+
+    record Mode(String id, List<String> jvmArguments, List<String> applicationArguments) {
+    }
+
+    record Run(String mode, int run, long millisToReady) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var jar = Path.of(System.getProperty("startup.jar"));
+        var cdsArchive = Path.of(System.getProperty("startup.cds-archive"));
+        var reportDirectory = Path.of(System.getProperty("startup.report-dir", "build/reports/startup"));
+        int warmupRuns = Integer.parseInt(System.getProperty("startup.warmup-runs", "1"));
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+        if (runs <= 0 || warmupRuns < 0) {
+            throw new IllegalArgumentException("runs must be positive, warmup-runs must not be negative");
+        }
+
+        var postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+                .withDatabaseName("startupdb")
+                .withUsername("startup")
+                .withPassword("startup");
+        var kafkaContainer = new ConfluentKafkaContainer("confluentinc/cp-kafka:7.4.0");
+        try (postgreSQLContainer; kafkaContainer) {
+            Startables.deepStart(postgreSQLContainer, kafkaContainer).join();
+            List<String> connection = List.of(
+                    "--spring.datasource.url=" + postgreSQLContainer.getJdbcUrl(),
+                    "--spring.datasource.username=" + postgreSQLContainer.getUsername(),
+                    "--spring.datasource.password=" + postgreSQLContainer.getPassword(),
+                    "--spring.kafka.bootstrap-servers=" + kafkaContainer.getBootstrapServers(),
+                    "--spring.jpa.show-sql=false");
+
+            var benchmark = new StartupBenchmark(jar, reportDirectory);
+            // the default mode runs first, its warm-up applies the migrations the fast-start runs then find applied
+            var modes = List.of(
+                    new Mode("default", List.of(), connection),
+                    new Mode("fast-start", List.of(), with(connection, "--spring.profiles.active=fast-start")),
+                    new Mode("fast-start-cds", List.of("-XX:SharedArchiveFile=" + cdsArchive.toAbsolutePath()),
+                            with(connection, "--spring.profiles.active=fast-start")));
+
+            List<Run> results = new ArrayList<>();
+            for (Mode mode : modes) {
+                for (int i = 0; i < warmupRuns; i++) {
+                    benchmark.timeToReady(mode, "warmup-" + i);
+                }
+                for (int i = 0; i < runs; i++) {
+                    long millis = benchmark.timeToReady(mode, String.valueOf(i));
+                    log.info("{} run {}: ready after {} ms", mode.id(), i, millis);
+                    results.add(new Run(mode.id(), i, millis));
+                }
+            }
+            benchmark.writeReport(results);
+        }
+    }
+
+    private long timeToReady(Mode mode, String run) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(mode.jvmArguments());
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.addAll(mode.applicationArguments());
+        command.add("--server.port=" + port);
+
+        Files.createDirectories(reportDirectory);
+        Path output = reportDirectory.resolve(mode.id() + "-" + run + ".log");
+        var readiness = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        try {
+            while (System.nanoTime() - start < READY_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.id() + " exited with " + process.exitValue() + ", see " + output);
+                }
+                if (isReady(readiness)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+            throw new IllegalStateException(mode.id() + " not ready after " + READY_TIMEOUT + ", see " + output);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private boolean isReady(HttpRequest readiness) throws InterruptedException {
+        try {
+            return httpClient.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException notListeningYet) {
+            return false;
+        }
+    }
+
+    private void writeReport(List<Run> results) throws IOException {
+        var lines = new StringBuilder("mode,run,ms_to_ready\n");
+        results.forEach(result -> lines.append(result.mode()).append(',').append(result.run()).append(',')
+                .append(result.millisToReady()).append('\n'));
+        Files.writeString(reportDirectory.resolve("startup.csv"), lines);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("timestamp", Instant.now().toString());
+        summary.put("jar", jar.getFileName().toString());
+        Map<String, Map<String, Long>> modes = new LinkedHashMap<>();
+        for (Run result : results) {
+            modes.computeIfAbsent(result.mode(), mode -> new LinkedHashMap<>());
+        }
+        modes.forEach((mode, statistics) -> {
+            long[] millis = results.stream().filter(result -> result.mode().equals(mode))
+                    .mapToLong(Run::millisToReady).sorted().toArray();
+            statistics.put("minMs", millis[0]);
+            statistics.put("medianMs", millis[millis.length / 2]);
+            statistics.put("maxMs", millis[millis.length - 1]);
+            log.info(String.format(Locale.ROOT, "%-16s min %6d ms  median %6d ms  max %6d ms",
+                    mode, millis[0], millis[millis.length / 2], millis[millis.length - 1]));
+        });
+        summary.put("modes", modes);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDirectory.resolve("summary.json").toFile(), summary);
+        log.info("Startup report written to {}", reportDirectory.toAbsolutePath());
+    }
+
+    private static List<String> with(List<String> arguments, String argument) {
+        List<String> combined = new ArrayList<>(arguments);
+        combined.add(argument);
+        return combined;
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
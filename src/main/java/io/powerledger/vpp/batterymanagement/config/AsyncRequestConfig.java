@@ -0,0 +1,41 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import io.powerledger.vpp.batterymanagement.datasource.ClientContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskExecutor asyncRequestExecutor;
+
+    public AsyncRequestConfig(@Value("${async-request.max-threads:16}") int maxThreads,
+                              @Value("${async-request.queue-capacity:64}") int queueCapacity,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // streamed response bodies get their own bounded pool instead of the application task executor, a full queue
+        // rejects the request with 503 rather than queueing lookups without bound
+        asyncRequestExecutor = new ThreadPoolTaskExecutor();
+        asyncRequestExecutor.setThreadNamePrefix("async-request-");
+        asyncRequestExecutor.setCorePoolSize(maxThreads);
+        asyncRequestExecutor.setMaxPoolSize(maxThreads);
+        asyncRequestExecutor.setQueueCapacity(queueCapacity);
+        asyncRequestExecutor.setVirtualThreads(virtualThreads);
+        asyncRequestExecutor.setTaskDecorator(ClientContext.propagatingDecorator());
+        // not a bean, another Executor bean would stop Boot from creating the applicationTaskExecutor
+        asyncRequestExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(asyncRequestExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        asyncRequestExecutor.shutdown();
+    }
+}
@@ -0,0 +1,35 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.powerledger.vpp.batterymanagement.limiter.AdaptiveConcurrencyLimiter;
+import io.powerledger.vpp.batterymanagement.limiter.ConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter readConcurrencyLimiter(
+            @Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${concurrency-limit.min-limit:4}") int minLimit,
+            @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${concurrency-limit.smoothing:0.2}") double smoothing,
+            @Value("${concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${concurrency-limit.long-window:600}") int longWindow,
+            @Value("${concurrency-limit.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, smoothing, rttTolerance, longWindow, backoffRatio);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter readConcurrencyLimiter,
+                                                                                 MeterRegistry meterRegistry) {
+        var registration = new FilterRegistrationBean<>(new ConcurrencyLimitFilter(readConcurrencyLimiter, meterRegistry));
+        registration.addUrlPatterns("/batteries", "/batteries/search");
+        return registration;
+    }
+}
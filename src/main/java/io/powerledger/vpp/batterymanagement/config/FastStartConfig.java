@@ -0,0 +1,54 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import io.powerledger.vpp.batterymanagement.consumer.BatteryConsumer;
+import io.powerledger.vpp.batterymanagement.controller.BatteryController;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.api.MigrationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * Fast-start mode (profile {@code fast-start}): everything off the request, ingest and migration paths is initialised
+ * lazily, and Flyway is not run at all when the schema history is already at the latest migration.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fast-start.enabled", havingValue = "true")
+public class FastStartConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(FastStartConfig.class);
+
+    // created at startup even with spring.main.lazy-initialization, so the first request does not pay for them
+    // and the listener is registered before readiness
+    @Bean
+    public static LazyInitializationExcludeFilter criticalBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                FlywayMigrationInitializer.class,
+                EntityManagerFactory.class,
+                AbstractEntityManagerFactoryBean.class,
+                BatteryController.class,
+                BatteryConsumer.class);
+    }
+
+    // sharding migrates every shard with its own strategy
+    @Bean
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "false", matchIfMissing = true)
+    public FlywayMigrationStrategy upToDateFlywayMigrationStrategy() {
+        return flyway -> {
+            MigrationInfo[] pending = flyway.info().pending();
+            if (pending.length == 0) {
+                MigrationInfo current = flyway.info().current();
+                log.info("Schema is up to date at version {}, skipping migration", current == null ? "<none>" : current.getVersion());
+                return;
+            }
+            log.info("Applying {} pending migrations", pending.length);
+            flyway.migrate();
+        };
+    }
+}
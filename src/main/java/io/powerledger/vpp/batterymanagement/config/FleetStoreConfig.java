@@ -0,0 +1,46 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import io.powerledger.vpp.batterymanagement.fleet.FleetSnapshots;
+import io.powerledger.vpp.batterymanagement.fleet.FleetStoreLoader;
+import io.powerledger.vpp.batterymanagement.sharding.ShardDataSources;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "fleet-store.enabled", havingValue = "true")
+public class FleetStoreConfig {
+
+    @Bean
+    public FleetColumnStore fleetColumnStore(@Value("${fleet-store.sketch-k:200}") int sketchK) {
+        return new FleetColumnStore(sketchK);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "fleet-store.snapshot.enabled", havingValue = "true")
+    public FleetSnapshots fleetSnapshots(FleetColumnStore fleetColumnStore,
+                                         @Value("${fleet-store.snapshot.path}") Path path) {
+        return new FleetSnapshots(fleetColumnStore, path);
+    }
+
+    @Bean
+    public FleetStoreLoader fleetStoreLoader(FleetColumnStore fleetColumnStore, DataSource dataSource,
+                                             ObjectProvider<ShardDataSources> shardDataSources,
+                                             ObjectProvider<FleetSnapshots> fleetSnapshots,
+                                             @Value("${fleet-store.catch-up-overlap:1m}") Duration catchUpOverlap) {
+        // with sharding the primary data source only reaches the default shard
+        var shards = shardDataSources.getIfAvailable();
+        List<DataSource> dataSources = shards != null ? List.copyOf(shards.byName().values()) : List.of(dataSource);
+        return new FleetStoreLoader(fleetColumnStore, dataSources, catchUpOverlap, fleetSnapshots.getIfAvailable());
+    }
+}
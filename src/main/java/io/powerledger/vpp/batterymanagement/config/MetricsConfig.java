@@ -0,0 +1,29 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.powerledger.vpp.batterymanagement.consumer.ConsumerBatchSizeInterceptor;
+import io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+public class MetricsConfig {
+
+    // records @Timed service methods
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer consumerBatchSizeMetrics(BatteryMetrics batteryMetrics) {
+        return consumerFactory -> consumerFactory.updateConfigs(Map.of(
+                ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, ConsumerBatchSizeInterceptor.class.getName(),
+                ConsumerBatchSizeInterceptor.METRICS_CONFIG, batteryMetrics));
+    }
+}
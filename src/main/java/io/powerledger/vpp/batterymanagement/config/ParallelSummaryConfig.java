@@ -0,0 +1,41 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import io.powerledger.vpp.batterymanagement.datasource.ClientContext;
+import io.powerledger.vpp.batterymanagement.fanout.ParallelRangeSummaries;
+import io.powerledger.vpp.batterymanagement.fanout.PostcodeStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "summary.parallel.enabled", havingValue = "true")
+public class ParallelSummaryConfig {
+
+    @Bean
+    public PostcodeStatistics postcodeStatistics(JdbcTemplate jdbcTemplate,
+                                                 @Value("${summary.parallel.statistics-refresh:10m}") Duration refreshInterval) {
+        return new PostcodeStatistics(jdbcTemplate, refreshInterval, Clock.systemUTC());
+    }
+
+    @Bean
+    public ParallelRangeSummaries parallelRangeSummaries(PostcodeStatistics postcodeStatistics,
+                                                         @Value("${summary.parallel.max-parallelism:4}") int maxParallelism,
+                                                         @Value("${summary.parallel.max-concurrent-queries:5}") int maxConcurrentQueries,
+                                                         @Value("${summary.parallel.min-rows-per-sub-range:250000}") long minRowsPerSubRange,
+                                                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // separate from the application task executor, sub-range queries are submitted from tasks running on it;
+        // the limit keeps the connections of all sub-range queries below the pool size; the client id is carried over
+        // so sub-range queries of a client that just wrote are routed to the primary like its other reads
+        var subRangeExecutor = new SimpleAsyncTaskExecutor("sub-range-query-");
+        subRangeExecutor.setVirtualThreads(virtualThreads);
+        subRangeExecutor.setConcurrencyLimit(maxConcurrentQueries);
+        subRangeExecutor.setTaskDecorator(ClientContext.propagatingDecorator());
+        return new ParallelRangeSummaries(postcodeStatistics, subRangeExecutor, maxParallelism, minRowsPerSubRange);
+    }
+}
@@ -0,0 +1,22 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import io.powerledger.vpp.batterymanagement.geo.PostcodeCentroids;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Configuration
+public class PostcodeCentroidsConfig {
+
+    @Bean
+    public PostcodeCentroids postcodeCentroids(
+            @Value("${postcode-centroids.location:classpath:geo/postcode-centroids.csv}") Resource location) throws IOException {
+        try (InputStream csv = location.getInputStream()) {
+            return PostcodeCentroids.read(csv);
+        }
+    }
+}
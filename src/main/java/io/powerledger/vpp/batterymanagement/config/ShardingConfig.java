@@ -0,0 +1,87 @@
+package io.powerledger.vpp.batterymanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.powerledger.vpp.batterymanagement.repository.BatteryRepository;
+import io.powerledger.vpp.batterymanagement.sharding.ShardDataSources;
+import io.powerledger.vpp.batterymanagement.sharding.ShardProperties;
+import io.powerledger.vpp.batterymanagement.sharding.ShardRouter;
+import io.powerledger.vpp.batterymanagement.sharding.ShardRoutingDataSource;
+import io.powerledger.vpp.batterymanagement.sharding.ShardedBatteryOperations;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardProperties shardProperties) {
+        return new ShardRouter(shardProperties.shards().stream()
+                .map(shard -> new ShardRouter.ShardRange(shard.name(), shard.minPostCode(), shard.maxPostCode()))
+                .toList());
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(ShardProperties shardProperties,
+                                             @Value("${spring.datasource.driver-class-name}") String driverClassName,
+                                             @Value("${spring.datasource.hikari.connection-init-sql:#{null}}") String connectionInitSql) {
+        Map<String, HikariDataSource> dataSources = new LinkedHashMap<>();
+        for (ShardProperties.Shard shard : shardProperties.shards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.url())
+                    .username(shard.username())
+                    .password(shard.password())
+                    .driverClassName(driverClassName)
+                    .build();
+            dataSource.setPoolName("shard-" + shard.name());
+            dataSource.setMaximumPoolSize(shard.maximumPoolSize());
+            dataSource.setConnectionInitSql(connectionInitSql);
+            dataSources.put(shard.name(), dataSource);
+        }
+        return new ShardDataSources(dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        var routingDataSource = new ShardRoutingDataSource(shardDataSources.byName(), shardDataSources.defaultShard());
+        routingDataSource.afterPropertiesSet();
+        // a scatter-gather call inside a service transaction must not pin a connection of the default shard
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardDataSources shardDataSources) {
+        return flyway -> shardDataSources.byName().values().forEach(shardDataSource -> Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(shardDataSource)
+                .load()
+                .migrate());
+    }
+
+    @Bean
+    public ShardedBatteryOperations shardedBatteryOperations(BatteryRepository batteryRepository, ShardRouter shardRouter,
+                                                             ShardProperties shardProperties,
+                                                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // separate from the application task executor, shard queries are submitted from tasks running on it
+        var shardQueryExecutor = new SimpleAsyncTaskExecutor("shard-query-");
+        shardQueryExecutor.setVirtualThreads(virtualThreads);
+        shardQueryExecutor.setConcurrencyLimit(shardProperties.maxConcurrentQueries());
+        return new ShardedBatteryOperations(batteryRepository, shardRouter, shardQueryExecutor);
+    }
+}
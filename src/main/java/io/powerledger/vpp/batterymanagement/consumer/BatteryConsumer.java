@@ -1,7 +1,12 @@
 package io.powerledger.vpp.batterymanagement.consumer;
 
+import io.powerledger.vpp.batterymanagement.diagnostics.BatteryBatchPersistedEvent;
+import io.powerledger.vpp.batterymanagement.diagnostics.KafkaRecordConsumedEvent;
 import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import io.powerledger.vpp.batterymanagement.logging.RateLimitedLogger;
+import io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics;
 import io.powerledger.vpp.batterymanagement.service.BatteryService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -11,15 +16,35 @@ import org.springframework.stereotype.Component;
 public class BatteryConsumer {
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final RateLimitedLogger sampledLog = new RateLimitedLogger(log);
     private final BatteryService batteryService;
+    private final BatteryMetrics batteryMetrics;
 
-    public BatteryConsumer(BatteryService batteryService) {
+    public BatteryConsumer(BatteryService batteryService, BatteryMetrics batteryMetrics) {
         this.batteryService = batteryService;
+        this.batteryMetrics = batteryMetrics;
     }
 
+    // the record timestamp is set by the producer when the message is sent (CreateTime)
     @KafkaListener(topics = "${kafka.topic.battery-create}", groupId = "battery-group")
-    public void consumeBatteryMessage(BatteryDto batteryDto) {
-        batteryService.createBattery(batteryDto);
-        log.info("Battery saved to database: {}", batteryDto);
+    public void consumeBatteryMessage(ConsumerRecord<String, BatteryDto> record) {
+        var consumedEvent = new KafkaRecordConsumedEvent();
+        var persistedEvent = new BatteryBatchPersistedEvent();
+        consumedEvent.begin();
+        long start = System.nanoTime();
+
+        persistedEvent.begin();
+        batteryService.createBattery(record.value());
+        persistedEvent.source = "kafka";
+        persistedEvent.batteries = 1;
+        persistedEvent.commit();
+
+        batteryMetrics.recordConsumed(System.nanoTime() - start, record.timestamp());
+        consumedEvent.topic = record.topic();
+        consumedEvent.partition = record.partition();
+        consumedEvent.offset = record.offset();
+        consumedEvent.lag = System.currentTimeMillis() - record.timestamp();
+        consumedEvent.commit();
+        sampledLog.info("Battery saved to database: {}", record.value());
     }
 }
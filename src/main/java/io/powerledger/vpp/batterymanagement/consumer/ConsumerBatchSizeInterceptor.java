@@ -0,0 +1,41 @@
+package io.powerledger.vpp.batterymanagement.consumer;
+
+import io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics;
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Records how many records each poll hands to the listener. Kafka creates interceptors itself,
+ * the metrics are passed in through the consumer configs.
+ */
+public class ConsumerBatchSizeInterceptor implements ConsumerInterceptor<Object, Object> {
+
+    public static final String METRICS_CONFIG = "battery.metrics";
+
+    private BatteryMetrics batteryMetrics;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        this.batteryMetrics = (BatteryMetrics) configs.get(METRICS_CONFIG);
+    }
+
+    @Override
+    public ConsumerRecords<Object, Object> onConsume(ConsumerRecords<Object, Object> records) {
+        if (batteryMetrics != null && !records.isEmpty()) {
+            batteryMetrics.recordConsumerBatch(records.count());
+        }
+        return records;
+    }
+
+    @Override
+    public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -1,13 +1,24 @@
 package io.powerledger.vpp.batterymanagement.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.powerledger.vpp.batterymanagement.diagnostics.BatteryBatchPersistedEvent;
 import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
 import io.powerledger.vpp.batterymanagement.dto.BatteryResponseDto;
 import io.powerledger.vpp.batterymanagement.dto.BatterySearchRequestDto;
+import io.powerledger.vpp.batterymanagement.dto.CapacityDistributionDto;
+import io.powerledger.vpp.batterymanagement.dto.DispatchSelectionDto;
+import io.powerledger.vpp.batterymanagement.dto.NearbyBatteriesDto;
+import io.powerledger.vpp.batterymanagement.dto.SummaryDto;
+import io.powerledger.vpp.batterymanagement.logging.RateLimitedLogger;
 import io.powerledger.vpp.batterymanagement.service.BatteryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,12 +26,25 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static io.powerledger.vpp.batterymanagement.util.Constant.AUSTRALIAN_POSTCODE_REGEX;
 
@@ -29,24 +53,52 @@ import static io.powerledger.vpp.batterymanagement.util.Constant.AUSTRALIAN_POST
 public class BatteryController {
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
+    // one per message, so a busy endpoint does not suppress the messages of the others
+    private final RateLimitedLogger createLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger asyncLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger rangeLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger searchLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger distributionLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger batchLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger topLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger dispatchLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger nearbyLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger namesLog = new RateLimitedLogger(log);
+    private final RateLimitedLogger lookupLog = new RateLimitedLogger(log);
 
     private final BatteryService batteryService;
+    private final Executor queryExecutor;
+    private final ObjectMapper objectMapper;
 
-    public BatteryController(BatteryService batteryService) {
+    // a virtual thread per summary is cheap; on platform threads the summary runs inline, so a request never waits for
+    // a thread of the query executor while holding a connection
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean concurrentSummaries;
+
+    public BatteryController(BatteryService batteryService,
+                             @Qualifier("applicationTaskExecutor") Executor queryExecutor,
+                             ObjectMapper objectMapper) {
         this.batteryService = batteryService;
+        this.queryExecutor = queryExecutor;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/batteries")
     public ResponseEntity<List<UUID>> createBatteries(@RequestBody @Valid List<BatteryDto> batteries) {
+        var event = new BatteryBatchPersistedEvent();
+        event.begin();
         var batteryIds = batteries.stream().map(batteryService::createBattery).toList();
-        log.info("Batteries created with IDs: {}", batteryIds);
+        event.source = "create";
+        event.batteries = batteryIds.size();
+        event.commit();
+        createLog.info("Created {} batteries", batteryIds.size());
         return ResponseEntity.ok(batteryIds);
     }
 
     @PostMapping("/batteries/async")
     public ResponseEntity<String> createBatteriesAsync(@RequestBody @Valid List<BatteryDto> batteries) {
         batteries.forEach(batteryService::sendBatteryCreationMessage);
-        log.info("Battery creation messages sent successfully.");
+        asyncLog.info("Sent {} battery creation messages", batteries.size());
         return ResponseEntity.accepted().body("Battery creation sent successfully.");
     }
 
@@ -61,26 +113,28 @@ public class BatteryController {
             @Pattern(regexp = AUSTRALIAN_POSTCODE_REGEX, message = "Invalid Australian postcode.")
             String maxPostCode,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        log.info("Fetching batteries in postcode range: {} - {} with page {} and size {}", minPostCode, maxPostCode, page, size);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        log.debug("Fetching batteries in postcode range: {} - {} with page {} and size {}", minPostCode, maxPostCode, page, size);
         Pageable pageable = PageRequest.of(page, size);
+
+        // returning summary only for the first page, queried concurrently with the page itself on virtual threads
+        var summaryFuture = page == 0
+                ? supplyAsync(() -> approximate
+                        ? batteryService.getApproximateSummaryByPostcodeRange(minPostCode, maxPostCode)
+                        : batteryService.getSummaryByPostcodeRange(minPostCode, maxPostCode))
+                : null;
         var batteries = batteryService.getBatteryByMinAndMaxPostCode(minPostCode, maxPostCode, pageable);
 
         var response = new BatteryResponseDto();
-        // returning summary only for the first page
-        if (page == 0) {
-            var summary = batteryService.getSummaryByPostcodeRange(
-                    minPostCode,
-                    maxPostCode
-            );
-            response.setTotalCapacity(summary.getTotalCapacity());
-            response.setAverageCapacity(summary.getAverageCapacity());
-            response.setTotalBatteries(summary.getTotalBatteries());
-            log.info("Summary for postcode range {} - {}: Total Batteries: {}, Total Capacity: {}, Average Capacity: {}",
+        if (summaryFuture != null) {
+            var summary = join(summaryFuture);
+            setSummary(response, summary);
+            log.debug("Summary for postcode range {} - {}: Total Batteries: {}, Total Capacity: {}, Average Capacity: {}",
                     minPostCode, maxPostCode, summary.getTotalBatteries(), summary.getTotalCapacity(), summary.getAverageCapacity());
         }
 
-        log.info("Found {} batteries in range", batteries.size());
+        rangeLog.info("Fetched {} batteries in a postcode range starting at {}", batteries.size(), minPostCode);
 
         var batteryNames = batteries.stream()
                 .map(BatteryDto::getName)
@@ -94,36 +148,225 @@ public class BatteryController {
     public ResponseEntity<BatteryResponseDto> searchBatteries(
             @RequestBody(required = false) @Valid BatterySearchRequestDto searchRequest,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean approximate
     ) {
         if (searchRequest == null) {
-            log.info("No search criteria provided, using default empty search request.");
+            log.debug("No search criteria provided, using default empty search request.");
             searchRequest = new BatterySearchRequestDto();
         }
-        log.info("Searching batteries with criteria: {}, with page {} and size {}", searchRequest, page, size);
+        log.debug("Searching batteries with criteria: {}, with page {} and size {}", searchRequest, page, size);
         Pageable pageable = PageRequest.of(page, size);
+        var criteria = searchRequest;
+
+        // returning summary only for the first page, queried concurrently with the page itself on virtual threads
+        var summaryFuture = page == 0
+                ? supplyAsync(() -> approximate
+                        ? batteryService.getApproximateSummaryBySearchCriteria(criteria)
+                        : batteryService.getSummaryBySearchCriteria(criteria))
+                : null;
         var batteries = batteryService.searchBatteries(searchRequest, pageable);
 
         var response = new BatteryResponseDto();
-
-        // returning summary only for the first page
-        if (page == 0) {
-            var summary = batteryService.getSummaryBySearchCriteria(
-                    searchRequest
-            );
-            response.setTotalCapacity(summary.getTotalCapacity());
-            response.setAverageCapacity(summary.getAverageCapacity());
-            response.setTotalBatteries(summary.getTotalBatteries());
-            log.info("Summary for search criteria {}: Total Batteries: {}, Total Capacity: {}, Average Capacity: {}",
+        if (summaryFuture != null) {
+            var summary = join(summaryFuture);
+            setSummary(response, summary);
+            log.debug("Summary for search criteria {}: Total Batteries: {}, Total Capacity: {}, Average Capacity: {}",
                     searchRequest, summary.getTotalBatteries(), summary.getTotalCapacity(), summary.getAverageCapacity());
         }
 
         var batteryNames = batteries.stream()
                 .map(BatteryDto::getName)
                 .toList();
-        log.info("Found {} batteries matching criteria", batteryNames.size());
+        searchLog.info("Found {} batteries matching criteria, page {}", batteryNames.size(), page);
         response.setBatteries(batteryNames);
         return ResponseEntity.ok(response);
     }
-}
 
+    @PostMapping("/batteries/summaries")
+    public ResponseEntity<Map<String, BatteryResponseDto>> summarizeBatch(
+            @RequestBody
+            @NotNull(message = "filters are required.")
+            @Size(min = 1, max = 200, message = "Between 1 and 200 filters are allowed.")
+            Map<String, @Valid BatterySearchRequestDto> filters,
+            @RequestParam(defaultValue = "false") boolean includeNames,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "size must be at least 1.")
+            int size) {
+        log.debug("Summarizing {} filters, with names: {}, size {}", filters.size(), includeNames, size);
+        var responses = batteryService.summarizeBatch(filters, includeNames, size);
+        batchLog.info("Summarized a batch of {} filters", responses.size());
+        return ResponseEntity.ok(responses);
+    }
+
+    @GetMapping("/batteries/top")
+    public ResponseEntity<List<BatteryDto>> getTopBatteriesByCapacity(
+            @RequestParam
+            @NotNull(message = "minPostCode is required.")
+            @Pattern(regexp = AUSTRALIAN_POSTCODE_REGEX, message = "Invalid Australian postcode.")
+            String minPostCode,
+            @RequestParam
+            @NotNull(message = "maxPostCode is required.")
+            @Pattern(regexp = AUSTRALIAN_POSTCODE_REGEX, message = "Invalid Australian postcode.")
+            String maxPostCode,
+            @RequestParam(defaultValue = "100")
+            @Min(value = 1, message = "k must be at least 1.")
+            @Max(value = 1000, message = "k must be at most 1000.")
+            int k) {
+        log.debug("Fetching the {} largest batteries in postcode range: {} - {}", k, minPostCode, maxPostCode);
+        var batteries = batteryService.getTopBatteriesByCapacity(minPostCode, maxPostCode, k);
+        topLog.info("Fetched the {} largest batteries in a postcode range starting at {}", batteries.size(), minPostCode);
+        return ResponseEntity.ok(batteries);
+    }
+
+    @GetMapping("/batteries/names")
+    public ResponseEntity<List<String>> completeNames(
+            @RequestParam
+            @NotNull(message = "prefix is required.")
+            @Size(min = 1, max = 255, message = "prefix must be between 1 and 255 characters.")
+            String prefix,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "limit must be at least 1.")
+            @Max(value = 100, message = "limit must be at most 100.")
+            int limit) {
+        log.debug("Completing battery names starting with '{}', at most {}", prefix, limit);
+        var names = batteryService.completeNames(prefix, limit);
+        namesLog.info("Completed {} battery names", names.size());
+        return ResponseEntity.ok(names);
+    }
+
+    /**
+     * Streams the batteries with the given ids in the order of the ids, then the ids without a battery. The body is
+     * written on the bounded async request executor as the chunks of the lookup come back, the client context travels
+     * with it through the executor's task decorator.
+     */
+    @PostMapping("/batteries/lookup")
+    public ResponseEntity<StreamingResponseBody> lookupBatteries(
+            @RequestBody
+            @NotNull(message = "ids are required.")
+            @Size(min = 1, max = 50000, message = "Between 1 and 50000 ids are allowed.")
+            List<@NotNull(message = "ids cannot contain null.") UUID> ids) {
+        log.debug("Looking up {} batteries by id", ids.size());
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("batteries");
+                var missing = batteryService.lookupBatteries(ids, battery -> {
+                    try {
+                        generator.writeObject(battery);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+                generator.writeArrayFieldStart("missing");
+                for (UUID id : missing) {
+                    generator.writeString(id.toString());
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                lookupLog.info("Looked up {} batteries, {} missing", ids.size() - missing.size(), missing.size());
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/batteries/distribution")
+    public ResponseEntity<CapacityDistributionDto> getCapacityDistribution(
+            @RequestParam
+            @NotNull(message = "minPostCode is required.")
+            @Pattern(regexp = AUSTRALIAN_POSTCODE_REGEX, message = "Invalid Australian postcode.")
+            String minPostCode,
+            @RequestParam
+            @NotNull(message = "maxPostCode is required.")
+            @Pattern(regexp = AUSTRALIAN_POSTCODE_REGEX, message = "Invalid Australian postcode.")
+            String maxPostCode,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "buckets must be at least 1.")
+            @Max(value = 100, message = "buckets must be at most 100.")
+            int buckets) {
+        log.debug("Fetching capacity distribution in postcode range: {} - {} with {} buckets", minPostCode, maxPostCode, buckets);
+        var distribution = batteryService.getCapacityDistribution(minPostCode, maxPostCode, buckets);
+        distributionLog.info("Fetched capacity distribution of {} batteries in a postcode range starting at {}",
+                distribution.getTotalBatteries(), minPostCode);
+        return ResponseEntity.ok(distribution);
+    }
+
+    @GetMapping("/batteries/dispatch-selection")
+    public ResponseEntity<DispatchSelectionDto> selectForDispatch(
+            @RequestParam
+            @NotNull(message = "minPostCode is required.")
+            @Pattern(regexp = AUSTRALIAN_POSTCODE_REGEX, message = "Invalid Australian postcode.")
+            String minPostCode,
+            @RequestParam
+            @NotNull(message = "maxPostCode is required.")
+            @Pattern(regexp = AUSTRALIAN_POSTCODE_REGEX, message = "Invalid Australian postcode.")
+            String maxPostCode,
+            @RequestParam
+            @Min(value = 1, message = "demand must be at least 1 watt.")
+            long demand,
+            @RequestParam(defaultValue = "1000")
+            @Min(value = 1, message = "maxBatteries must be at least 1.")
+            @Max(value = 10000, message = "maxBatteries must be at most 10000.")
+            int maxBatteries) {
+        log.debug("Selecting batteries for a demand of {} W in postcode range: {} - {}, at most {}", demand, minPostCode, maxPostCode, maxBatteries);
+        var selection = batteryService.selectForDispatch(minPostCode, maxPostCode, demand, maxBatteries);
+        dispatchLog.info("Selected {} batteries with {} W for a demand of {} W in a postcode range starting at {}",
+                selection.getBatteries().size(), selection.getTotalCapacity(), demand, minPostCode);
+        return ResponseEntity.ok(selection);
+    }
+
+    @GetMapping("/batteries/nearby")
+    public ResponseEntity<NearbyBatteriesDto> findNearby(
+            @RequestParam
+            @DecimalMin(value = "-90", message = "latitude must be between -90 and 90.")
+            @DecimalMax(value = "90", message = "latitude must be between -90 and 90.")
+            double latitude,
+            @RequestParam
+            @DecimalMin(value = "-180", message = "longitude must be between -180 and 180.")
+            @DecimalMax(value = "180", message = "longitude must be between -180 and 180.")
+            double longitude,
+            @RequestParam
+            @DecimalMin(value = "0", inclusive = false, message = "radiusKm must be greater than 0.")
+            @DecimalMax(value = "1000", message = "radiusKm must be at most 1000.")
+            double radiusKm,
+            @RequestParam(defaultValue = "100")
+            @Min(value = 1, message = "maxPostcodes must be at least 1.")
+            @Max(value = 200, message = "maxPostcodes must be at most 200.")
+            int maxPostcodes,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "size must be at least 1.")
+            int size) {
+        log.debug("Fetching batteries within {} km of {}, {} in at most {} postcodes", radiusKm, latitude, longitude, maxPostcodes);
+        var nearby = batteryService.findNearby(latitude, longitude, radiusKm, maxPostcodes, size);
+        nearbyLog.info("Found {} batteries in {} postcodes within {} km", nearby.getTotalBatteries(), nearby.getPostcodes().size(), radiusKm);
+        return ResponseEntity.ok(nearby);
+    }
+
+    private static void setSummary(BatteryResponseDto response, SummaryDto summary) {
+        response.setTotalCapacity(summary.getTotalCapacity());
+        response.setAverageCapacity(summary.getAverageCapacity());
+        response.setTotalBatteries(summary.getTotalBatteries());
+        response.setApproximate(summary.getApproximate());
+        response.setTotalBatteriesMargin(summary.getTotalBatteriesMargin());
+        response.setTotalCapacityMargin(summary.getTotalCapacityMargin());
+        response.setAverageCapacityMargin(summary.getAverageCapacityMargin());
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        return concurrentSummaries
+                ? CompletableFuture.supplyAsync(query, queryExecutor)
+                : CompletableFuture.completedFuture(query.get());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.powerledger.vpp.batterymanagement.datasource;
+
+import org.springframework.core.task.TaskDecorator;
+
+public final class ClientContext {
+
+    private static final ThreadLocal<String> CLIENT_ID = new ThreadLocal<>();
+
+    private ClientContext() {
+    }
+
+    public static String currentClientId() {
+        return CLIENT_ID.get();
+    }
+
+    public static void setClientId(String clientId) {
+        CLIENT_ID.set(clientId);
+    }
+
+    public static void clear() {
+        CLIENT_ID.remove();
+    }
+
+    public static TaskDecorator propagatingDecorator() {
+        return runnable -> {
+            String clientId = currentClientId();
+            return () -> {
+                String previous = currentClientId();
+                setClientId(clientId);
+                try {
+                    runnable.run();
+                } finally {
+                    setClientId(previous);
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package io.powerledger.vpp.batterymanagement.datasource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ReadYourWritesTracker {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final Map<String, Long> lastWriteMillis = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final Clock clock;
+
+    public ReadYourWritesTracker(Duration window, Clock clock) {
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return windowMillis > 0;
+    }
+
+    public void recordWrite(String clientId) {
+        if (!isEnabled() || clientId == null) {
+            return;
+        }
+        long now = clock.millis();
+        lastWriteMillis.put(clientId, now);
+        if (lastWriteMillis.size() > CLEANUP_THRESHOLD) {
+            lastWriteMillis.values().removeIf(writtenAt -> now - writtenAt > windowMillis);
+        }
+    }
+
+    public boolean wroteRecently(String clientId) {
+        if (!isEnabled() || clientId == null) {
+            return false;
+        }
+        Long writtenAt = lastWriteMillis.get(clientId);
+        return writtenAt != null && clock.millis() - writtenAt <= windowMillis;
+    }
+}
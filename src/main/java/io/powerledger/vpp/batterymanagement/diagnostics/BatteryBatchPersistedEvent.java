@@ -0,0 +1,22 @@
+package io.powerledger.vpp.batterymanagement.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("io.powerledger.vpp.BatteryBatchPersisted")
+@Label("Battery Batch Persisted")
+@Category({"VPP Battery Management", "Ingest"})
+@Description("Batteries persisted for one POST /batteries request or one consumed Kafka record")
+@StackTrace(false)
+public class BatteryBatchPersistedEvent extends Event {
+
+    @Label("Source")
+    public String source;
+
+    @Label("Batteries")
+    public int batteries;
+}
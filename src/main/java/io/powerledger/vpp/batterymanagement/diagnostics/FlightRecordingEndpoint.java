@@ -0,0 +1,171 @@
+package io.powerledger.vpp.batterymanagement.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Starts, stops and downloads one JDK Flight Recorder recording at a time. Recordings are bounded in duration and
+ * size, so a forgotten recording cannot fill the disk of a live node.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+public class FlightRecordingEndpoint implements DisposableBean {
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Recording recording;
+    private Path dumpFile;
+
+    public FlightRecordingEndpoint(@Value("${flight-recording.max-duration:10m}") Duration maxDuration,
+                                   @Value("${flight-recording.max-size:100MB}") DataSize maxSize) {
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("maxDuration", maxDuration.toString());
+            status.put("maxSize", maxSize.toBytes());
+            if (recording != null) {
+                status.put("id", recording.getId());
+                status.put("state", recording.getState().name());
+                status.put("startTime", String.valueOf(recording.getStartTime()));
+                status.put("duration", String.valueOf(recording.getDuration()));
+                status.put("size", recording.getSize());
+            }
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param durationSeconds how long to record, capped at {@code flight-recording.max-duration}
+     * @param settings {@code default} (about 1% overhead) or {@code profile} (more detail, about 2%)
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable Long durationSeconds, @Nullable String settings) {
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                return new WebEndpointResponse<>(Map.of("message", "Recording " + recording.getId() + " is already running."),
+                        HttpStatus.CONFLICT.value());
+            }
+            Configuration configuration;
+            try {
+                configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+            } catch (IOException | ParseException ex) {
+                return new WebEndpointResponse<>(Map.of("message", "Unknown recording settings: " + settings),
+                        WebEndpointResponse.STATUS_BAD_REQUEST);
+            }
+            Duration duration = maxDuration;
+            if (durationSeconds != null && durationSeconds > 0 && durationSeconds < maxDuration.toSeconds()) {
+                duration = Duration.ofSeconds(durationSeconds);
+            }
+
+            closeRecording();
+            recording = new Recording(configuration);
+            recording.setName("vpp-battery-management-api");
+            recording.setToDisk(true);
+            recording.setDuration(duration);
+            recording.setMaxSize(maxSize.toBytes());
+            recording.start();
+            log.info("Started flight recording {} for {} with '{}' settings", recording.getId(), duration, configuration.getName());
+            return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> stop() {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                return new WebEndpointResponse<>(Map.of("message", "No recording is running."), WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            recording.stop();
+            log.info("Stopped flight recording {}", recording.getId());
+            return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The recording so far, also while it is still running.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id) throws IOException {
+        lock.lock();
+        try {
+            if (recording == null || recording.getId() != id || recording.getState() == RecordingState.NEW) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            deleteDumpFile();
+            dumpFile = Files.createTempFile("flight-recording-" + id + "-", ".jfr");
+            recording.dump(dumpFile);
+            return new WebEndpointResponse<>(new FileSystemResource(dumpFile), WebEndpointResponse.STATUS_OK);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        lock.lock();
+        try {
+            closeRecording();
+            deleteDumpFile();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void deleteDumpFile() throws IOException {
+        if (dumpFile != null) {
+            Files.deleteIfExists(dumpFile);
+            dumpFile = null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.powerledger.vpp.batterymanagement.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("io.powerledger.vpp.KafkaRecordConsumed")
+@Label("Kafka Record Consumed")
+@Category({"VPP Battery Management", "Ingest"})
+@Description("A battery creation record handled by the consumer")
+@StackTrace(false)
+public class KafkaRecordConsumedEvent extends Event {
+
+    @Label("Topic")
+    public String topic;
+
+    @Label("Partition")
+    public int partition;
+
+    @Label("Offset")
+    public long offset;
+
+    @Label("End-to-end Lag")
+    @Description("Time from producing the record until it was persisted")
+    @Timespan(Timespan.MILLISECONDS)
+    public long lag;
+}
@@ -0,0 +1,31 @@
+package io.powerledger.vpp.batterymanagement.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("io.powerledger.vpp.QueryExecuted")
+@Label("Battery Query Executed")
+@Category({"VPP Battery Management", "Database"})
+@Description("A battery repository call made by BatteryService")
+@StackTrace(false)
+// an always-on recording only keeps the queries worth looking at, lower it with a custom .jfc for a full trace
+@Threshold("5 ms")
+public class QueryExecutedEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Query Type")
+    public String queryType;
+
+    @Label("Criteria")
+    public String criteria;
+
+    @Label("Rows")
+    public long rows;
+}
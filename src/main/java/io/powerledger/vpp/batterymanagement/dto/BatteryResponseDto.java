@@ -1,5 +1,7 @@
 package io.powerledger.vpp.batterymanagement.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class BatteryResponseDto {
@@ -7,6 +9,15 @@ public class BatteryResponseDto {
     private Long totalCapacity;
     private Double averageCapacity;
     private Long totalBatteries;
+    // only sent when an approximate summary was requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean approximate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalBatteriesMargin;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalCapacityMargin;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double averageCapacityMargin;
 
     public List<String> getBatteries() {
         return batteries;
@@ -39,4 +50,36 @@ public class BatteryResponseDto {
     public void setTotalBatteries(Long totalBatteries) {
         this.totalBatteries = totalBatteries;
     }
+
+    public Boolean getApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(Boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    public Long getTotalBatteriesMargin() {
+        return totalBatteriesMargin;
+    }
+
+    public void setTotalBatteriesMargin(Long totalBatteriesMargin) {
+        this.totalBatteriesMargin = totalBatteriesMargin;
+    }
+
+    public Long getTotalCapacityMargin() {
+        return totalCapacityMargin;
+    }
+
+    public void setTotalCapacityMargin(Long totalCapacityMargin) {
+        this.totalCapacityMargin = totalCapacityMargin;
+    }
+
+    public Double getAverageCapacityMargin() {
+        return averageCapacityMargin;
+    }
+
+    public void setAverageCapacityMargin(Double averageCapacityMargin) {
+        this.averageCapacityMargin = averageCapacityMargin;
+    }
 }
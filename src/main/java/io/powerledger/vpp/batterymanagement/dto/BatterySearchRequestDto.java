@@ -1,6 +1,9 @@
 package io.powerledger.vpp.batterymanagement.dto;
 
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
 
 import static io.powerledger.vpp.batterymanagement.util.Constant.AUSTRALIAN_POSTCODE_REGEX;
 
@@ -16,6 +19,18 @@ public class BatterySearchRequestDto {
 
     private Integer maxCapacity;
 
+    @Size(min = 1, max = 255, message = "namePrefix must be between 1 and 255 characters.")
+    private String namePrefix;
+
+    // trigrams need a few characters before similarity means anything
+    @Size(min = 3, max = 255, message = "nameQuery must be between 3 and 255 characters.")
+    private String nameQuery;
+
+    // registration window, from inclusive to exclusive
+    private Instant createdFrom;
+
+    private Instant createdTo;
+
     public String getMinPostCode() {
         return minPostCode;
     }
@@ -47,4 +62,36 @@ public class BatterySearchRequestDto {
     public void setMaxCapacity(Integer maxCapacity) {
         this.maxCapacity = maxCapacity;
     }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    public String getNameQuery() {
+        return nameQuery;
+    }
+
+    public void setNameQuery(String nameQuery) {
+        this.nameQuery = nameQuery;
+    }
+
+    public Instant getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(Instant createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public Instant getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(Instant createdTo) {
+        this.createdTo = createdTo;
+    }
 }
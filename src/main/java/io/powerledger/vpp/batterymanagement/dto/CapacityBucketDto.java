@@ -0,0 +1,31 @@
+package io.powerledger.vpp.batterymanagement.dto;
+
+public class CapacityBucketDto {
+    private Integer lowerBound;
+    private Integer upperBound;
+    private Long count;
+
+    public Integer getLowerBound() {
+        return lowerBound;
+    }
+
+    public void setLowerBound(Integer lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    public Integer getUpperBound() {
+        return upperBound;
+    }
+
+    public void setUpperBound(Integer upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
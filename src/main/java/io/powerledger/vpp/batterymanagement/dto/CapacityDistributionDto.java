@@ -0,0 +1,69 @@
+package io.powerledger.vpp.batterymanagement.dto;
+
+import java.util.List;
+
+public class CapacityDistributionDto {
+    private Long totalBatteries;
+    private Integer minCapacity;
+    private Integer maxCapacity;
+    private Integer p10Capacity;
+    private Integer medianCapacity;
+    private Integer p90Capacity;
+    private List<CapacityBucketDto> buckets;
+
+    public Long getTotalBatteries() {
+        return totalBatteries;
+    }
+
+    public void setTotalBatteries(Long totalBatteries) {
+        this.totalBatteries = totalBatteries;
+    }
+
+    public Integer getMinCapacity() {
+        return minCapacity;
+    }
+
+    public void setMinCapacity(Integer minCapacity) {
+        this.minCapacity = minCapacity;
+    }
+
+    public Integer getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public void setMaxCapacity(Integer maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    public Integer getP10Capacity() {
+        return p10Capacity;
+    }
+
+    public void setP10Capacity(Integer p10Capacity) {
+        this.p10Capacity = p10Capacity;
+    }
+
+    public Integer getMedianCapacity() {
+        return medianCapacity;
+    }
+
+    public void setMedianCapacity(Integer medianCapacity) {
+        this.medianCapacity = medianCapacity;
+    }
+
+    public Integer getP90Capacity() {
+        return p90Capacity;
+    }
+
+    public void setP90Capacity(Integer p90Capacity) {
+        this.p90Capacity = p90Capacity;
+    }
+
+    public List<CapacityBucketDto> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<CapacityBucketDto> buckets) {
+        this.buckets = buckets;
+    }
+}
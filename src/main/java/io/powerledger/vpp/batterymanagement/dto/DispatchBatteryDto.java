@@ -0,0 +1,42 @@
+package io.powerledger.vpp.batterymanagement.dto;
+
+import java.util.UUID;
+
+public class DispatchBatteryDto {
+    private UUID id;
+    private String name;
+    private String postcode;
+    private Integer capacity;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPostcode() {
+        return postcode;
+    }
+
+    public void setPostcode(String postcode) {
+        this.postcode = postcode;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+}
@@ -0,0 +1,42 @@
+package io.powerledger.vpp.batterymanagement.dto;
+
+import java.util.List;
+
+public class DispatchSelectionDto {
+    private Long demand;
+    private Long totalCapacity;
+    private Boolean satisfied;
+    private List<DispatchBatteryDto> batteries;
+
+    public Long getDemand() {
+        return demand;
+    }
+
+    public void setDemand(Long demand) {
+        this.demand = demand;
+    }
+
+    public Long getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public void setTotalCapacity(Long totalCapacity) {
+        this.totalCapacity = totalCapacity;
+    }
+
+    public Boolean getSatisfied() {
+        return satisfied;
+    }
+
+    public void setSatisfied(Boolean satisfied) {
+        this.satisfied = satisfied;
+    }
+
+    public List<DispatchBatteryDto> getBatteries() {
+        return batteries;
+    }
+
+    public void setBatteries(List<DispatchBatteryDto> batteries) {
+        this.batteries = batteries;
+    }
+}
@@ -0,0 +1,60 @@
+package io.powerledger.vpp.batterymanagement.dto;
+
+import java.util.List;
+
+public class NearbyBatteriesDto {
+    private List<String> batteries;
+    private Long totalBatteries;
+    private Long totalCapacity;
+    private Double averageCapacity;
+    private Boolean partialCoverage;
+    private List<NearbyPostcodeDto> postcodes;
+
+    public List<String> getBatteries() {
+        return batteries;
+    }
+
+    public void setBatteries(List<String> batteries) {
+        this.batteries = batteries;
+    }
+
+    public Long getTotalBatteries() {
+        return totalBatteries;
+    }
+
+    public void setTotalBatteries(Long totalBatteries) {
+        this.totalBatteries = totalBatteries;
+    }
+
+    public Long getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public void setTotalCapacity(Long totalCapacity) {
+        this.totalCapacity = totalCapacity;
+    }
+
+    public Double getAverageCapacity() {
+        return averageCapacity;
+    }
+
+    public void setAverageCapacity(Double averageCapacity) {
+        this.averageCapacity = averageCapacity;
+    }
+
+    public Boolean getPartialCoverage() {
+        return partialCoverage;
+    }
+
+    public void setPartialCoverage(Boolean partialCoverage) {
+        this.partialCoverage = partialCoverage;
+    }
+
+    public List<NearbyPostcodeDto> getPostcodes() {
+        return postcodes;
+    }
+
+    public void setPostcodes(List<NearbyPostcodeDto> postcodes) {
+        this.postcodes = postcodes;
+    }
+}
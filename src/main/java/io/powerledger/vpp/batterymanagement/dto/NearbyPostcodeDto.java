@@ -0,0 +1,40 @@
+package io.powerledger.vpp.batterymanagement.dto;
+
+public class NearbyPostcodeDto {
+    private String postcode;
+    private Double distanceKm;
+    private Long totalBatteries;
+    private Long totalCapacity;
+
+    public String getPostcode() {
+        return postcode;
+    }
+
+    public void setPostcode(String postcode) {
+        this.postcode = postcode;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public Long getTotalBatteries() {
+        return totalBatteries;
+    }
+
+    public void setTotalBatteries(Long totalBatteries) {
+        this.totalBatteries = totalBatteries;
+    }
+
+    public Long getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    public void setTotalCapacity(Long totalCapacity) {
+        this.totalCapacity = totalCapacity;
+    }
+}
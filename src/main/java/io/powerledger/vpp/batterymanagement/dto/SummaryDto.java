@@ -4,6 +4,10 @@ public class SummaryDto {
     private Long totalBatteries;
     private Long totalCapacity;
     private Double averageCapacity;
+    private Boolean approximate;
+    private Long totalBatteriesMargin;
+    private Long totalCapacityMargin;
+    private Double averageCapacityMargin;
 
     public Long getTotalBatteries() {
         return totalBatteries;
@@ -28,4 +32,36 @@ public class SummaryDto {
     public void setAverageCapacity(Double averageCapacity) {
         this.averageCapacity = averageCapacity;
     }
+
+    public Boolean getApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(Boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    public Long getTotalBatteriesMargin() {
+        return totalBatteriesMargin;
+    }
+
+    public void setTotalBatteriesMargin(Long totalBatteriesMargin) {
+        this.totalBatteriesMargin = totalBatteriesMargin;
+    }
+
+    public Long getTotalCapacityMargin() {
+        return totalCapacityMargin;
+    }
+
+    public void setTotalCapacityMargin(Long totalCapacityMargin) {
+        this.totalCapacityMargin = totalCapacityMargin;
+    }
+
+    public Double getAverageCapacityMargin() {
+        return averageCapacityMargin;
+    }
+
+    public void setAverageCapacityMargin(Double averageCapacityMargin) {
+        this.averageCapacityMargin = averageCapacityMargin;
+    }
 }
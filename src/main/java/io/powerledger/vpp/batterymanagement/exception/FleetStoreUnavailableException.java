@@ -0,0 +1,11 @@
+package io.powerledger.vpp.batterymanagement.exception;
+
+/**
+ * A request can only be answered from the fleet store, which is disabled or not loaded yet.
+ */
+public class FleetStoreUnavailableException extends RuntimeException {
+
+    public FleetStoreUnavailableException(String message) {
+        super(message);
+    }
+}
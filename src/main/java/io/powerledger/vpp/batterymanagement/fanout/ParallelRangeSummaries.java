@@ -0,0 +1,57 @@
+package io.powerledger.vpp.batterymanagement.fanout;
+
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Runs a summary over a wide postcode range as several sub-range summaries of about the same estimated cardinality,
+ * each on its own pooled connection, and combines them. A request uses at most {@code maxParallelism} connections and
+ * the executor caps the sub-range queries of all requests, so wide summaries cannot take over the pool.
+ */
+public class ParallelRangeSummaries {
+
+    private final PostcodeStatistics postcodeStatistics;
+    private final Executor subRangeExecutor;
+    private final int maxParallelism;
+    private final long minRowsPerSubRange;
+
+    public ParallelRangeSummaries(PostcodeStatistics postcodeStatistics, Executor subRangeExecutor,
+                                  int maxParallelism, long minRowsPerSubRange) {
+        this.postcodeStatistics = postcodeStatistics;
+        this.subRangeExecutor = subRangeExecutor;
+        this.maxParallelism = maxParallelism;
+        this.minRowsPerSubRange = minRowsPerSubRange;
+    }
+
+    /**
+     * Sub-ranges to summarize the range with, a single one when the range is not large enough to be worth splitting.
+     */
+    public List<PostcodeRange> split(String minPostCode, String maxPostCode) {
+        PostcodeHistogram histogram = postcodeStatistics.histogram();
+        double estimatedRows = histogram.estimateRows(minPostCode, maxPostCode);
+        int parts = (int) Math.min(maxParallelism, (long) (estimatedRows / minRowsPerSubRange));
+        return histogram.split(minPostCode, maxPostCode, parts);
+    }
+
+    /**
+     * Summarizes every sub-range concurrently and combines the results, the sub-ranges are disjoint.
+     */
+    public BatterySummary summarize(List<PostcodeRange> subRanges, Function<PostcodeRange, BatterySummary> summary) {
+        var futures = subRanges.stream()
+                .map(subRange -> CompletableFuture.supplyAsync(() -> summary.apply(subRange), subRangeExecutor))
+                .toList();
+        try {
+            return BatterySummary.combine(futures.stream().map(CompletableFuture::join).toList());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.powerledger.vpp.batterymanagement.fanout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimated number of batteries per postcode, built from the planner statistics of {@code batteries.postcode}. A
+ * histogram bucket's rows are spread evenly over the postcodes between its bounds, a most common value keeps its own.
+ * Postcodes are four digits, so the estimate is a plain array over 0000 - 9999 and ranges are answered from its prefix
+ * sums.
+ */
+public class PostcodeHistogram {
+
+    static final int POSTCODES = 10_000;
+
+    public static final PostcodeHistogram EMPTY = new PostcodeHistogram(new double[POSTCODES + 1]);
+
+    // cumulative[p] = estimated rows with a postcode below p
+    private final double[] cumulative;
+
+    private PostcodeHistogram(double[] cumulative) {
+        this.cumulative = cumulative;
+    }
+
+    /**
+     * Statistics of one table, or of one partition of a partitioned table.
+     *
+     * @param bounds             histogram_bounds, excluding the most common values
+     * @param commonValues       most_common_vals
+     * @param commonFrequencies  most_common_freqs, fractions of all rows
+     * @param nullFraction       null_frac
+     * @param rows               reltuples
+     */
+    public record ColumnStatistics(String[] bounds, String[] commonValues, double[] commonFrequencies,
+                                   double nullFraction, double rows) {
+    }
+
+    public static PostcodeHistogram of(List<ColumnStatistics> tables) {
+        double[] rowsPerPostcode = new double[POSTCODES];
+        for (ColumnStatistics table : tables) {
+            if (table.rows() <= 0) {
+                // never analyzed
+                continue;
+            }
+            double commonFraction = 0;
+            for (int i = 0; i < table.commonValues().length; i++) {
+                int postcode = parse(table.commonValues()[i]);
+                if (postcode >= 0) {
+                    rowsPerPostcode[postcode] += table.commonFrequencies()[i] * table.rows();
+                }
+                commonFraction += table.commonFrequencies()[i];
+            }
+            List<Integer> bounds = new ArrayList<>();
+            for (String bound : table.bounds()) {
+                int postcode = parse(bound);
+                if (postcode >= 0) {
+                    bounds.add(postcode);
+                }
+            }
+            if (bounds.size() < 2) {
+                continue;
+            }
+            // every bucket holds the same share of the rows outside the most common values
+            double rowsPerBucket = Math.max(0, 1 - table.nullFraction() - commonFraction) * table.rows() / (bounds.size() - 1);
+            for (int bucket = 0; bucket + 1 < bounds.size(); bucket++) {
+                int from = bounds.get(bucket);
+                int to = Math.max(from, bounds.get(bucket + 1));
+                double rowsPerValue = rowsPerBucket / (to - from + 1);
+                for (int postcode = from; postcode <= to; postcode++) {
+                    rowsPerPostcode[postcode] += rowsPerValue;
+                }
+            }
+        }
+        double[] cumulative = new double[POSTCODES + 1];
+        for (int postcode = 0; postcode < POSTCODES; postcode++) {
+            cumulative[postcode + 1] = cumulative[postcode] + rowsPerPostcode[postcode];
+        }
+        return new PostcodeHistogram(cumulative);
+    }
+
+    public double estimateRows(String minPostCode, String maxPostCode) {
+        int from = lowerBound(minPostCode);
+        int to = upperBound(maxPostCode);
+        return to < from ? 0 : cumulative[to + 1] - cumulative[from];
+    }
+
+    /**
+     * Splits the range into at most {@code parts} contiguous sub-ranges of about the same estimated number of rows. The
+     * first and the last sub-range keep the bounds of the range, so an open bound stays open.
+     */
+    public List<PostcodeRange> split(String minPostCode, String maxPostCode, int parts) {
+        int from = lowerBound(minPostCode);
+        int to = upperBound(maxPostCode);
+        double total = to < from ? 0 : cumulative[to + 1] - cumulative[from];
+        if (parts <= 1 || total <= 0) {
+            return List.of(new PostcodeRange(minPostCode, maxPostCode));
+        }
+        List<PostcodeRange> ranges = new ArrayList<>(parts);
+        String partMin = minPostCode;
+        int part = 1;
+        for (int postcode = from; postcode < to && part < parts; postcode++) {
+            // close the part at the first postcode that brings it to its share of the rows
+            if (cumulative[postcode + 1] - cumulative[from] >= total * part / parts) {
+                ranges.add(new PostcodeRange(partMin, format(postcode)));
+                partMin = format(postcode + 1);
+                part++;
+            }
+        }
+        ranges.add(new PostcodeRange(partMin, maxPostCode));
+        return ranges;
+    }
+
+    private static int lowerBound(String minPostCode) {
+        if (minPostCode == null) {
+            return 0;
+        }
+        int postcode = parse(minPostCode);
+        return postcode >= 0 ? postcode : POSTCODES;
+    }
+
+    private static int upperBound(String maxPostCode) {
+        if (maxPostCode == null) {
+            return POSTCODES - 1;
+        }
+        int postcode = parse(maxPostCode);
+        return postcode >= 0 ? postcode : -1;
+    }
+
+    static int parse(String postcode) {
+        if (postcode == null || postcode.length() != 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = postcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static String format(int postcode) {
+        return String.format("%04d", postcode);
+    }
+}
@@ -0,0 +1,7 @@
+package io.powerledger.vpp.batterymanagement.fanout;
+
+/**
+ * Inclusive postcode range, a null bound leaves that side open.
+ */
+public record PostcodeRange(String minPostCode, String maxPostCode) {
+}
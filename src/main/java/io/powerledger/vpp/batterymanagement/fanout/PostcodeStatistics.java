@@ -0,0 +1,116 @@
+package io.powerledger.vpp.batterymanagement.fanout;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads the planner statistics of {@code batteries.postcode} into a {@link PostcodeHistogram}. A partitioned table has
+ * no statistics of its own until it is analyzed explicitly, so the statistics of its partitions are combined, they hold
+ * disjoint postcode ranges. The histogram is re-read once it is older than the refresh interval, by the one request
+ * that finds it stale first and without holding a lock; the others keep using the stale histogram meanwhile, or
+ * {@link PostcodeHistogram#EMPTY} before the first read completes.
+ */
+public class PostcodeStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(PostcodeStatistics.class);
+
+    private static final String SELECT_STATISTICS = "SELECT s.histogram_bounds::text::varchar[] AS bounds, "
+            + "s.most_common_vals::text::varchar[] AS common_values, s.most_common_freqs::float8[] AS common_frequencies, "
+            + "s.null_frac, c.reltuples "
+            + "FROM pg_stats s "
+            + "JOIN pg_namespace n ON n.nspname = s.schemaname "
+            + "JOIN pg_class c ON c.relnamespace = n.oid AND c.relname = s.tablename "
+            + "WHERE s.attname = 'postcode' AND NOT s.inherited "
+            + "AND (c.oid = 'batteries'::regclass "
+            + "OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = 'batteries'::regclass))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration refreshInterval;
+    private final Clock clock;
+
+    private volatile PostcodeHistogram histogram;
+    private volatile Instant loadedAt = Instant.MIN;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    public PostcodeStatistics(JdbcTemplate jdbcTemplate, Duration refreshInterval, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshInterval = refreshInterval;
+        this.clock = clock;
+    }
+
+    public PostcodeHistogram histogram() {
+        Instant now = clock.instant();
+        if (isStale(now) && refreshing.compareAndSet(false, true)) {
+            try {
+                // another request may have refreshed it since the check
+                if (isStale(now)) {
+                    histogram = load();
+                    loadedAt = now;
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        PostcodeHistogram current = histogram;
+        return current != null ? current : PostcodeHistogram.EMPTY;
+    }
+
+    private boolean isStale(Instant now) {
+        return histogram == null || now.isAfter(loadedAt.plus(refreshInterval));
+    }
+
+    private PostcodeHistogram load() {
+        try {
+            return PostcodeHistogram.of(jdbcTemplate.query(SELECT_STATISTICS, (resultSet, rowNum) ->
+                    new PostcodeHistogram.ColumnStatistics(
+                            strings(resultSet, "bounds"),
+                            strings(resultSet, "common_values"),
+                            doubles(resultSet, "common_frequencies"),
+                            resultSet.getDouble("null_frac"),
+                            resultSet.getDouble("reltuples"))));
+        } catch (DataAccessException ex) {
+            // without statistics every summary runs as a single query, until the next refresh
+            log.warn("Could not read postcode statistics, summaries are not split", ex);
+            return histogram != null ? histogram : PostcodeHistogram.EMPTY;
+        }
+    }
+
+    private static String[] strings(ResultSet resultSet, String column) throws SQLException {
+        Array array = resultSet.getArray(column);
+        if (array == null) {
+            return new String[0];
+        }
+        try {
+            return (String[]) array.getArray();
+        } finally {
+            array.free();
+        }
+    }
+
+    private static double[] doubles(ResultSet resultSet, String column) throws SQLException {
+        Array array = resultSet.getArray(column);
+        if (array == null) {
+            return new double[0];
+        }
+        try {
+            Double[] values = (Double[]) array.getArray();
+            double[] result = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = values[i];
+            }
+            return result;
+        } finally {
+            array.free();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import java.util.Arrays;
+
+/**
+ * The rows of one postcode ordered by capacity, as {@code capacity << 32 | row} so a plain {@code long} sort orders
+ * them. Appends go to the end and the run is sorted again on the next read, the rows of a postcode only change as
+ * fast as batteries are registered there. Not thread-safe.
+ */
+class CapacityRun {
+
+    private long[] entries = new long[8];
+    private int size;
+    private boolean sorted = true;
+
+    void add(int capacity, int row) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        long entry = pack(capacity, row);
+        sorted &= size == 0 || entries[size - 1] <= entry;
+        entries[size++] = entry;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The largest capacity of the run, {@link Integer#MIN_VALUE} when it is empty.
+     */
+    int maxCapacity() {
+        sort();
+        return size == 0 ? Integer.MIN_VALUE : capacity(entries[size - 1]);
+    }
+
+    /**
+     * Copies the entries of capacity {@code threshold} or more, largest first: at most {@code limit} of them and any
+     * further entries of the same capacity as the last one, the caller orders ties by name.
+     */
+    long[] top(int limit, int threshold) {
+        sort();
+        int end = size;
+        int start = end;
+        while (start > 0 && capacity(entries[start - 1]) >= threshold
+                && (end - start < limit || capacity(entries[start - 1]) == capacity(entries[start]))) {
+            start--;
+        }
+        long[] top = new long[end - start];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = entries[end - 1 - i];
+        }
+        return top;
+    }
+
+    /**
+     * Copies at most {@code limit} of the largest entries, largest first, without the ties past the limit.
+     */
+    long[] largest(int limit) {
+        sort();
+        long[] largest = new long[Math.min(limit, size)];
+        for (int i = 0; i < largest.length; i++) {
+            largest[i] = entries[size - 1 - i];
+        }
+        return largest;
+    }
+
+    /**
+     * The smallest entry of at least {@code capacity} that is below the entry {@code below}, {@link Long#MAX_VALUE}
+     * when there is none. Binary search on the sorted run, nothing is copied.
+     */
+    long smallestAtLeast(int capacity, long below) {
+        sort();
+        long bound = (long) capacity << 32;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < size && entries[low] < below ? entries[low] : Long.MAX_VALUE;
+    }
+
+    private void sort() {
+        if (!sorted) {
+            Arrays.sort(entries, 0, size);
+            sorted = true;
+        }
+    }
+
+    static long pack(int capacity, int row) {
+        return (long) capacity << 32 | row;
+    }
+
+    static int capacity(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    static int row(long entry) {
+        return (int) entry;
+    }
+}
@@ -0,0 +1,202 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import java.util.Arrays;
+
+/**
+ * KLL quantile sketch of battery capacities. Level {@code h} holds items of weight {@code 2^h}; a full level is sorted
+ * and every other item, starting at a random offset, is promoted to the next level. Lower levels get geometrically
+ * smaller capacities, so the sketch keeps {@code O(k)} items however many capacities it has seen, and sketches merge
+ * by concatenating their levels. Not thread-safe.
+ */
+public class CapacitySketch {
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private int[][] levels = new int[0][];
+    private int[] levelSizes = new int[0];
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private long randomState;
+
+    public CapacitySketch(int k, long seed) {
+        this.k = k;
+        this.randomState = seed != 0 ? seed : 0x9E3779B97F4A7C15L;
+        grow();
+    }
+
+    public void update(int capacity) {
+        count++;
+        min = Math.min(min, capacity);
+        max = Math.max(max, capacity);
+        append(0, capacity);
+        retained++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public void merge(CapacitySketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (levels.length < other.levels.length) {
+            grow();
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.levelSizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+            retained += other.levelSizes[level];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public int min() {
+        return min;
+    }
+
+    public int max() {
+        return max;
+    }
+
+    /**
+     * Retained items sorted by value with their cumulative weights, to answer several quantile and rank queries.
+     */
+    public SortedView sortedView() {
+        long[] packed = new long[retained];
+        int next = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < levelSizes[level]; i++) {
+                // value in the high bits keeps the sort order, the level in the low bits carries the weight
+                packed[next++] = ((long) levels[level][i] << 8) | level;
+            }
+        }
+        Arrays.sort(packed);
+        int[] values = new int[retained];
+        long[] cumulativeWeights = new long[retained];
+        long cumulative = 0;
+        for (int i = 0; i < retained; i++) {
+            values[i] = (int) (packed[i] >> 8);
+            cumulative += 1L << (packed[i] & 0xFF);
+            cumulativeWeights[i] = cumulative;
+        }
+        return new SortedView(values, cumulativeWeights);
+    }
+
+    public record SortedView(int[] values, long[] cumulativeWeights) {
+
+        public long totalWeight() {
+            return cumulativeWeights.length == 0 ? 0 : cumulativeWeights[cumulativeWeights.length - 1];
+        }
+
+        /**
+         * Smallest retained value whose normalized rank is at least {@code fraction}.
+         */
+        public Integer quantile(double fraction) {
+            if (values.length == 0) {
+                return null;
+            }
+            long target = (long) Math.ceil(fraction * totalWeight());
+            int index = Arrays.binarySearch(cumulativeWeights, Math.max(target, 1));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return values[Math.min(index, values.length - 1)];
+        }
+
+        /**
+         * Estimated number of items less than or equal to {@code value}.
+         */
+        public long rank(int value) {
+            // index of the first value greater than the bound
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] <= value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low == 0 ? 0 : cumulativeWeights[low - 1];
+        }
+    }
+
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (levelSizes[level] >= capacity(level)) {
+                if (level + 1 == levels.length) {
+                    grow();
+                }
+                compact(level);
+                // lazy: one compaction per call frees enough room in the common case
+                return;
+            }
+        }
+    }
+
+    private void compact(int level) {
+        int[] items = levels[level];
+        int size = levelSizes[level];
+        Arrays.sort(items, 0, size);
+        // with an odd count the smallest item stays, the pairs above it are halved
+        int keep = size & 1;
+        int offset = nextCoin();
+        for (int i = keep + offset; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        levelSizes[level] = keep;
+        retained -= (size - keep) / 2;
+    }
+
+    private void grow() {
+        int levelCount = levels.length + 1;
+        levels = Arrays.copyOf(levels, levelCount);
+        levelSizes = Arrays.copyOf(levelSizes, levelCount);
+        levels[levelCount - 1] = new int[Math.max(2, capacity(levelCount - 1, levelCount))];
+        int total = 0;
+        for (int level = 0; level < levelCount; level++) {
+            total += capacity(level, levelCount);
+        }
+        maxRetained = total;
+    }
+
+    private int capacity(int level) {
+        return capacity(level, levels.length);
+    }
+
+    private int capacity(int level, int levelCount) {
+        return Math.max(2, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, levelCount - level - 1)));
+    }
+
+    private void append(int level, int value) {
+        int[] items = levels[level];
+        if (levelSizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels[level] = items;
+        }
+        items[levelSizes[level]++] = value;
+    }
+
+    // xorshift, only decides which half of a compacted level is promoted
+    private int nextCoin() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 63);
+    }
+}
@@ -0,0 +1,675 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.CapacityDistribution;
+import io.powerledger.vpp.batterymanagement.model.DispatchSelection;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
+import io.powerledger.vpp.batterymanagement.model.NameOrder;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * The fleet as primitive columns, one row per battery: postcode as {@code short}, capacity as {@code int}, the name as
+ * a code into a dictionary and the id as two {@code long}s. Rows are only ever appended and the database stays the
+ * source of truth.
+ * <p>
+ * A single writer appends under a lock and then publishes a new {@link Columns} view, readers scan that view without
+ * locking. Arrays are shared between views until they have to grow, a reader never looks past the size of its view.
+ * <p>
+ * Every appended row also updates the {@link CapacitySketch} of its postcode, distributions over a postcode range
+ * merge those sketches instead of scanning the rows. It is also added to the {@link CapacityRun} of its postcode, the
+ * largest batteries of a range are merged from the top of those runs. Every new name is added to the
+ * {@link NameIndex}, which finds the names starting with a prefix without scanning the dictionary.
+ */
+public class FleetColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int DEFAULT_SKETCH_K = 200;
+    private static final int MAX_POSTCODE = 9999;
+    private static final String[] POSTCODES = new String[MAX_POSTCODE + 1];
+
+    static {
+        for (int postcode = 0; postcode <= MAX_POSTCODE; postcode++) {
+            POSTCODES[postcode] = String.format("%04d", postcode);
+        }
+    }
+
+    record Columns(int size, short[] postcodes, int[] capacities, int[] nameCodes, long[] idHigh, long[] idLow,
+                   String[] names, int nameCount) {
+    }
+
+    private final Object writeLock = new Object();
+    private volatile Columns columns = new Columns(0, new short[INITIAL_CAPACITY], new int[INITIAL_CAPACITY],
+            new int[INITIAL_CAPACITY], new long[INITIAL_CAPACITY], new long[INITIAL_CAPACITY], new String[INITIAL_CAPACITY], 0);
+    private volatile boolean loaded;
+    // created_at of the newest row read from the database, not of local appends, so it stays in database time
+    private volatile LocalDateTime highWaterMark;
+
+    // writer state, guarded by writeLock
+    private final Map<String, Integer> nameCodes = new HashMap<>();
+    private int[] idSlots = new int[INITIAL_CAPACITY * 2];
+
+    // by postcode, created on the first battery of a postcode; each sketch is guarded by its own monitor
+    private final AtomicReferenceArray<CapacitySketch> capacitySketches = new AtomicReferenceArray<>(MAX_POSTCODE + 1);
+    private final AtomicReferenceArray<CapacityRun> capacityRuns = new AtomicReferenceArray<>(MAX_POSTCODE + 1);
+    private final NameIndex nameIndex = new NameIndex(() -> columns.names());
+    private final int sketchK;
+
+    public FleetColumnStore() {
+        this(DEFAULT_SKETCH_K);
+    }
+
+    public FleetColumnStore(int sketchK) {
+        this.sketchK = sketchK;
+    }
+
+    /**
+     * Appends a battery unless a row with the same id is already present.
+     *
+     * @return false for a duplicate or a postcode that is not four digits
+     */
+    public boolean add(UUID id, String name, String postcode, int capacity) {
+        int postcodeValue = parsePostcode(postcode);
+        if (postcodeValue < 0) {
+            return false;
+        }
+        synchronized (writeLock) {
+            Columns current = columns;
+            long high = id.getMostSignificantBits();
+            long low = id.getLeastSignificantBits();
+            int slot = findSlot(current, high, low);
+            if (idSlots[slot] != 0) {
+                return false;
+            }
+
+            Columns next = ensureCapacity(current);
+            int row = current.size();
+            String[] names = next.names();
+            int nameCount = next.nameCount();
+            Integer nameCode = nameCodes.get(name);
+            if (nameCode == null) {
+                if (nameCount == names.length) {
+                    names = Arrays.copyOf(names, names.length * 2);
+                }
+                nameCode = nameCount;
+                names[nameCount++] = name;
+                nameCodes.put(name, nameCode);
+            }
+            next.postcodes()[row] = (short) postcodeValue;
+            next.capacities()[row] = capacity;
+            next.nameCodes()[row] = nameCode;
+            next.idHigh()[row] = high;
+            next.idLow()[row] = low;
+
+            columns = new Columns(row + 1, next.postcodes(), next.capacities(), next.nameCodes(), next.idHigh(), next.idLow(),
+                    names, nameCount);
+            if (next != current) {
+                rehash(columns);
+            } else {
+                idSlots[slot] = row + 1;
+            }
+            if (nameCount > next.nameCount()) {
+                nameIndex.add(nameCode);
+            }
+            recordCapacity(postcodeValue, capacity, row);
+            return true;
+        }
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void markLoaded() {
+        // a full load adds every name unsorted, they are sorted once here rather than on the first lookup
+        nameIndex.build();
+        loaded = true;
+    }
+
+    public LocalDateTime highWaterMark() {
+        return highWaterMark;
+    }
+
+    public void advanceHighWaterMark(LocalDateTime createdAt) {
+        synchronized (writeLock) {
+            if (highWaterMark == null || createdAt.isAfter(highWaterMark)) {
+                highWaterMark = createdAt;
+            }
+        }
+    }
+
+    public List<Battery> findPage(String minPostCode, String maxPostCode, Integer minCapacity, Integer maxCapacity,
+                                  Pageable pageable) {
+        return findPage(minPostCode, maxPostCode, minCapacity, maxCapacity, null, pageable);
+    }
+
+    /**
+     * Rows matching the criteria ordered by name, null bounds and a null prefix are open. Only the rows up to the end of
+     * the page are kept while scanning.
+     */
+    public List<Battery> findPage(String minPostCode, String maxPostCode, Integer minCapacity, Integer maxCapacity,
+                                  String namePrefix, Pageable pageable) {
+        BitSet prefixCodes = namePrefix != null ? nameIndex.codesWithPrefix(namePrefix) : null;
+        Columns view = columns;
+        var filter = Filter.of(minPostCode, maxPostCode, minCapacity, maxCapacity);
+        long end = pageable.getOffset() + pageable.getPageSize();
+        if (filter == null || pageable.getOffset() >= view.size()) {
+            return List.of();
+        }
+        int limit = (int) Math.min(end, view.size());
+
+        String[] names = view.names();
+        int[] nameCodes = view.nameCodes();
+        Comparator<Integer> byName = Comparator.<Integer, String>comparing(row -> names[nameCodes[row]], NameOrder.COMPARATOR).thenComparing(row -> row);
+        // the head is the last row by name of the best rows so far
+        var best = new PriorityQueue<>(limit, byName.reversed());
+        short[] postcodes = view.postcodes();
+        int[] capacities = view.capacities();
+        for (int row = 0; row < view.size(); row++) {
+            if (filter.matches(postcodes[row], capacities[row]) && (prefixCodes == null || prefixCodes.get(nameCodes[row]))) {
+                keep(best, limit, row, byName);
+            }
+        }
+
+        var rows = new ArrayList<>(best);
+        rows.sort(byName);
+        return rows.stream()
+                .skip(pageable.getOffset())
+                .map(row -> toBattery(view, row))
+                .toList();
+    }
+
+    public BatterySummary summarize(String minPostCode, String maxPostCode, Integer minCapacity, Integer maxCapacity) {
+        return summarize(minPostCode, maxPostCode, minCapacity, maxCapacity, null);
+    }
+
+    /**
+     * Count and total capacity of the rows matching the criteria, in the shape of the aggregate query.
+     */
+    public BatterySummary summarize(String minPostCode, String maxPostCode, Integer minCapacity, Integer maxCapacity,
+                                    String namePrefix) {
+        BitSet prefixCodes = namePrefix != null ? nameIndex.codesWithPrefix(namePrefix) : null;
+        Columns view = columns;
+        var filter = Filter.of(minPostCode, maxPostCode, minCapacity, maxCapacity);
+        if (filter == null) {
+            return new BatterySummary(0L, null, null);
+        }
+        short[] postcodes = view.postcodes();
+        int[] capacities = view.capacities();
+        int[] nameCodes = view.nameCodes();
+        int size = view.size();
+        long count = 0;
+        long totalCapacity = 0;
+        for (int row = 0; row < size; row++) {
+            int capacity = capacities[row];
+            // no branch on the match, it is added as 0 or 1 and masks the capacity
+            int match = filter.matches(postcodes[row], capacity) && (prefixCodes == null || prefixCodes.get(nameCodes[row])) ? 1 : 0;
+            count += match;
+            totalCapacity += capacity & -match;
+        }
+        if (count == 0) {
+            return new BatterySummary(0L, null, null);
+        }
+        return new BatterySummary(count, totalCapacity, (double) totalCapacity / count);
+    }
+
+    /**
+     * Summaries of several filters in the order of the filters, each with its first {@code nameLimit} names in name
+     * order, from a single scan of the rows. The postcode axis is cut at the bounds of every filter, so each row is only
+     * tested against the filters covering the segment of its postcode rather than against all of them.
+     */
+    public List<FilterResult> summarizeAll(List<BatteryFilter> batteryFilters, int nameLimit) {
+        int filterCount = batteryFilters.size();
+        Filter[] filters = new Filter[filterCount];
+        BitSet[] prefixCodes = new BitSet[filterCount];
+        // first postcode of every segment, the covering filters only change at these
+        var segmentStarts = new TreeSet<Integer>(List.of(0));
+        for (int i = 0; i < filterCount; i++) {
+            BatteryFilter batteryFilter = batteryFilters.get(i);
+            filters[i] = Filter.of(batteryFilter.minPostCode(), batteryFilter.maxPostCode(),
+                    batteryFilter.minCapacity(), batteryFilter.maxCapacity());
+            prefixCodes[i] = batteryFilter.namePrefix() != null ? nameIndex.codesWithPrefix(batteryFilter.namePrefix()) : null;
+            if (filters[i] != null) {
+                segmentStarts.add(filters[i].minPostCode());
+                segmentStarts.add(filters[i].minPostCode() + filters[i].postCodeSpan() + 1);
+            }
+        }
+        segmentStarts.remove(MAX_POSTCODE + 1);
+        int[] segmentOf = new int[MAX_POSTCODE + 1];
+        List<int[]> covering = new ArrayList<>(segmentStarts.size());
+        for (int start : segmentStarts) {
+            Integer next = segmentStarts.higher(start);
+            Arrays.fill(segmentOf, start, next != null ? next : MAX_POSTCODE + 1, covering.size());
+            covering.add(IntStream.range(0, filterCount)
+                    .filter(i -> filters[i] != null && filters[i].coversPostcode(start))
+                    .toArray());
+        }
+
+        Columns view = columns;
+        String[] names = view.names();
+        int[] nameCodes = view.nameCodes();
+        Comparator<Integer> byName = Comparator.<Integer, String>comparing(row -> names[nameCodes[row]], NameOrder.COMPARATOR).thenComparing(row -> row);
+        long[] counts = new long[filterCount];
+        long[] totalCapacities = new long[filterCount];
+        List<PriorityQueue<Integer>> best = new ArrayList<>(filterCount);
+        for (int i = 0; i < filterCount; i++) {
+            best.add(new PriorityQueue<>(Math.max(1, nameLimit), byName.reversed()));
+        }
+        short[] postcodes = view.postcodes();
+        int[] capacities = view.capacities();
+        int size = view.size();
+        for (int row = 0; row < size; row++) {
+            int postcode = postcodes[row];
+            int capacity = capacities[row];
+            for (int i : covering.get(segmentOf[postcode])) {
+                if (filters[i].matches(postcode, capacity) && (prefixCodes[i] == null || prefixCodes[i].get(nameCodes[row]))) {
+                    counts[i]++;
+                    totalCapacities[i] += capacity;
+                    if (nameLimit > 0) {
+                        keep(best.get(i), nameLimit, row, byName);
+                    }
+                }
+            }
+        }
+
+        List<FilterResult> results = new ArrayList<>(filterCount);
+        for (int i = 0; i < filterCount; i++) {
+            var rows = new ArrayList<>(best.get(i));
+            rows.sort(byName);
+            BatterySummary summary = counts[i] == 0
+                    ? new BatterySummary(0L, null, null)
+                    : new BatterySummary(counts[i], totalCapacities[i], (double) totalCapacities[i] / counts[i]);
+            results.add(new FilterResult(summary, rows.stream().map(row -> names[nameCodes[row]]).toList()));
+        }
+        return results;
+    }
+
+    /**
+     * Up to {@code limit} distinct names starting with the prefix, in order, for autocompletion.
+     */
+    public List<String> completeNames(String prefix, int limit) {
+        return nameIndex.withPrefix(prefix, limit);
+    }
+
+    /**
+     * Capacity distribution of the batteries in the postcode range, from the merged sketches of its postcodes:
+     * the 10th, 50th and 90th percentile and {@code buckets} equal-width histogram buckets between the smallest and the
+     * largest capacity.
+     */
+    public CapacityDistribution capacityDistribution(String minPostCode, String maxPostCode, int buckets) {
+        int from = parsePostcode(minPostCode);
+        int to = parsePostcode(maxPostCode);
+        var merged = new CapacitySketch(sketchK, 1);
+        if (from >= 0 && to >= 0) {
+            for (int postcode = from; postcode <= to; postcode++) {
+                CapacitySketch sketch = capacitySketches.get(postcode);
+                if (sketch != null) {
+                    synchronized (sketch) {
+                        merged.merge(sketch);
+                    }
+                }
+            }
+        }
+        if (merged.count() == 0) {
+            return new CapacityDistribution(0, null, null, null, null, null, List.of());
+        }
+
+        var view = merged.sortedView();
+        int min = merged.min();
+        int max = merged.max();
+        long width = Math.max(1, ((long) max - min + buckets) / buckets);
+        List<CapacityDistribution.Bucket> histogram = new ArrayList<>(buckets);
+        // ranks are scaled to the exact count, the sketch weights add up to it already
+        long below = 0;
+        for (long lower = min; lower <= max; lower += width) {
+            int upper = (int) Math.min(max, lower + width - 1);
+            long atOrBelow = view.rank(upper);
+            histogram.add(new CapacityDistribution.Bucket((int) lower, upper, atOrBelow - below));
+            below = atOrBelow;
+        }
+        return new CapacityDistribution(merged.count(), min, max, view.quantile(0.1), view.quantile(0.5), view.quantile(0.9),
+                histogram);
+    }
+
+    /**
+     * The {@code k} batteries with the largest capacity in the postcode range, ties ordered by name. The runs of the
+     * postcodes are merged with a heap on their largest remaining entry, no row outside the top of a run is read.
+     */
+    public List<Battery> findTopByCapacity(String minPostCode, String maxPostCode, int k) {
+        int from = parsePostcode(minPostCode);
+        int to = parsePostcode(maxPostCode);
+        if (from < 0 || to < 0 || from > to || k <= 0) {
+            return List.of();
+        }
+        // the k-th largest of the postcodes' largest capacities bounds the top K from below
+        var leaders = new PriorityQueue<Integer>(k);
+        for (int postcode = from; postcode <= to; postcode++) {
+            CapacityRun run = capacityRuns.get(postcode);
+            if (run != null) {
+                int leader;
+                synchronized (run) {
+                    leader = run.maxCapacity();
+                }
+                if (leaders.size() < k) {
+                    leaders.add(leader);
+                } else if (leader > leaders.peek()) {
+                    leaders.poll();
+                    leaders.add(leader);
+                }
+            }
+        }
+        int threshold = leaders.size() == k ? leaders.peek() : Integer.MIN_VALUE;
+        List<long[]> runs = copyRuns(from, to, k, threshold);
+        // read after the runs, a row is published in the columns before it is added to its run
+        Columns view = columns;
+
+        int[] positions = new int[runs.size()];
+        var heads = headsOf(runs, positions);
+        List<Integer> rows = new ArrayList<>(k);
+        int lastCapacity = Integer.MAX_VALUE;
+        // past the k-th row only its ties are taken, the order by name decides which of them make the cut
+        while (!heads.isEmpty()
+                && (rows.size() < k || CapacityRun.capacity(runs.get(heads.peek())[positions[heads.peek()]]) == lastCapacity)) {
+            int run = heads.poll();
+            long entry = runs.get(run)[positions[run]++];
+            rows.add(CapacityRun.row(entry));
+            lastCapacity = CapacityRun.capacity(entry);
+            if (positions[run] < runs.get(run).length) {
+                heads.add(run);
+            }
+        }
+
+        String[] names = view.names();
+        int[] nameCodes = view.nameCodes();
+        int[] capacities = view.capacities();
+        Comparator<Integer> byCapacity = (a, b) -> Integer.compare(capacities[b], capacities[a]);
+        rows.sort(byCapacity.thenComparing(row -> names[nameCodes[row]], NameOrder.COMPARATOR).thenComparing(row -> row));
+        return rows.stream()
+                .limit(k)
+                .map(row -> toBattery(view, row))
+                .toList();
+    }
+
+    /**
+     * Batteries of the postcode range covering {@code demand} watts with as few batteries as possible: the largest are
+     * taken until the demand is met, which no smaller selection can beat. The last one taken is then swapped for the
+     * smallest remaining battery that still closes the gap, so the overshoot is at most that battery's excess. When
+     * the demand cannot be met, up to {@code maxBatteries} of the largest are returned.
+     */
+    public DispatchSelection selectForDemand(String minPostCode, String maxPostCode, long demand, int maxBatteries) {
+        int from = parsePostcode(minPostCode);
+        int to = parsePostcode(maxPostCode);
+        if (from < 0 || to < 0 || from > to || maxBatteries <= 0) {
+            return new DispatchSelection(demand, 0, List.of());
+        }
+        // no run gives more than maxBatteries, the closing swap below searches the live runs instead of copies
+        List<CapacityRun> liveRuns = new ArrayList<>();
+        List<long[]> runs = new ArrayList<>();
+        for (int postcode = from; postcode <= to; postcode++) {
+            CapacityRun run = capacityRuns.get(postcode);
+            if (run != null) {
+                long[] largest;
+                synchronized (run) {
+                    largest = run.largest(maxBatteries);
+                }
+                if (largest.length > 0) {
+                    liveRuns.add(run);
+                    runs.add(largest);
+                }
+            }
+        }
+
+        int[] positions = new int[runs.size()];
+        var heads = headsOf(runs, positions);
+        List<Integer> rows = new ArrayList<>();
+        long capacity = 0;
+        int lastCapacity = 0;
+        while (!heads.isEmpty() && capacity < demand && rows.size() < maxBatteries) {
+            int run = heads.poll();
+            long entry = runs.get(run)[positions[run]++];
+            rows.add(CapacityRun.row(entry));
+            lastCapacity = CapacityRun.capacity(entry);
+            capacity += lastCapacity;
+            if (positions[run] < runs.get(run).length) {
+                heads.add(run);
+            }
+        }
+
+        if (capacity >= demand && !rows.isEmpty()) {
+            int gap = (int) (demand - (capacity - lastCapacity));
+            // every battery not taken is at most as large as the last one, each live run is searched below the smallest
+            // entry taken from it, also past the entries copied
+            long smallest = Long.MAX_VALUE;
+            for (int run = 0; run < runs.size(); run++) {
+                long below = positions[run] > 0 ? runs.get(run)[positions[run] - 1] : Long.MAX_VALUE;
+                long candidate;
+                synchronized (liveRuns.get(run)) {
+                    candidate = liveRuns.get(run).smallestAtLeast(gap, below);
+                }
+                if (candidate != Long.MAX_VALUE && CapacityRun.capacity(candidate) < CapacityRun.capacity(smallest)) {
+                    smallest = candidate;
+                }
+            }
+            if (smallest != Long.MAX_VALUE && CapacityRun.capacity(smallest) < lastCapacity) {
+                capacity += CapacityRun.capacity(smallest) - lastCapacity;
+                rows.set(rows.size() - 1, CapacityRun.row(smallest));
+            }
+        }
+        // read after the searches, a row is published in the columns before it is added to its run
+        Columns view = columns;
+        return new DispatchSelection(demand, capacity, rows.stream().map(row -> toBattery(view, row)).toList());
+    }
+
+    // runs are copied under their own monitor, the merge works on the copies
+    private List<long[]> copyRuns(int from, int to, int limit, int threshold) {
+        List<long[]> runs = new ArrayList<>();
+        for (int postcode = from; postcode <= to; postcode++) {
+            CapacityRun run = capacityRuns.get(postcode);
+            if (run != null) {
+                long[] top;
+                synchronized (run) {
+                    top = run.top(limit, threshold);
+                }
+                if (top.length > 0) {
+                    runs.add(top);
+                }
+            }
+        }
+        return runs;
+    }
+
+    // best holds at most limit rows, its head is the last of them by name
+    private static void keep(PriorityQueue<Integer> best, int limit, int row, Comparator<Integer> byName) {
+        if (best.size() < limit) {
+            best.add(row);
+        } else if (byName.compare(row, best.peek()) < 0) {
+            best.poll();
+            best.add(row);
+        }
+    }
+
+    // the head is the run whose next entry has the largest capacity
+    private static PriorityQueue<Integer> headsOf(List<long[]> runs, int[] positions) {
+        var heads = new PriorityQueue<Integer>(Math.max(1, runs.size()),
+                (a, b) -> Long.compare(runs.get(b)[positions[b]], runs.get(a)[positions[a]]));
+        for (int run = 0; run < runs.size(); run++) {
+            heads.add(run);
+        }
+        return heads;
+    }
+
+    private void recordCapacity(int postcode, int capacity, int row) {
+        CapacitySketch sketch = capacitySketches.get(postcode);
+        CapacityRun run = capacityRuns.get(postcode);
+        if (sketch == null) {
+            // only the writer creates sketches and runs, sketches seeded by postcode so a rebuild promotes the same items
+            sketch = new CapacitySketch(sketchK, postcode + 1);
+            capacitySketches.set(postcode, sketch);
+            run = new CapacityRun();
+            capacityRuns.set(postcode, run);
+        }
+        synchronized (sketch) {
+            sketch.update(capacity);
+        }
+        synchronized (run) {
+            run.add(capacity, row);
+        }
+    }
+
+    Columns columns() {
+        return columns;
+    }
+
+    /**
+     * Adopts the columns of a snapshot, only before anything else was added.
+     */
+    void restore(Columns snapshot, LocalDateTime snapshotHighWaterMark) {
+        synchronized (writeLock) {
+            if (columns.size() > 0) {
+                throw new IllegalStateException("Fleet store already holds " + columns.size() + " batteries");
+            }
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < snapshot.size()) {
+                capacity <<= 1;
+            }
+            String[] names = Arrays.copyOf(snapshot.names(), Math.max(INITIAL_CAPACITY, snapshot.nameCount()));
+            nameCodes.clear();
+            for (int code = 0; code < snapshot.nameCount(); code++) {
+                nameCodes.put(names[code], code);
+            }
+            columns = new Columns(snapshot.size(),
+                    Arrays.copyOf(snapshot.postcodes(), capacity),
+                    Arrays.copyOf(snapshot.capacities(), capacity),
+                    Arrays.copyOf(snapshot.nameCodes(), capacity),
+                    Arrays.copyOf(snapshot.idHigh(), capacity),
+                    Arrays.copyOf(snapshot.idLow(), capacity),
+                    names,
+                    snapshot.nameCount());
+            rehash(columns);
+            for (int code = 0; code < snapshot.nameCount(); code++) {
+                nameIndex.add(code);
+            }
+            for (int row = 0; row < snapshot.size(); row++) {
+                recordCapacity(snapshot.postcodes()[row], snapshot.capacities()[row], row);
+            }
+            highWaterMark = snapshotHighWaterMark;
+        }
+    }
+
+    /**
+     * Closed postcode and capacity ranges, each checked with a single unsigned comparison.
+     */
+    record Filter(int minPostCode, int postCodeSpan, int minCapacity, int capacitySpan) {
+
+        static Filter of(String minPostCode, String maxPostCode, Integer minCapacity, Integer maxCapacity) {
+            int minPostcode = minPostCode != null ? parsePostcode(minPostCode) : 0;
+            int maxPostcode = maxPostCode != null ? parsePostcode(maxPostCode) : MAX_POSTCODE;
+            int min = minCapacity != null ? minCapacity : Integer.MIN_VALUE;
+            int max = maxCapacity != null ? maxCapacity : Integer.MAX_VALUE;
+            // empty ranges, the spans below would wrap around
+            if (minPostcode < 0 || maxPostcode < 0 || minPostcode > maxPostcode || min > max) {
+                return null;
+            }
+            return new Filter(minPostcode, maxPostcode - minPostcode, min, max - min);
+        }
+
+        boolean coversPostcode(int postcode) {
+            return Integer.compareUnsigned(postcode - minPostCode, postCodeSpan) <= 0;
+        }
+
+        boolean matches(int postcode, int capacity) {
+            return Integer.compareUnsigned(postcode - minPostCode, postCodeSpan) <= 0
+                    & Integer.compareUnsigned(capacity - minCapacity, capacitySpan) <= 0;
+        }
+    }
+
+    private static Battery toBattery(Columns view, int row) {
+        var battery = new Battery();
+        battery.setId(new UUID(view.idHigh()[row], view.idLow()[row]));
+        battery.setName(view.names()[view.nameCodes()[row]]);
+        battery.setPostcode(POSTCODES[view.postcodes()[row]]);
+        battery.setWattCapacity(view.capacities()[row]);
+        return battery;
+    }
+
+    private Columns ensureCapacity(Columns current) {
+        int length = current.postcodes().length;
+        if (current.size() < length) {
+            return current;
+        }
+        int grown = length * 2;
+        return new Columns(current.size(),
+                Arrays.copyOf(current.postcodes(), grown),
+                Arrays.copyOf(current.capacities(), grown),
+                Arrays.copyOf(current.nameCodes(), grown),
+                Arrays.copyOf(current.idHigh(), grown),
+                Arrays.copyOf(current.idLow(), grown),
+                current.names(),
+                current.nameCount());
+    }
+
+    // open addressing with linear probing, a slot holds row + 1 and 0 when it is free
+    private int findSlot(Columns view, long high, long low) {
+        int mask = idSlots.length - 1;
+        int slot = hash(high, low) & mask;
+        while (idSlots[slot] != 0) {
+            int row = idSlots[slot] - 1;
+            if (view.idHigh()[row] == high && view.idLow()[row] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(Columns view) {
+        idSlots = new int[view.postcodes().length * 2];
+        int mask = idSlots.length - 1;
+        for (int row = 0; row < view.size(); row++) {
+            int slot = hash(view.idHigh()[row], view.idLow()[row]) & mask;
+            while (idSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            idSlots[slot] = row + 1;
+        }
+    }
+
+    private static int hash(long high, long low) {
+        long mixed = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    static int parsePostcode(String postcode) {
+        if (postcode == null || postcode.length() != 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = postcode.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,209 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Persists the {@link FleetColumnStore} to a memory-mapped file, so a restarted instance only has to read the rows
+ * created after the snapshot's high-water mark from the database.
+ * <p>
+ * Layout, little-endian: a 48 byte header (magic, format version, rows, distinct names, high-water mark in epoch
+ * microseconds, body length, CRC32C of the body) followed by the id, capacity, name code and postcode columns, the
+ * name lengths and the UTF-8 bytes of the names. The file is written next to the target and moved over it, a reader
+ * never sees a partially written snapshot.
+ */
+public class FleetSnapshots implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetSnapshots.class);
+
+    static final long MAGIC = 0x56505046_4C454554L; // VPPFLEET
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 48;
+    private static final long NO_HIGH_WATER_MARK = Long.MIN_VALUE;
+
+    private final FleetColumnStore fleetColumnStore;
+    private final Path path;
+
+    public FleetSnapshots(FleetColumnStore fleetColumnStore, Path path) {
+        this.fleetColumnStore = fleetColumnStore;
+        this.path = path;
+    }
+
+    @Scheduled(fixedDelayString = "${fleet-store.snapshot.interval:5m}", initialDelayString = "${fleet-store.snapshot.interval:5m}")
+    public synchronized void write() throws IOException {
+        if (!fleetColumnStore.isLoaded()) {
+            return;
+        }
+        long start = System.nanoTime();
+        // the high-water mark first, every row read up to it is already in the columns captured after it
+        LocalDateTime highWaterMark = fleetColumnStore.highWaterMark();
+        FleetColumnStore.Columns columns = fleetColumnStore.columns();
+        write(columns, highWaterMark);
+        log.info("Fleet store snapshot of {} batteries written to {} in {} ms", columns.size(), path,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Restores an empty store from the snapshot.
+     *
+     * @return false when there is no usable snapshot and the store has to be loaded from the database
+     */
+    public boolean restore() {
+        if (Files.notExists(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            String problem = validate(buffer, channel.size());
+            if (problem != null) {
+                log.warn("Ignoring fleet store snapshot {}: {}", path, problem);
+                return false;
+            }
+            int rows = buffer.getInt(12);
+            int nameCount = buffer.getInt(16);
+            long highWaterMark = buffer.getLong(24);
+
+            buffer.position(HEADER_BYTES);
+            long[] idHigh = new long[rows];
+            long[] idLow = new long[rows];
+            int[] capacities = new int[rows];
+            int[] nameCodes = new int[rows];
+            short[] postcodes = new short[rows];
+            int[] nameLengths = new int[nameCount];
+            String[] names = new String[nameCount];
+            buffer.asLongBuffer().get(idHigh);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asLongBuffer().get(idLow);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asIntBuffer().get(capacities);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asIntBuffer().get(nameCodes);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asShortBuffer().get(postcodes);
+            buffer.position(buffer.position() + rows * Short.BYTES);
+            buffer.asIntBuffer().get(nameLengths);
+            buffer.position(buffer.position() + nameCount * Integer.BYTES);
+            for (int code = 0; code < nameCount; code++) {
+                byte[] bytes = new byte[nameLengths[code]];
+                buffer.get(bytes);
+                names[code] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            fleetColumnStore.restore(new FleetColumnStore.Columns(rows, postcodes, capacities, nameCodes, idHigh, idLow,
+                    names, nameCount), highWaterMark == NO_HIGH_WATER_MARK ? null : toLocalDateTime(highWaterMark));
+            return fleetColumnStore.highWaterMark() != null;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Ignoring unreadable fleet store snapshot {}", path, ex);
+            return false;
+        }
+    }
+
+    // written on a graceful shutdown, so a rolling restart replays next to nothing
+    @Override
+    public void destroy() throws IOException {
+        write();
+    }
+
+    void write(FleetColumnStore.Columns columns, LocalDateTime highWaterMark) throws IOException {
+        int rows = columns.size();
+        int nameCount = columns.nameCount();
+        byte[][] names = new byte[nameCount][];
+        long nameBytes = 0;
+        for (int code = 0; code < nameCount; code++) {
+            names[code] = columns.names()[code].getBytes(StandardCharsets.UTF_8);
+            nameBytes += names[code].length;
+        }
+        long bodyBytes = (long) rows * (2 * Long.BYTES + 2 * Integer.BYTES + Short.BYTES) + (long) nameCount * Integer.BYTES + nameBytes;
+        if (HEADER_BYTES + bodyBytes > Integer.MAX_VALUE) {
+            throw new IOException("Fleet store of " + (HEADER_BYTES + bodyBytes) + " bytes exceeds the size of a single mapping");
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + bodyBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.position(HEADER_BYTES);
+            buffer.asLongBuffer().put(columns.idHigh(), 0, rows);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asLongBuffer().put(columns.idLow(), 0, rows);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asIntBuffer().put(columns.capacities(), 0, rows);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asIntBuffer().put(columns.nameCodes(), 0, rows);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asShortBuffer().put(columns.postcodes(), 0, rows);
+            buffer.position(buffer.position() + rows * Short.BYTES);
+            for (byte[] name : names) {
+                buffer.putInt(name.length);
+            }
+            for (byte[] name : names) {
+                buffer.put(name);
+            }
+
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(8, FORMAT_VERSION);
+            buffer.putInt(12, rows);
+            buffer.putInt(16, nameCount);
+            buffer.putInt(20, 0);
+            buffer.putLong(24, highWaterMark != null ? toEpochMicros(highWaterMark) : NO_HIGH_WATER_MARK);
+            buffer.putLong(32, bodyBytes);
+            buffer.putLong(40, checksum(buffer, bodyBytes));
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String validate(ByteBuffer buffer, long fileSize) {
+        if (fileSize < HEADER_BYTES || buffer.getLong(0) != MAGIC) {
+            return "not a fleet store snapshot";
+        }
+        if (buffer.getInt(8) != FORMAT_VERSION) {
+            return "format version " + buffer.getInt(8) + ", expected " + FORMAT_VERSION;
+        }
+        long bodyBytes = buffer.getLong(32);
+        if (HEADER_BYTES + bodyBytes != fileSize || buffer.getInt(12) < 0 || buffer.getInt(16) < 0) {
+            return "truncated";
+        }
+        if (checksum(buffer, bodyBytes) != buffer.getLong(40)) {
+            return "checksum mismatch";
+        }
+        return null;
+    }
+
+    private static long checksum(ByteBuffer buffer, long bodyBytes) {
+        var crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_BYTES, (int) bodyBytes));
+        return crc.getValue();
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000),
+                (int) Math.floorMod(epochMicros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,129 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fills the {@link FleetColumnStore} before the application reports readiness, from a snapshot plus the rows created
+ * since when there is one and from a full scan otherwise, and then keeps catching up with rows
+ * written through other instances. The catch-up re-reads an overlap before the high-water mark, so rows of
+ * transactions that committed late are picked up, the store skips the ones it already has.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FleetStoreLoader implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetStoreLoader.class);
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final String SELECT_ALL = "SELECT id, name, postcode, watt_capacity, created_at FROM batteries";
+    private static final String SELECT_CREATED_SINCE = SELECT_ALL + " WHERE created_at >= ?";
+
+    private final FleetColumnStore fleetColumnStore;
+    // one per shard when sharding is enabled
+    private final List<DataSource> dataSources;
+    private final Duration catchUpOverlap;
+    // null when snapshots are disabled
+    private final FleetSnapshots fleetSnapshots;
+
+    public FleetStoreLoader(FleetColumnStore fleetColumnStore, List<DataSource> dataSources, Duration catchUpOverlap,
+                            FleetSnapshots fleetSnapshots) {
+        this.fleetColumnStore = fleetColumnStore;
+        this.dataSources = dataSources;
+        this.catchUpOverlap = catchUpOverlap;
+        this.fleetSnapshots = fleetSnapshots;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        long start = System.nanoTime();
+        long added = 0;
+        if (fleetSnapshots != null && fleetSnapshots.restore()) {
+            int restored = fleetColumnStore.size();
+            // only the rows created after the snapshot, plus the overlap for transactions that committed late
+            LocalDateTime createdSince = fleetColumnStore.highWaterMark().minus(catchUpOverlap);
+            for (DataSource dataSource : dataSources) {
+                added += load(dataSource, createdSince);
+            }
+            fleetColumnStore.markLoaded();
+            log.info("Fleet store restored {} batteries from snapshot and replayed {} created since {} in {} ms",
+                    restored, added, createdSince, Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return;
+        }
+        for (DataSource dataSource : dataSources) {
+            added += load(dataSource, null);
+        }
+        fleetColumnStore.markLoaded();
+        log.info("Fleet store loaded {} batteries in {} ms", added, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${fleet-store.refresh-interval:5s}", initialDelayString = "${fleet-store.refresh-interval:5s}")
+    public void catchUp() throws SQLException {
+        LocalDateTime highWaterMark = fleetColumnStore.highWaterMark();
+        if (!fleetColumnStore.isLoaded() || highWaterMark == null) {
+            return;
+        }
+        long added = 0;
+        for (DataSource dataSource : dataSources) {
+            added += load(dataSource, highWaterMark.minus(catchUpOverlap));
+        }
+        if (added > 0) {
+            log.debug("Fleet store caught up with {} batteries", added);
+        }
+    }
+
+    long load(DataSource dataSource, LocalDateTime createdSince) throws SQLException {
+        long added = 0;
+        long skipped = 0;
+        LocalDateTime newest = null;
+        try (Connection connection = dataSource.getConnection()) {
+            // the driver only streams with a cursor inside a transaction
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(createdSince == null ? SELECT_ALL : SELECT_CREATED_SINCE)) {
+                statement.setFetchSize(FETCH_SIZE);
+                if (createdSince != null) {
+                    statement.setObject(1, createdSince);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        var createdAt = resultSet.getObject(5, LocalDateTime.class);
+                        if (newest == null || createdAt.isAfter(newest)) {
+                            newest = createdAt;
+                        }
+                        if (fleetColumnStore.add(resultSet.getObject(1, UUID.class), resultSet.getString(2),
+                                resultSet.getString(3), resultSet.getInt(4))) {
+                            added++;
+                        } else if (FleetColumnStore.parsePostcode(resultSet.getString(3)) < 0) {
+                            skipped++;
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        if (newest != null) {
+            fleetColumnStore.advanceHighWaterMark(newest);
+        }
+        if (skipped > 0) {
+            log.warn("Fleet store skipped {} batteries without a four digit postcode", skipped);
+        }
+        return added;
+    }
+}
@@ -0,0 +1,171 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import io.powerledger.vpp.batterymanagement.model.NameOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The distinct names of the store as dictionary codes in runs sorted by {@link NameOrder}, the order of the database,
+ * so the names starting with a prefix are one contiguous range of every run, found by binary search. New codes are
+ * collected unsorted and sorted into a run on the next lookup, runs of similar size are merged so there are never more
+ * than about log2 of the names.
+ * <p>
+ * Runs are never changed once published, a lookup searches them outside the monitor. The dictionary is read under the
+ * monitor, every code added before then is in it.
+ */
+class NameIndex {
+
+    private record Snapshot(List<int[]> runs, String[] names) {
+    }
+
+    private final Supplier<String[]> dictionary;
+    private final List<int[]> runs = new ArrayList<>();
+    private int[] added = new int[16];
+    private int addedCount;
+
+    NameIndex(Supplier<String[]> dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    synchronized void add(int code) {
+        if (addedCount == added.length) {
+            added = Arrays.copyOf(added, addedCount * 2);
+        }
+        added[addedCount++] = code;
+    }
+
+    /**
+     * Sorts the names added so far into a run, so the next lookup does not have to.
+     */
+    void build() {
+        snapshot();
+    }
+
+    /**
+     * Up to {@code limit} names starting with the prefix, in order.
+     */
+    List<String> withPrefix(String prefix, int limit) {
+        Snapshot current = snapshot();
+        List<int[]> sortedRuns = current.runs();
+        String[] names = current.names();
+        int[] positions = new int[sortedRuns.size()];
+        int[] ends = new int[sortedRuns.size()];
+        for (int run = 0; run < sortedRuns.size(); run++) {
+            positions[run] = lowerBound(sortedRuns.get(run), names, prefix);
+            ends[run] = upperBound(sortedRuns.get(run), names, prefix, positions[run]);
+        }
+        // few runs, the smallest head is picked by a linear pass
+        List<String> matches = new ArrayList<>(Math.min(limit, 64));
+        while (matches.size() < limit) {
+            int best = -1;
+            for (int run = 0; run < sortedRuns.size(); run++) {
+                if (positions[run] < ends[run] && (best < 0
+                        || NameOrder.compare(names[sortedRuns.get(run)[positions[run]]], names[sortedRuns.get(best)[positions[best]]]) < 0)) {
+                    best = run;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            matches.add(names[sortedRuns.get(best)[positions[best]++]]);
+        }
+        return matches;
+    }
+
+    /**
+     * The codes of every name starting with the prefix.
+     */
+    BitSet codesWithPrefix(String prefix) {
+        Snapshot current = snapshot();
+        String[] names = current.names();
+        var codes = new BitSet();
+        for (int[] run : current.runs()) {
+            int start = lowerBound(run, names, prefix);
+            int end = upperBound(run, names, prefix, start);
+            for (int i = start; i < end; i++) {
+                codes.set(run[i]);
+            }
+        }
+        return codes;
+    }
+
+    private synchronized Snapshot snapshot() {
+        String[] names = dictionary.get();
+        if (addedCount > 0) {
+            int[] run = Arrays.copyOf(added, addedCount);
+            sortByName(run, names);
+            addedCount = 0;
+            // merging into the smaller runs keeps the total work at O(n log n) over all additions
+            while (!runs.isEmpty() && runs.get(runs.size() - 1).length <= run.length) {
+                run = merge(runs.remove(runs.size() - 1), run, names);
+            }
+            runs.add(run);
+        }
+        return new Snapshot(List.copyOf(runs), names);
+    }
+
+    // first index whose name is not below the prefix
+    private static int lowerBound(int[] run, String[] names, String prefix) {
+        int low = 0;
+        int high = run.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (NameOrder.compare(names[run[middle]], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // first index from start whose name does not start with the prefix, the names from start on are not below it
+    private static int upperBound(int[] run, String[] names, String prefix, int start) {
+        int low = start;
+        int high = run.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (names[run[middle]].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int[] merge(int[] left, int[] right, String[] names) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            merged[k] = j == right.length || i < left.length && NameOrder.compare(names[left[i]], names[right[j]]) <= 0
+                    ? left[i++]
+                    : right[j++];
+        }
+        return merged;
+    }
+
+    // merge sort on the primitive codes, a boxed sort would allocate an Integer per name
+    private static void sortByName(int[] codes, String[] names) {
+        int[] buffer = new int[codes.length];
+        for (int width = 1; width < codes.length; width *= 2) {
+            for (int start = 0; start < codes.length - width; start += 2 * width) {
+                int middle = start + width;
+                int end = Math.min(start + 2 * width, codes.length);
+                int i = start;
+                int j = middle;
+                for (int k = start; k < end; k++) {
+                    buffer[k] = j == end || i < middle && NameOrder.compare(names[codes[i]], names[codes[j]]) <= 0
+                            ? codes[i++]
+                            : codes[j++];
+                }
+                System.arraycopy(buffer, start, codes, start, end - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package io.powerledger.vpp.batterymanagement.geo;
+
+public record PostcodeCentroid(String postcode, double latitude, double longitude) {
+}
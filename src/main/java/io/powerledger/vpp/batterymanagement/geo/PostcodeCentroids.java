@@ -0,0 +1,162 @@
+package io.powerledger.vpp.batterymanagement.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * k-d tree over postcode centroids. Centroids are placed on the unit sphere as {@code (x, y, z)}, where the straight
+ * line (chord) distance grows with the great-circle distance, so the usual Euclidean pruning finds exactly the
+ * postcodes within a radius. Immutable once built.
+ */
+public class PostcodeCentroids {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final String[] postcodes;
+    // node of a slice is its middle, sorted by the slice's axis when the tree is built
+    private final double[][] points;
+
+    public PostcodeCentroids(List<PostcodeCentroid> centroids) {
+        int size = centroids.size();
+        List<Node> nodes = new ArrayList<>(size);
+        for (PostcodeCentroid centroid : centroids) {
+            nodes.add(new Node(centroid.postcode(), toPoint(centroid.latitude(), centroid.longitude())));
+        }
+        postcodes = new String[size];
+        points = new double[size][];
+        build(nodes, 0, size, 0);
+    }
+
+    /**
+     * Reads {@code postcode,locality,state,latitude,longitude} rows after a header, lines starting with {@code #} are
+     * comments.
+     */
+    public static PostcodeCentroids read(InputStream csv) throws IOException {
+        List<PostcodeCentroid> centroids = new ArrayList<>();
+        try (var reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            boolean header = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 5) {
+                    throw new IOException("Expected postcode,locality,state,latitude,longitude but got: " + line);
+                }
+                centroids.add(new PostcodeCentroid(fields[0].trim(),
+                        Double.parseDouble(fields[3].trim()), Double.parseDouble(fields[4].trim())));
+            }
+        }
+        return new PostcodeCentroids(centroids);
+    }
+
+    public int size() {
+        return postcodes.length;
+    }
+
+    /**
+     * Up to {@code limit} postcodes whose centroid is within {@code radiusKm} of the point, nearest first.
+     */
+    public List<PostcodeDistance> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        if (limit <= 0 || postcodes.length == 0) {
+            return List.of();
+        }
+        double[] target = toPoint(latitude, longitude);
+        double maxChord = chord(Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI));
+        // the head is the farthest of the nearest postcodes found so far
+        var found = new PriorityQueue<Candidate>(Comparator.comparingDouble(Candidate::squaredChord).reversed());
+        search(0, postcodes.length, 0, target, maxChord * maxChord, limit, found);
+
+        var nearest = new ArrayList<>(found);
+        nearest.sort(Comparator.comparingDouble(Candidate::squaredChord).thenComparing(candidate -> postcodes[candidate.node()]));
+        return nearest.stream()
+                .map(candidate -> new PostcodeDistance(postcodes[candidate.node()], toKm(Math.sqrt(candidate.squaredChord()))))
+                .toList();
+    }
+
+    private record Node(String postcode, double[] point) {
+    }
+
+    private record Candidate(int node, double squaredChord) {
+    }
+
+    private void search(int from, int to, int axis, double[] target, double maxSquaredChord, int limit,
+                        PriorityQueue<Candidate> found) {
+        if (from >= to) {
+            return;
+        }
+        int node = (from + to) >>> 1;
+        double[] point = points[node];
+        double squaredChord = squaredDistance(point, target);
+        if (squaredChord <= currentBound(found, maxSquaredChord, limit)) {
+            found.add(new Candidate(node, squaredChord));
+            if (found.size() > limit) {
+                found.poll();
+            }
+        }
+        double offset = target[axis] - point[axis];
+        int next = (axis + 1) % 3;
+        // the side of the split holding the target first, the other one only if the split plane is within reach
+        if (offset < 0) {
+            search(from, node, next, target, maxSquaredChord, limit, found);
+            if (offset * offset <= currentBound(found, maxSquaredChord, limit)) {
+                search(node + 1, to, next, target, maxSquaredChord, limit, found);
+            }
+        } else {
+            search(node + 1, to, next, target, maxSquaredChord, limit, found);
+            if (offset * offset <= currentBound(found, maxSquaredChord, limit)) {
+                search(from, node, next, target, maxSquaredChord, limit, found);
+            }
+        }
+    }
+
+    private static double currentBound(PriorityQueue<Candidate> found, double maxSquaredChord, int limit) {
+        return found.size() == limit ? Math.min(maxSquaredChord, found.peek().squaredChord()) : maxSquaredChord;
+    }
+
+    private void build(List<Node> nodes, int from, int to, int axis) {
+        if (from >= to) {
+            return;
+        }
+        nodes.subList(from, to).sort(Comparator.comparingDouble(node -> node.point()[axis]));
+        int node = (from + to) >>> 1;
+        postcodes[node] = nodes.get(node).postcode();
+        points[node] = nodes.get(node).point();
+        int next = (axis + 1) % 3;
+        build(nodes, from, node, next);
+        build(nodes, node + 1, to, next);
+    }
+
+    static double[] toPoint(double latitude, double longitude) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        return new double[]{Math.cos(phi) * Math.cos(lambda), Math.cos(phi) * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double chord(double angle) {
+        return 2 * Math.sin(angle / 2);
+    }
+
+    private static double toKm(double chord) {
+        return 2 * Math.asin(Math.min(1, chord / 2)) * EARTH_RADIUS_KM;
+    }
+}
@@ -0,0 +1,4 @@
+package io.powerledger.vpp.batterymanagement.geo;
+
+public record PostcodeDistance(String postcode, double distanceKm) {
+}
@@ -0,0 +1,112 @@
+package io.powerledger.vpp.batterymanagement.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient based concurrency limiter. The limit grows while the observed latency stays close to the
+ * long term baseline and shrinks as soon as requests start queueing (latency above baseline) or failing.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // a lock instead of synchronized so virtual threads never pin their carrier here
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                      double rttTolerance, int longWindow, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max.");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindow = longWindow;
+        this.backoffRatio = backoffRatio;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        long rtt = Math.max(1, rttNanos);
+        lock.lock();
+        try {
+            updateLongRtt(rtt);
+            // an application limited system (far below the limit) tells us nothing about the real limit
+            if (inFlightBeforeRelease < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rtt));
+            double queueSize = Math.sqrt(limit);
+            double newLimit = limit * gradient + queueSize;
+            setLimit(limit * (1 - smoothing) + newLimit * smoothing);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        lock.lock();
+        try {
+            setLimit(limit * backoffRatio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLongRtt(long rttNanos) {
+        if (samples < longWindow) {
+            samples++;
+        }
+        if (samples == 1) {
+            longRttNanos = rttNanos;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) / samples;
+        // let the baseline recover quickly once a latency spike is over
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,80 @@
+package io.powerledger.vpp.batterymanagement.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter rangeRejections;
+    private final Counter searchRejections;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        meterRegistry.gauge("battery.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("battery.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight);
+        this.rangeRejections = meterRegistry.counter("battery.concurrency.rejected", "endpoint", "range");
+        this.searchRejections = meterRegistry.counter("battery.concurrency.rejected", "endpoint", "search");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isRangeRequest(request) && !isSearchRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            (isSearchRequest(request) ? searchRejections : rangeRejections).increment();
+            log.debug("Rejecting {} {}, concurrency limit {} reached", request.getMethod(), request.getRequestURI(), limiter.getLimit());
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (!completed || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                limiter.onDropped();
+            } else if (response.getStatus() >= HttpStatus.BAD_REQUEST.value()) {
+                // validation failures never reach the database, their latency says nothing about load
+                limiter.onIgnore();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":503,\"error\":\"Service Unavailable\","
+                + "\"message\":\"Too many concurrent requests, please retry later.\"}");
+    }
+
+    private static boolean isRangeRequest(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) && "/batteries".equals(request.getServletPath());
+    }
+
+    private static boolean isSearchRequest(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) && "/batteries/search".equals(request.getServletPath());
+    }
+}
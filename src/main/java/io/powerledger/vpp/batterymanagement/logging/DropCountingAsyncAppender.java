@@ -0,0 +1,74 @@
+package io.powerledger.vpp.batterymanagement.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AsyncAppenderBase;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops. Logback creates appenders itself,
+ * so the counts are static and read by {@link DroppedLogEventsMetrics}.
+ */
+public class DropCountingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder DISCARDED = new LongAdder();
+    private static final LongAdder QUEUE_FULL = new LongAdder();
+
+    private BlockingQueue<ILoggingEvent> queue;
+
+    public static long discardedEvents() {
+        return DISCARDED.sum();
+    }
+
+    public static long queueFullEvents() {
+        return QUEUE_FULL.sum();
+    }
+
+    // called once the queue is nearly full, TRACE to INFO events are then thrown away
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            DISCARDED.increment();
+        }
+        return discardable;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        queue = lookUpQueue();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!isNeverBlock() || queue == null) {
+            super.append(event);
+            return;
+        }
+        // same steps as the base class, which ignores whether the offer succeeded and so loses events silently
+        if (getRemainingCapacity() < getDiscardingThreshold() && isDiscardable(event)) {
+            return;
+        }
+        preprocess(event);
+        if (!queue.offer(event)) {
+            QUEUE_FULL.increment();
+        }
+    }
+
+    // the base class keeps the queue to itself, it is created by start()
+    @SuppressWarnings("unchecked")
+    private BlockingQueue<ILoggingEvent> lookUpQueue() {
+        try {
+            Field field = AsyncAppenderBase.class.getDeclaredField("blockingQueue");
+            field.setAccessible(true);
+            return (BlockingQueue<ILoggingEvent>) field.get(this);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            addWarn("Cannot count log events dropped because the queue was full", ex);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.powerledger.vpp.batterymanagement.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DroppedLogEventsMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("logging.events.dropped", this, metrics -> DropCountingAsyncAppender.discardedEvents())
+                .description("Log events below WARN discarded because the async appender queue was nearly full")
+                .tag("reason", "discarded")
+                .register(registry);
+        FunctionCounter.builder("logging.events.dropped", this, metrics -> DropCountingAsyncAppender.queueFullEvents())
+                .description("Log events dropped because the async appender queue was full")
+                .tag("reason", "queue-full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,69 @@
+package io.powerledger.vpp.batterymanagement.logging;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Logs at INFO at most once per interval and counts what it suppressed in between. For messages that would be
+ * logged per request or per Kafka record, instead of logging them at DEBUG as well.
+ */
+public class RateLimitedLogger {
+
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+
+    private final Logger delegate;
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicLong nextAllowed;
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger delegate) {
+        this(delegate, DEFAULT_INTERVAL, System::nanoTime);
+    }
+
+    RateLimitedLogger(Logger delegate, Duration interval, LongSupplier nanoTime) {
+        this.delegate = delegate;
+        this.intervalNanos = interval.toNanos();
+        this.nanoTime = nanoTime;
+        this.nextAllowed = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    public void info(String format, Object argument) {
+        if (tryAcquire()) {
+            long skipped = suppressed.sumThenReset();
+            if (skipped > 0) {
+                delegate.info(format + " ({} similar messages suppressed)", argument, skipped);
+            } else {
+                delegate.info(format, argument);
+            }
+        }
+    }
+
+    public void info(String format, Object first, Object second) {
+        if (tryAcquire()) {
+            long skipped = suppressed.sumThenReset();
+            if (skipped > 0) {
+                delegate.info(format + " ({} similar messages suppressed)", first, second, skipped);
+            } else {
+                delegate.info(format, first, second);
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        if (!delegate.isInfoEnabled()) {
+            return false;
+        }
+        long now = nanoTime.getAsLong();
+        long next = nextAllowed.get();
+        if (now - next >= 0 && nextAllowed.compareAndSet(next, now + intervalNanos)) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+}
@@ -0,0 +1,114 @@
+package io.powerledger.vpp.batterymanagement.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the battery request and ingest paths, every meter is tagged with the endpoint the work belongs to.
+ */
+@Component
+public class BatteryMetrics {
+
+    public static final String ENDPOINT_CREATE = "create";
+    public static final String ENDPOINT_ASYNC = "async";
+    public static final String ENDPOINT_RANGE = "range";
+    public static final String ENDPOINT_SEARCH = "search";
+    public static final String ENDPOINT_DISTRIBUTION = "distribution";
+    public static final String ENDPOINT_BATCH = "batch";
+    public static final String ENDPOINT_TOP = "top";
+    public static final String ENDPOINT_DISPATCH = "dispatch";
+    public static final String ENDPOINT_NEARBY = "nearby";
+    public static final String ENDPOINT_NAMES = "names";
+    public static final String ENDPOINT_LOOKUP = "lookup";
+
+    public static final String QUERY_SAVE = "save";
+    public static final String QUERY_PAGE = "page";
+    public static final String QUERY_SUMMARY = "summary";
+    public static final String QUERY_SAMPLED_SUMMARY = "sampled-summary";
+    public static final String QUERY_PARALLEL_SUMMARY = "parallel-summary";
+    public static final String QUERY_BATCH_SUMMARY = "batch-summary";
+    public static final String QUERY_TOP = "top";
+    public static final String QUERY_LOOKUP = "lookup";
+    public static final String QUERY_FLEET_STORE_PAGE = "fleet-store-page";
+    public static final String QUERY_FLEET_STORE_SUMMARY = "fleet-store-summary";
+    public static final String QUERY_FLEET_STORE_DISTRIBUTION = "fleet-store-distribution";
+    public static final String QUERY_FLEET_STORE_BATCH_SUMMARY = "fleet-store-batch-summary";
+    public static final String QUERY_FLEET_STORE_TOP = "fleet-store-top";
+    public static final String QUERY_FLEET_STORE_DISPATCH = "fleet-store-dispatch";
+    public static final String QUERY_FLEET_STORE_NAMES = "fleet-store-names";
+
+    private final MeterProvider<Timer> queryTimers;
+    private final MeterProvider<DistributionSummary> queryRows;
+    private final MeterProvider<Timer> kafkaSendTimers;
+    private final MeterProvider<Counter> kafkaSendFailures;
+    private final Timer consumerProcessing;
+    private final Timer consumerLag;
+    private final DistributionSummary consumerBatchSize;
+
+    public BatteryMetrics(MeterRegistry meterRegistry) {
+        this.queryTimers = Timer.builder("battery.query")
+                .description("Repository calls by endpoint and query type")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.queryRows = DistributionSummary.builder("battery.query.rows")
+                .description("Rows returned by page queries")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.kafkaSendTimers = Timer.builder("battery.kafka.send")
+                .description("Time until the broker acknowledged a battery creation message")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.kafkaSendFailures = Counter.builder("battery.kafka.send.failures")
+                .withRegistry(meterRegistry);
+        this.consumerProcessing = Timer.builder("battery.consumer.processing")
+                .tag("endpoint", ENDPOINT_ASYNC)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.consumerLag = Timer.builder("battery.consumer.lag")
+                .description("Time from producing a battery creation message until the battery was persisted")
+                .tag("endpoint", ENDPOINT_ASYNC)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.consumerBatchSize = DistributionSummary.builder("battery.consumer.batch.size")
+                .description("Records returned per consumer poll")
+                .tag("endpoint", ENDPOINT_ASYNC)
+                .register(meterRegistry);
+    }
+
+    public <T> T recordQuery(String endpoint, String query, Supplier<T> call) {
+        return queryTimers.withTags("endpoint", endpoint, "query", query).record(call);
+    }
+
+    public void recordRows(String endpoint, int rows) {
+        queryRows.withTags("endpoint", endpoint).record(rows);
+    }
+
+    public void recordKafkaSend(String topic, long startNanos, Throwable failure) {
+        kafkaSendTimers.withTags("endpoint", ENDPOINT_ASYNC, "topic", topic, "outcome", failure == null ? "success" : "failure")
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            kafkaSendFailures.withTags("endpoint", ENDPOINT_ASYNC, "topic", topic, "exception", failure.getClass().getSimpleName())
+                    .increment();
+        }
+    }
+
+    public void recordConsumed(long processingNanos, long producedAtMillis) {
+        consumerProcessing.record(processingNanos, TimeUnit.NANOSECONDS);
+        // the record timestamp comes from the producer clock, skip it when the clocks disagree
+        long lagMillis = System.currentTimeMillis() - producedAtMillis;
+        if (lagMillis >= 0) {
+            consumerLag.record(lagMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void recordConsumerBatch(int records) {
+        consumerBatchSize.record(records);
+    }
+}
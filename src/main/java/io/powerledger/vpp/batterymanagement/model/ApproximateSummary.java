@@ -0,0 +1,8 @@
+package io.powerledger.vpp.batterymanagement.model;
+
+/**
+ * Estimated summary with the half-widths of its 95% confidence intervals.
+ */
+public record ApproximateSummary(BatterySummary summary, long countMargin, long totalWattCapacityMargin,
+                                 double averageWattCapacityMargin) {
+}
@@ -19,7 +19,8 @@ public class Battery {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false)
+    // ordered by code point, see NameOrder; V6 migrates existing schemas
+    @Column(nullable = false, columnDefinition = "varchar(255) collate \"C\"")
     private String name;
 
     @Column(nullable = false)
@@ -0,0 +1,26 @@
+package io.powerledger.vpp.batterymanagement.model;
+
+import java.time.Instant;
+
+/**
+ * Search criteria of a search or of one filter in a batch, a null bound or criterion leaves that side open. The
+ * registration window runs from {@code createdFrom} inclusive to {@code createdTo} exclusive.
+ */
+public record BatteryFilter(String minPostCode, String maxPostCode, Integer minCapacity, Integer maxCapacity,
+                            String namePrefix, String nameQuery, Instant createdFrom, Instant createdTo) {
+
+    public BatteryFilter(String minPostCode, String maxPostCode, Integer minCapacity, Integer maxCapacity) {
+        this(minPostCode, maxPostCode, minCapacity, maxCapacity, null, null, null, null);
+    }
+
+    /**
+     * Only postcode and capacity bounds, the criteria of the plain range queries.
+     */
+    public boolean isRangeOnly() {
+        return namePrefix == null && nameQuery == null && createdFrom == null && createdTo == null;
+    }
+
+    public BatteryFilter withPostcodeRange(String minPostCode, String maxPostCode) {
+        return new BatteryFilter(minPostCode, maxPostCode, minCapacity, maxCapacity, namePrefix, nameQuery, createdFrom, createdTo);
+    }
+}
@@ -1,4 +1,25 @@
 package io.powerledger.vpp.batterymanagement.model;
 
+import java.util.List;
+
 public record BatterySummary(Long count, Long totalWattCapacity, Double averageWattCapacity) {
+
+    /**
+     * Combines summaries of disjoint sets of batteries: counts and sums add up, the average is recomputed.
+     */
+    public static BatterySummary combine(List<BatterySummary> partials) {
+        long count = 0;
+        long totalWattCapacity = 0;
+        for (BatterySummary partial : partials) {
+            if (partial.count() != null && partial.count() > 0) {
+                count += partial.count();
+                totalWattCapacity += partial.totalWattCapacity();
+            }
+        }
+        // same shape as the aggregate query on an empty range: no sum and no average
+        if (count == 0) {
+            return new BatterySummary(0L, null, null);
+        }
+        return new BatterySummary(count, totalWattCapacity, (double) totalWattCapacity / count);
+    }
 }
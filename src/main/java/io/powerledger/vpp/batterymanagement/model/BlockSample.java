@@ -0,0 +1,55 @@
+package io.powerledger.vpp.batterymanagement.model;
+
+import java.util.List;
+
+/**
+ * Matching batteries in a block sample of the table, aggregated per sampled heap block: counts and capacity sums with
+ * the sums of their squares and products over the blocks, which is all the estimators and their variances need.
+ */
+public record BlockSample(long matched, long capacity, double matchedSquares, double capacitySquares,
+                          double matchedCapacityProducts) {
+
+    // two-sided 95% confidence
+    private static final double Z_95 = 1.96;
+
+    /**
+     * Combines samples of disjoint tables drawn with the same sample fraction, such as one per shard.
+     */
+    public static BlockSample combine(List<BlockSample> partials) {
+        long matched = 0;
+        long capacity = 0;
+        double matchedSquares = 0;
+        double capacitySquares = 0;
+        double matchedCapacityProducts = 0;
+        for (BlockSample partial : partials) {
+            matched += partial.matched();
+            capacity += partial.capacity();
+            matchedSquares += partial.matchedSquares();
+            capacitySquares += partial.capacitySquares();
+            matchedCapacityProducts += partial.matchedCapacityProducts();
+        }
+        return new BlockSample(matched, capacity, matchedSquares, capacitySquares, matchedCapacityProducts);
+    }
+
+    /**
+     * Horvitz-Thompson estimates for a sample that kept every block with probability {@code fraction}, as
+     * {@code TABLESAMPLE SYSTEM} does. Blocks are the sampling unit, so the variances are computed over blocks and stay
+     * honest when batteries of a postcode are clustered in the same blocks.
+     */
+    public ApproximateSummary estimate(double fraction) {
+        if (matched == 0) {
+            return new ApproximateSummary(new BatterySummary(0L, null, null), 0, 0, 0);
+        }
+        double scale = (1 - fraction) / (fraction * fraction);
+        double count = matched / fraction;
+        double total = capacity / fraction;
+        double average = (double) capacity / matched;
+        // linearized ratio estimator, the residual of a block is its capacity minus the average times its count
+        double residualSquares = capacitySquares - 2 * average * matchedCapacityProducts + average * average * matchedSquares;
+        return new ApproximateSummary(
+                new BatterySummary(Math.round(count), Math.round(total), average),
+                Math.round(Z_95 * Math.sqrt(scale * matchedSquares)),
+                Math.round(Z_95 * Math.sqrt(scale * capacitySquares)),
+                Z_95 * Math.sqrt(scale * Math.max(0, residualSquares)) / count);
+    }
+}
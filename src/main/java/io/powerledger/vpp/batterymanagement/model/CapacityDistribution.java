@@ -0,0 +1,14 @@
+package io.powerledger.vpp.batterymanagement.model;
+
+import java.util.List;
+
+/**
+ * Approximate capacity distribution, percentiles and bucket counts come from quantile sketches.
+ */
+public record CapacityDistribution(long count, Integer minCapacity, Integer maxCapacity,
+                                   Integer p10Capacity, Integer medianCapacity, Integer p90Capacity,
+                                   List<Bucket> buckets) {
+
+    public record Bucket(int lowerBound, int upperBound, long count) {
+    }
+}
@@ -0,0 +1,14 @@
+package io.powerledger.vpp.batterymanagement.model;
+
+import java.util.List;
+
+/**
+ * Batteries selected to cover a demand, largest first. The capacity falls short of the demand when the region, or the
+ * allowed number of batteries, cannot cover it.
+ */
+public record DispatchSelection(long demand, long capacity, List<Battery> batteries) {
+
+    public boolean satisfied() {
+        return capacity >= demand;
+    }
+}
@@ -0,0 +1,23 @@
+package io.powerledger.vpp.batterymanagement.model;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Summary of the batteries matching one filter of a batch, with the first names in name order, see {@link NameOrder}.
+ */
+public record FilterResult(BatterySummary summary, List<String> names) {
+
+    /**
+     * Combines results of the same filter on disjoint sets of batteries, keeping the first {@code nameLimit} names.
+     */
+    public static FilterResult combine(List<FilterResult> partials, int nameLimit) {
+        return new FilterResult(
+                BatterySummary.combine(partials.stream().map(FilterResult::summary).toList()),
+                partials.stream()
+                        .flatMap(partial -> partial.names().stream())
+                        .sorted(NameOrder.COMPARATOR)
+                        .limit(nameLimit)
+                        .toList());
+    }
+}
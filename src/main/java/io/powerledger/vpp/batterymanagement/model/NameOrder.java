@@ -0,0 +1,32 @@
+package io.powerledger.vpp.batterymanagement.model;
+
+import java.util.Comparator;
+
+/**
+ * The order of battery names everywhere: by Unicode code point, which is what the {@code "C"} collation of
+ * {@code batteries.name} sorts UTF-8 by. {@link String#compareTo} compares UTF-16 units instead and puts supplementary
+ * characters below U+E000..U+FFFF, so pages merged or sorted in memory would not line up with the database.
+ */
+public final class NameOrder {
+
+    public static final Comparator<String> COMPARATOR = NameOrder::compare;
+
+    private NameOrder() {
+    }
+
+    public static int compare(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        for (int i = 0; i < length; i++) {
+            char a = left.charAt(i);
+            char b = right.charAt(i);
+            if (a != b) {
+                // surrogates encode code points above the whole BMP
+                if (Character.isSurrogate(a) != Character.isSurrogate(b)) {
+                    return Character.isSurrogate(a) ? 1 : -1;
+                }
+                return a - b;
+            }
+        }
+        return left.length() - right.length();
+    }
+}
@@ -0,0 +1,25 @@
+package io.powerledger.vpp.batterymanagement.repository;
+
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface BatteryBatchQueries {
+
+    /**
+     * Summarizes every filter, and lists the first {@code nameLimit} names of each, in one statement.
+     *
+     * @return one result per filter, in the order of the filters
+     */
+    List<FilterResult> summarizeByFilters(List<BatteryFilter> filters, int nameLimit);
+
+    /**
+     * The batteries with the given ids, in no particular order, in one statement. Only the id, name, postcode and
+     * capacity are read.
+     */
+    List<Battery> findByIds(Collection<UUID> ids);
+}
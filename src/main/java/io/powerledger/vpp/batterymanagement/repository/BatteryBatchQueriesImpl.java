@@ -0,0 +1,107 @@
+package io.powerledger.vpp.batterymanagement.repository;
+
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The filters are bound as parallel arrays, one per criterion, and unnested into a row per filter. Each row is joined
+ * laterally to its aggregate and name page, so every filter gets its own index range scan on the partitions it
+ * overlaps while the whole batch costs a single round trip. Open bounds become the widest values, a lateral parameter
+ * behind {@code IS NULL OR} would not be usable as an index bound. The name criteria and the registration window only
+ * filter the rows of those range scans.
+ */
+public class BatteryBatchQueriesImpl implements BatteryBatchQueries {
+
+    private static final String MATCHES_FILTER = "b.postcode >= COALESCE(f.min_postcode, '') "
+            + "AND b.postcode <= COALESCE(f.max_postcode, '9999') "
+            + "AND b.watt_capacity >= COALESCE(f.min_capacity, -2147483648) "
+            + "AND b.watt_capacity <= COALESCE(f.max_capacity, 2147483647) "
+            + "AND b.name LIKE COALESCE(f.name_pattern, '%') "
+            + "AND (f.name_query IS NULL OR f.name_query <% b.name) "
+            + "AND b.created_at >= COALESCE(f.created_from, '-infinity') "
+            + "AND b.created_at < COALESCE(f.created_to, 'infinity')";
+
+    private static final String SUMMARIZE_BY_FILTERS = "SELECT s.matched, s.total_capacity, s.average_capacity, n.names "
+            + "FROM unnest(?::varchar[], ?::varchar[], ?::integer[], ?::integer[], ?::varchar[], ?::varchar[], "
+            + "?::timestamptz[], ?::timestamptz[]) "
+            + "WITH ORDINALITY AS f(min_postcode, max_postcode, min_capacity, max_capacity, name_pattern, name_query, "
+            + "created_from, created_to, ordinal) "
+            + "CROSS JOIN LATERAL (SELECT COUNT(*) AS matched, SUM(b.watt_capacity) AS total_capacity, "
+            + "AVG(b.watt_capacity)::float8 AS average_capacity FROM batteries b WHERE " + MATCHES_FILTER + ") s "
+            + "CROSS JOIN LATERAL (SELECT ARRAY(SELECT b.name FROM batteries b WHERE " + MATCHES_FILTER
+            + " ORDER BY b.name LIMIT ?) AS names) n "
+            + "ORDER BY f.ordinal";
+
+    // the ids as one array parameter, so the statement and its plan are the same for any number of ids
+    private static final String FIND_BY_IDS = "SELECT id, name, postcode, watt_capacity FROM batteries WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BatteryBatchQueriesImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<FilterResult> summarizeByFilters(List<BatteryFilter> filters, int nameLimit) {
+        if (filters.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SUMMARIZE_BY_FILTERS);
+            statement.setArray(1, connection.createArrayOf("varchar", filters.stream().map(BatteryFilter::minPostCode).toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", filters.stream().map(BatteryFilter::maxPostCode).toArray()));
+            statement.setArray(3, connection.createArrayOf("integer", filters.stream().map(BatteryFilter::minCapacity).toArray()));
+            statement.setArray(4, connection.createArrayOf("integer", filters.stream().map(BatteryFilter::maxCapacity).toArray()));
+            statement.setArray(5, connection.createArrayOf("varchar",
+                    filters.stream().map(filter -> BatteryRepository.likePrefix(filter.namePrefix())).toArray()));
+            statement.setArray(6, connection.createArrayOf("varchar", filters.stream().map(BatteryFilter::nameQuery).toArray()));
+            // ISO-8601 instants, read as timestamptz like the instants Hibernate binds
+            statement.setArray(7, connection.createArrayOf("timestamptz", filters.stream().map(BatteryFilter::createdFrom)
+                    .map(createdFrom -> createdFrom != null ? createdFrom.toString() : null).toArray()));
+            statement.setArray(8, connection.createArrayOf("timestamptz", filters.stream().map(BatteryFilter::createdTo)
+                    .map(createdTo -> createdTo != null ? createdTo.toString() : null).toArray()));
+            statement.setInt(9, nameLimit);
+            return statement;
+        }, (resultSet, rowNum) -> {
+            long matched = resultSet.getLong("matched");
+            // same shape as the single range summary: no sum and no average for an empty filter
+            BatterySummary summary = matched == 0
+                    ? new BatterySummary(0L, null, null)
+                    : new BatterySummary(matched, resultSet.getLong("total_capacity"), resultSet.getDouble("average_capacity"));
+            Array names = resultSet.getArray("names");
+            try {
+                return new FilterResult(summary, List.of((String[]) names.getArray()));
+            } finally {
+                names.free();
+            }
+        });
+    }
+
+    @Override
+    public List<Battery> findByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_BY_IDS);
+            statement.setArray(1, connection.createArrayOf("uuid", ids.toArray()));
+            return statement;
+        }, (resultSet, rowNum) -> {
+            Battery battery = new Battery();
+            battery.setId(resultSet.getObject("id", UUID.class));
+            battery.setName(resultSet.getString("name"));
+            battery.setPostcode(resultSet.getString("postcode"));
+            battery.setWattCapacity(resultSet.getInt("watt_capacity"));
+            return battery;
+        });
+    }
+}
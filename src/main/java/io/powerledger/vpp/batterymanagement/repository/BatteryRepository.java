@@ -1,16 +1,42 @@
 package io.powerledger.vpp.batterymanagement.repository;
 
 import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
 import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.BlockSample;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
-public interface BatteryRepository extends JpaRepository<Battery, UUID> {
+public interface BatteryRepository extends JpaRepository<Battery, UUID>, BatteryBatchQueries {
+
+    String FILTER_CRITERIA = "(CAST(:minPostCode AS varchar) IS NULL OR postcode >= CAST(:minPostCode AS varchar)) AND "
+            + "(CAST(:maxPostCode AS varchar) IS NULL OR postcode <= CAST(:maxPostCode AS varchar)) AND "
+            + "(CAST(:minCapacity AS integer) IS NULL OR watt_capacity >= CAST(:minCapacity AS integer)) AND "
+            + "(CAST(:maxCapacity AS integer) IS NULL OR watt_capacity <= CAST(:maxCapacity AS integer)) AND "
+            + "(CAST(:namePattern AS varchar) IS NULL OR name LIKE CAST(:namePattern AS varchar)) AND "
+            + "(CAST(:nameQuery AS varchar) IS NULL OR CAST(:nameQuery AS varchar) <% name) AND "
+            + "(CAST(:createdFrom AS timestamptz) IS NULL OR created_at >= CAST(:createdFrom AS timestamptz)) AND "
+            + "(CAST(:createdTo AS timestamptz) IS NULL OR created_at < CAST(:createdTo AS timestamptz))";
+
+    String SAMPLE_BLOCKS_BY_SEARCH_CRITERIA = "SELECT COALESCE(SUM(matched), 0)::bigint AS \"matched\", "
+            + "COALESCE(SUM(capacity), 0)::bigint AS \"capacity\", "
+            + "COALESCE(SUM(matched::float8 * matched), 0) AS \"matchedSquares\", "
+            + "COALESCE(SUM(capacity::float8 * capacity), 0) AS \"capacitySquares\", "
+            + "COALESCE(SUM(matched::float8 * capacity), 0) AS \"matchedCapacityProducts\" "
+            + "FROM (SELECT COUNT(*) AS matched, SUM(watt_capacity) AS capacity "
+            + "FROM batteries TABLESAMPLE SYSTEM (:samplePercent) WHERE "
+            + "(CAST(:minPostCode AS varchar) IS NULL OR postcode >= CAST(:minPostCode AS varchar)) AND "
+            + "(CAST(:maxPostCode AS varchar) IS NULL OR postcode <= CAST(:maxPostCode AS varchar)) AND "
+            + "(CAST(:minCapacity AS integer) IS NULL OR watt_capacity >= CAST(:minCapacity AS integer)) AND "
+            + "(CAST(:maxCapacity AS integer) IS NULL OR watt_capacity <= CAST(:maxCapacity AS integer)) "
+            + "GROUP BY tableoid, (ctid::text::point)[0]) sampled_blocks";
 
     @Query("SELECT b FROM Battery b WHERE b.postcode >= :minPostCode AND b.postcode <= :maxPostCode ORDER BY b.name ASC")
     Page<Battery> findByPostcodeRangeOrderByName(
@@ -33,6 +59,38 @@ public interface BatteryRepository extends JpaRepository<Battery, UUID> {
             Pageable pageable
     );
 
+    /**
+     * Search by every criterion of the filter, ordered by name: the postcode and capacity bounds, names starting with
+     * {@code namePrefix}, names containing a word similar to {@code nameQuery} despite typos, and the registration
+     * window. With bounds only this is {@link #findBySearchCriteria(String, String, Integer, Integer, Pageable)}.
+     */
+    default Page<Battery> findBySearchCriteria(BatteryFilter criteria, Pageable pageable) {
+        return criteria.isRangeOnly()
+                ? findBySearchCriteria(criteria.minPostCode(), criteria.maxPostCode(), criteria.minCapacity(), criteria.maxCapacity(), pageable)
+                : findByFilterCriteria(criteria.minPostCode(), criteria.maxPostCode(), criteria.minCapacity(), criteria.maxCapacity(),
+                        likePrefix(criteria.namePrefix()), criteria.nameQuery(), criteria.createdFrom(), criteria.createdTo(), pageable);
+    }
+
+    /**
+     * Both name criteria are answered from {@code idx_batteries_name_trgm}: the prefix as a {@code LIKE} pattern, the
+     * typo-tolerant query with pg_trgm's word similarity operator {@code <%}. The registration window is answered
+     * from the BRIN index {@code idx_batteries_created_at}, only the block ranges overlapping it are read.
+     */
+    @Query(value = "SELECT * FROM batteries WHERE " + FILTER_CRITERIA + " ORDER BY name",
+            countQuery = "SELECT COUNT(*) FROM batteries WHERE " + FILTER_CRITERIA,
+            nativeQuery = true)
+    Page<Battery> findByFilterCriteria(
+            @Param("minPostCode") String minPostCode,
+            @Param("maxPostCode") String maxPostCode,
+            @Param("minCapacity") Integer minCapacity,
+            @Param("maxCapacity") Integer maxCapacity,
+            @Param("namePattern") String namePattern,
+            @Param("nameQuery") String nameQuery,
+            @Param("createdFrom") Instant createdFrom,
+            @Param("createdTo") Instant createdTo,
+            Pageable pageable
+    );
+
     @Query("SELECT new io.powerledger.vpp.batterymanagement.model.BatterySummary(COUNT(b), SUM(b.wattCapacity),AVG(b.wattCapacity)) " +
            "FROM Battery b WHERE b.postcode >= :minPostCode AND b.postcode <= :maxPostCode")
     BatterySummary findSummaryByPostcodeRange(
@@ -53,4 +111,102 @@ public interface BatteryRepository extends JpaRepository<Battery, UUID> {
             @Param("maxCapacity") Integer maxCapacity
     );
 
+    /**
+     * Summary by every criterion of the filter, see {@link #findBySearchCriteria(BatteryFilter, Pageable)}.
+     */
+    default BatterySummary findSummaryBySearchCriteria(BatteryFilter criteria) {
+        if (criteria.isRangeOnly()) {
+            return findSummaryBySearchCriteria(criteria.minPostCode(), criteria.maxPostCode(), criteria.minCapacity(), criteria.maxCapacity());
+        }
+        SummaryRow row = summarizeByFilterCriteria(criteria.minPostCode(), criteria.maxPostCode(), criteria.minCapacity(),
+                criteria.maxCapacity(), likePrefix(criteria.namePrefix()), criteria.nameQuery(), criteria.createdFrom(), criteria.createdTo());
+        return new BatterySummary(row.getCount(), row.getTotalWattCapacity(), row.getAverageWattCapacity());
+    }
+
+    @Query(value = "SELECT COUNT(*) AS \"count\", SUM(watt_capacity) AS \"totalWattCapacity\", "
+            + "AVG(watt_capacity)::float8 AS \"averageWattCapacity\" FROM batteries WHERE " + FILTER_CRITERIA,
+            nativeQuery = true)
+    SummaryRow summarizeByFilterCriteria(
+            @Param("minPostCode") String minPostCode,
+            @Param("maxPostCode") String maxPostCode,
+            @Param("minCapacity") Integer minCapacity,
+            @Param("maxCapacity") Integer maxCapacity,
+            @Param("namePattern") String namePattern,
+            @Param("nameQuery") String nameQuery,
+            @Param("createdFrom") Instant createdFrom,
+            @Param("createdTo") Instant createdTo
+    );
+
+    /**
+     * The {@code k} batteries with the largest capacity in the postcode range, ties ordered by name. Each postcode is
+     * read from {@code idx_batteries_postcode_capacity_desc} in capacity order: first only its largest capacity, the
+     * k-th largest of those bounds the top K from below, then every postcode's batteries down to that bound, at most
+     * {@code k} of them.
+     */
+    @Query(value = "WITH postcodes AS ("
+            + "SELECT lpad(n::text, 4, '0') AS postcode "
+            + "FROM generate_series(CAST(:minPostCode AS integer), CAST(:maxPostCode AS integer)) AS n), "
+            + "threshold AS ("
+            + "SELECT COALESCE((SELECT leader.watt_capacity FROM postcodes p CROSS JOIN LATERAL ("
+            + "SELECT b.watt_capacity FROM batteries b WHERE b.postcode = p.postcode "
+            + "ORDER BY b.watt_capacity DESC LIMIT 1) leader "
+            + "ORDER BY leader.watt_capacity DESC OFFSET :k - 1 LIMIT 1), -2147483648) AS watt_capacity) "
+            + "SELECT top.* FROM postcodes p CROSS JOIN threshold t CROSS JOIN LATERAL ("
+            + "SELECT b.* FROM batteries b WHERE b.postcode = p.postcode AND b.watt_capacity >= t.watt_capacity "
+            + "ORDER BY b.watt_capacity DESC, b.name LIMIT :k) top "
+            + "ORDER BY top.watt_capacity DESC, top.name LIMIT :k",
+            nativeQuery = true)
+    List<Battery> findTopByCapacity(
+            @Param("minPostCode") String minPostCode,
+            @Param("maxPostCode") String maxPostCode,
+            @Param("k") int k
+    );
+
+    /**
+     * Aggregates the batteries matching the criteria in a {@code TABLESAMPLE SYSTEM} block sample, per sampled block.
+     * Partitions outside the postcode range are pruned, their blocks would not contribute anything. That takes a plan
+     * made for the bound values, which the pools pin with {@code plan_cache_mode = force_custom_plan}.
+     */
+    default BlockSample sampleSummaryBySearchCriteria(String minPostCode, String maxPostCode,
+                                                      Integer minCapacity, Integer maxCapacity, double samplePercent) {
+        BlockSampleRow row = sampleBlocksBySearchCriteria(minPostCode, maxPostCode, minCapacity, maxCapacity, samplePercent);
+        return new BlockSample(row.getMatched(), row.getCapacity(), row.getMatchedSquares(), row.getCapacitySquares(),
+                row.getMatchedCapacityProducts());
+    }
+
+    @Query(value = SAMPLE_BLOCKS_BY_SEARCH_CRITERIA, nativeQuery = true)
+    BlockSampleRow sampleBlocksBySearchCriteria(
+            @Param("minPostCode") String minPostCode,
+            @Param("maxPostCode") String maxPostCode,
+            @Param("minCapacity") Integer minCapacity,
+            @Param("maxCapacity") Integer maxCapacity,
+            @Param("samplePercent") double samplePercent
+    );
+
+    /**
+     * {@code LIKE} pattern matching the names that start with the prefix, its wildcards matched literally.
+     */
+    static String likePrefix(String prefix) {
+        return prefix == null ? null : prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    interface SummaryRow {
+        Long getCount();
+
+        Long getTotalWattCapacity();
+
+        Double getAverageWattCapacity();
+    }
+
+    interface BlockSampleRow {
+        long getMatched();
+
+        long getCapacity();
+
+        double getMatchedSquares();
+
+        double getCapacitySquares();
+
+        double getMatchedCapacityProducts();
+    }
 }
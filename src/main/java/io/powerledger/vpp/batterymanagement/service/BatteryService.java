@@ -1,52 +1,185 @@
 package io.powerledger.vpp.batterymanagement.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.powerledger.vpp.batterymanagement.diagnostics.QueryExecutedEvent;
 import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import io.powerledger.vpp.batterymanagement.dto.BatteryLookupDto;
+import io.powerledger.vpp.batterymanagement.dto.BatteryResponseDto;
 import io.powerledger.vpp.batterymanagement.dto.BatterySearchRequestDto;
+import io.powerledger.vpp.batterymanagement.dto.CapacityBucketDto;
+import io.powerledger.vpp.batterymanagement.dto.CapacityDistributionDto;
+import io.powerledger.vpp.batterymanagement.dto.DispatchBatteryDto;
+import io.powerledger.vpp.batterymanagement.dto.DispatchSelectionDto;
+import io.powerledger.vpp.batterymanagement.dto.NearbyBatteriesDto;
+import io.powerledger.vpp.batterymanagement.dto.NearbyPostcodeDto;
+import io.powerledger.vpp.batterymanagement.exception.FleetStoreUnavailableException;
+import io.powerledger.vpp.batterymanagement.fanout.ParallelRangeSummaries;
+import io.powerledger.vpp.batterymanagement.fanout.PostcodeRange;
 import io.powerledger.vpp.batterymanagement.dto.SummaryDto;
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import io.powerledger.vpp.batterymanagement.geo.PostcodeCentroids;
+import io.powerledger.vpp.batterymanagement.geo.PostcodeDistance;
+import io.powerledger.vpp.batterymanagement.logging.RateLimitedLogger;
+import io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics;
 import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.ApproximateSummary;
 import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.BlockSample;
+import io.powerledger.vpp.batterymanagement.model.CapacityDistribution;
+import io.powerledger.vpp.batterymanagement.model.DispatchSelection;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
 import io.powerledger.vpp.batterymanagement.repository.BatteryRepository;
+import io.powerledger.vpp.batterymanagement.sharding.ShardedBatteryOperations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_ASYNC;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_BATCH;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_CREATE;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_DISPATCH;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_DISTRIBUTION;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_LOOKUP;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_NAMES;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_NEARBY;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_RANGE;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_SEARCH;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.ENDPOINT_TOP;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_BATCH_SUMMARY;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_FLEET_STORE_BATCH_SUMMARY;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_FLEET_STORE_DISPATCH;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_FLEET_STORE_DISTRIBUTION;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_FLEET_STORE_NAMES;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_FLEET_STORE_PAGE;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_FLEET_STORE_SUMMARY;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_FLEET_STORE_TOP;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_LOOKUP;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_PAGE;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_PARALLEL_SUMMARY;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_SAMPLED_SUMMARY;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_SAVE;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_SUMMARY;
+import static io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics.QUERY_TOP;
+
 @Service
 public class BatteryService {
 
+    // ids per lookup query: large enough to amortize the round trip, small enough to keep the array and the rows small
+    static final int LOOKUP_CHUNK_SIZE = 1000;
+
     private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final RateLimitedLogger sampledLog = new RateLimitedLogger(log);
 
     private final BatteryRepository batteryRepository;
     private final KafkaTemplate<String, BatteryDto> kafkaTemplate;
+    private final BatteryMetrics batteryMetrics;
 
     @Value("${kafka.topic.battery-create}")
     private String batteryCreateTopic;
 
+    @Value("${summary.approximate.sample-percent:1}")
+    private double approximateSamplePercent;
+
+    @Value("${summary.approximate.min-sample-rows:1000}")
+    private long approximateMinSampleRows;
+
+    // the bundled centroid file is a seed set, nearby results say so until a file covering every postcode is configured
+    @Value("${postcode-centroids.complete:false}")
+    private boolean completePostcodeCentroids;
+
+    // only present when sharding is enabled
+    private ShardedBatteryOperations shardedBatteryOperations;
+
+    // only present when the fleet store is enabled, answers reads once it is loaded
+    private FleetColumnStore fleetColumnStore;
+
+    // only present when parallel summaries are enabled, splits wide summaries into concurrent sub-range queries
+    private ParallelRangeSummaries parallelRangeSummaries;
+
+    // postcode centroids for nearby searches, bundled with the application
+    private PostcodeCentroids postcodeCentroids;
+
+    // programmatic, so reads answered by the fleet store do not check out a connection for an empty transaction
+    private TransactionOperations readOnlyTransaction = TransactionOperations.withoutTransaction();
+
     @Autowired
-    public BatteryService(BatteryRepository batteryRepository, KafkaTemplate<String, BatteryDto> kafkaTemplate) {
+    public BatteryService(BatteryRepository batteryRepository, KafkaTemplate<String, BatteryDto> kafkaTemplate,
+                          BatteryMetrics batteryMetrics) {
         this.batteryRepository = batteryRepository;
         this.kafkaTemplate = kafkaTemplate;
+        this.batteryMetrics = batteryMetrics;
     }
 
+    @Autowired(required = false)
+    public void setFleetColumnStore(FleetColumnStore fleetColumnStore) {
+        this.fleetColumnStore = fleetColumnStore;
+    }
+
+    @Autowired(required = false)
+    public void setParallelRangeSummaries(ParallelRangeSummaries parallelRangeSummaries) {
+        this.parallelRangeSummaries = parallelRangeSummaries;
+    }
+
+    @Autowired(required = false)
+    public void setPostcodeCentroids(PostcodeCentroids postcodeCentroids) {
+        this.postcodeCentroids = postcodeCentroids;
+    }
+
+    @Autowired(required = false)
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        this.readOnlyTransaction = transactionTemplate;
+    }
+
+    @Autowired(required = false)
+    public void setShardedBatteryOperations(ShardedBatteryOperations shardedBatteryOperations) {
+        this.shardedBatteryOperations = shardedBatteryOperations;
+    }
+
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_CREATE}, histogram = true)
     public UUID createBattery(BatteryDto batteryDto) {
         var battery = new Battery();
         battery.setName(batteryDto.getName());
         battery.setPostcode(batteryDto.getPostcode());
         battery.setWattCapacity(batteryDto.getCapacity());
-        var savedBattery = batteryRepository.save(battery);
+        var savedBattery = query(ENDPOINT_CREATE, QUERY_SAVE, () -> "postcode=" + battery.getPostcode(), () -> shardedBatteryOperations != null
+                ? shardedBatteryOperations.save(battery)
+                : batteryRepository.save(battery), saved -> 1);
+        if (fleetColumnStore != null) {
+            fleetColumnStore.add(savedBattery.getId(), battery.getName(), battery.getPostcode(), battery.getWattCapacity());
+        }
         return savedBattery.getId();
     }
 
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_RANGE}, histogram = true)
     public List<BatteryDto> getBatteryByMinAndMaxPostCode(String minPostCode, String maxPostCode, Pageable pageable) {
-        Page<Battery> batteries = batteryRepository.findByPostcodeRangeOrderByName(minPostCode, maxPostCode, pageable);
+        List<Battery> batteries = isFleetStoreLoaded()
+                ? query(ENDPOINT_RANGE, QUERY_FLEET_STORE_PAGE, () -> describe(minPostCode, maxPostCode),
+                        () -> fleetColumnStore.findPage(minPostCode, maxPostCode, null, null, pageable), List::size)
+                : readOnly(() -> query(ENDPOINT_RANGE, QUERY_PAGE, () -> describe(minPostCode, maxPostCode), () -> shardedBatteryOperations != null
+                        ? shardedBatteryOperations.findByPostcodeRangeOrderByName(minPostCode, maxPostCode, pageable)
+                        : batteryRepository.findByPostcodeRangeOrderByName(minPostCode, maxPostCode, pageable).getContent(), List::size));
+        batteryMetrics.recordRows(ENDPOINT_RANGE, batteries.size());
         return batteries.stream().map(battery -> {
             BatteryDto dto = new BatteryDto();
             dto.setName(battery.getName());
@@ -56,14 +189,21 @@ public class BatteryService {
         }).collect(Collectors.toList());
     }
 
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_SEARCH}, histogram = true)
     public List<BatteryDto> searchBatteries(BatterySearchRequestDto searchRequest, Pageable pageable) {
-        Page<Battery> batteries = batteryRepository.findBySearchCriteria(
-                searchRequest.getMinPostCode(),
-                searchRequest.getMaxPostCode(),
-                searchRequest.getMinCapacity(),
-                searchRequest.getMaxCapacity(),
-                pageable
-        );
+        BatteryFilter criteria = toFilter(searchRequest);
+        List<Battery> batteries = isFleetStoreLoadedFor(criteria)
+                ? query(ENDPOINT_SEARCH, QUERY_FLEET_STORE_PAGE, () -> describe(searchRequest), () -> fleetColumnStore.findPage(
+                        criteria.minPostCode(),
+                        criteria.maxPostCode(),
+                        criteria.minCapacity(),
+                        criteria.maxCapacity(),
+                        criteria.namePrefix(),
+                        pageable), List::size)
+                : readOnly(() -> query(ENDPOINT_SEARCH, QUERY_PAGE, () -> describe(searchRequest), () -> shardedBatteryOperations != null
+                        ? shardedBatteryOperations.findBySearchCriteria(criteria, pageable)
+                        : batteryRepository.findBySearchCriteria(criteria, pageable).getContent(), List::size));
+        batteryMetrics.recordRows(ENDPOINT_SEARCH, batteries.size());
         return batteries.stream().map(battery -> {
             BatteryDto dto = new BatteryDto();
             dto.setName(battery.getName());
@@ -73,8 +213,40 @@ public class BatteryService {
         }).collect(Collectors.toList());
     }
 
+    /**
+     * The {@code k} batteries with the largest capacity in the postcode range, largest first and ties ordered by name.
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_TOP}, histogram = true)
+    public List<BatteryDto> getTopBatteriesByCapacity(String minPostCode, String maxPostCode, int k) {
+        List<Battery> batteries = isFleetStoreLoaded()
+                ? query(ENDPOINT_TOP, QUERY_FLEET_STORE_TOP, () -> describe(minPostCode, maxPostCode) + " k=" + k,
+                        () -> fleetColumnStore.findTopByCapacity(minPostCode, maxPostCode, k), List::size)
+                : readOnly(() -> query(ENDPOINT_TOP, QUERY_TOP, () -> describe(minPostCode, maxPostCode) + " k=" + k, () -> shardedBatteryOperations != null
+                        ? shardedBatteryOperations.findTopByCapacity(minPostCode, maxPostCode, k)
+                        : batteryRepository.findTopByCapacity(minPostCode, maxPostCode, k), List::size));
+        batteryMetrics.recordRows(ENDPOINT_TOP, batteries.size());
+        return batteries.stream().map(battery -> {
+            BatteryDto dto = new BatteryDto();
+            dto.setName(battery.getName());
+            dto.setPostcode(battery.getPostcode());
+            dto.setCapacity(battery.getWattCapacity());
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_RANGE}, histogram = true)
     public SummaryDto getSummaryByPostcodeRange(String minPostCode, String maxPostCode) {
-        BatterySummary summary = batteryRepository.findSummaryByPostcodeRange(minPostCode, maxPostCode);
+        List<PostcodeRange> subRanges = subRangesOf(minPostCode, maxPostCode);
+        BatterySummary summary = isFleetStoreLoaded()
+                ? query(ENDPOINT_RANGE, QUERY_FLEET_STORE_SUMMARY, () -> describe(minPostCode, maxPostCode),
+                        () -> fleetColumnStore.summarize(minPostCode, maxPostCode, null, null), BatteryService::countOf)
+                : subRanges.size() > 1
+                ? query(ENDPOINT_RANGE, QUERY_PARALLEL_SUMMARY, () -> describe(minPostCode, maxPostCode), () -> parallelRangeSummaries.summarize(subRanges,
+                        subRange -> readOnly(() -> batteryRepository.findSummaryByPostcodeRange(subRange.minPostCode(), subRange.maxPostCode()))),
+                        BatteryService::countOf)
+                : readOnly(() -> query(ENDPOINT_RANGE, QUERY_SUMMARY, () -> describe(minPostCode, maxPostCode), () -> shardedBatteryOperations != null
+                        ? shardedBatteryOperations.findSummaryByPostcodeRange(minPostCode, maxPostCode)
+                        : batteryRepository.findSummaryByPostcodeRange(minPostCode, maxPostCode), BatteryService::countOf));
 
         SummaryDto summaryDto = new SummaryDto();
         summaryDto.setTotalBatteries(summary.count());
@@ -84,13 +256,24 @@ public class BatteryService {
         return summaryDto;
     }
 
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_SEARCH}, histogram = true)
     public SummaryDto getSummaryBySearchCriteria(BatterySearchRequestDto searchRequest) {
-        BatterySummary summary = batteryRepository.findSummaryBySearchCriteria(
-                searchRequest.getMinPostCode(),
-                searchRequest.getMaxPostCode(),
-                searchRequest.getMinCapacity(),
-                searchRequest.getMaxCapacity()
-        );
+        BatteryFilter criteria = toFilter(searchRequest);
+        List<PostcodeRange> subRanges = subRangesOf(criteria.minPostCode(), criteria.maxPostCode());
+        BatterySummary summary = isFleetStoreLoadedFor(criteria)
+                ? query(ENDPOINT_SEARCH, QUERY_FLEET_STORE_SUMMARY, () -> describe(searchRequest), () -> fleetColumnStore.summarize(
+                        criteria.minPostCode(),
+                        criteria.maxPostCode(),
+                        criteria.minCapacity(),
+                        criteria.maxCapacity(),
+                        criteria.namePrefix()), BatteryService::countOf)
+                : subRanges.size() > 1
+                ? query(ENDPOINT_SEARCH, QUERY_PARALLEL_SUMMARY, () -> describe(searchRequest), () -> parallelRangeSummaries.summarize(subRanges,
+                        subRange -> readOnly(() -> batteryRepository.findSummaryBySearchCriteria(
+                                criteria.withPostcodeRange(subRange.minPostCode(), subRange.maxPostCode())))), BatteryService::countOf)
+                : readOnly(() -> query(ENDPOINT_SEARCH, QUERY_SUMMARY, () -> describe(searchRequest), () -> shardedBatteryOperations != null
+                        ? shardedBatteryOperations.findSummaryBySearchCriteria(criteria)
+                        : batteryRepository.findSummaryBySearchCriteria(criteria), BatteryService::countOf));
 
         SummaryDto summaryDto = new SummaryDto();
         summaryDto.setTotalBatteries(summary.count());
@@ -100,8 +283,316 @@ public class BatteryService {
         return summaryDto;
     }
 
+    /**
+     * Summary estimated from a block sample of the table, with 95% confidence margins. Exact when the fleet store is
+     * loaded, when there are name or registration time criteria or when the sample holds too few matching batteries for a
+     * useful estimate.
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_RANGE}, histogram = true)
+    public SummaryDto getApproximateSummaryByPostcodeRange(String minPostCode, String maxPostCode) {
+        return approximateSummary(ENDPOINT_RANGE, () -> describe(minPostCode, maxPostCode),
+                minPostCode, maxPostCode, null, null, () -> getSummaryByPostcodeRange(minPostCode, maxPostCode));
+    }
+
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_SEARCH}, histogram = true)
+    public SummaryDto getApproximateSummaryBySearchCriteria(BatterySearchRequestDto searchRequest) {
+        if (!toFilter(searchRequest).isRangeOnly()) {
+            // name matches and registration windows are too narrow for a block sample, and their indexes find them quickly
+            return exactly(getSummaryBySearchCriteria(searchRequest));
+        }
+        return approximateSummary(ENDPOINT_SEARCH, () -> describe(searchRequest),
+                searchRequest.getMinPostCode(), searchRequest.getMaxPostCode(),
+                searchRequest.getMinCapacity(), searchRequest.getMaxCapacity(),
+                () -> getSummaryBySearchCriteria(searchRequest));
+    }
+
+    /**
+     * Summaries of several filters, keyed like the request, with the first page of names of each when asked for. From the
+     * database this is a single statement, one per shard with sharding.
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_BATCH}, histogram = true)
+    public Map<String, BatteryResponseDto> summarizeBatch(Map<String, BatterySearchRequestDto> filters, boolean includeNames, int size) {
+        List<String> keys = new ArrayList<>(filters.keySet());
+        // a null filter matches every battery, like an empty search request
+        List<BatteryFilter> batteryFilters = keys.stream()
+                .map(key -> toFilter(filters.get(key) != null ? filters.get(key) : new BatterySearchRequestDto()))
+                .toList();
+        List<FilterResult> results = summarizeFilters(ENDPOINT_BATCH, batteryFilters, includeNames ? size : 0);
+
+        Map<String, BatteryResponseDto> responses = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            FilterResult result = results.get(i);
+            BatteryResponseDto response = new BatteryResponseDto();
+            response.setBatteries(result.names());
+            response.setTotalBatteries(result.summary().count());
+            response.setTotalCapacity(result.summary().totalWattCapacity());
+            if (result.summary().averageWattCapacity() != null) {
+                response.setAverageCapacity(result.summary().averageWattCapacity());
+            }
+            responses.put(keys.get(i), response);
+        }
+        return responses;
+    }
+
+    /**
+     * Batteries in the postcodes whose centroid lies within {@code radiusKm} of a point, at most the
+     * {@code maxPostcodes} nearest of them. Each postcode becomes an exact postcode filter of one batch summary. Postcodes
+     * without a centroid are never found, so the totals are flagged as partial unless the centroids cover every postcode.
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_NEARBY}, histogram = true)
+    public NearbyBatteriesDto findNearby(double latitude, double longitude, double radiusKm, int maxPostcodes, int size) {
+        List<PostcodeDistance> postcodes = postcodeCentroids.nearest(latitude, longitude, radiusKm, maxPostcodes);
+        List<BatteryFilter> batteryFilters = postcodes.stream()
+                .map(postcode -> new BatteryFilter(postcode.postcode(), postcode.postcode(), null, null))
+                .toList();
+        List<FilterResult> results = batteryFilters.isEmpty() ? List.of() : summarizeFilters(ENDPOINT_NEARBY, batteryFilters, size);
+        FilterResult total = FilterResult.combine(results, size);
+
+        NearbyBatteriesDto nearbyDto = new NearbyBatteriesDto();
+        nearbyDto.setBatteries(total.names());
+        nearbyDto.setTotalBatteries(total.summary().count());
+        nearbyDto.setTotalCapacity(total.summary().totalWattCapacity());
+        nearbyDto.setAverageCapacity(total.summary().averageWattCapacity());
+        nearbyDto.setPartialCoverage(!completePostcodeCentroids);
+        List<NearbyPostcodeDto> postcodeDtos = new ArrayList<>(postcodes.size());
+        for (int i = 0; i < postcodes.size(); i++) {
+            NearbyPostcodeDto postcodeDto = new NearbyPostcodeDto();
+            postcodeDto.setPostcode(postcodes.get(i).postcode());
+            postcodeDto.setDistanceKm(postcodes.get(i).distanceKm());
+            postcodeDto.setTotalBatteries(results.get(i).summary().count());
+            postcodeDto.setTotalCapacity(results.get(i).summary().totalWattCapacity());
+            postcodeDtos.add(postcodeDto);
+        }
+        nearbyDto.setPostcodes(postcodeDtos);
+
+        return nearbyDto;
+    }
+
+    /**
+     * Up to {@code limit} distinct battery names starting with the prefix, in order, only answered from the fleet
+     * store's name index.
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_NAMES}, histogram = true)
+    public List<String> completeNames(String prefix, int limit) {
+        requireFleetStore("Name completion");
+        return query(ENDPOINT_NAMES, QUERY_FLEET_STORE_NAMES, () -> "prefix=" + prefix,
+                () -> fleetColumnStore.completeNames(prefix, limit), List::size);
+    }
+
+    /**
+     * Looks the batteries up by id, {@value #LOOKUP_CHUNK_SIZE} ids per {@code = ANY} query, and hands each one found
+     * to {@code found} in the order of the ids. Only one chunk of batteries is held at a time.
+     *
+     * @return the ids without a battery, in the order of the ids
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_LOOKUP}, histogram = true)
+    public List<UUID> lookupBatteries(List<UUID> ids, Consumer<BatteryLookupDto> found) {
+        List<UUID> missing = new ArrayList<>();
+        int foundCount = 0;
+        for (int start = 0; start < ids.size(); start += LOOKUP_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(start, Math.min(start + LOOKUP_CHUNK_SIZE, ids.size()));
+            Map<UUID, Battery> batteries = new HashMap<>();
+            readOnly(() -> query(ENDPOINT_LOOKUP, QUERY_LOOKUP, () -> "ids=" + chunk.size(), () -> shardedBatteryOperations != null
+                    ? shardedBatteryOperations.findByIds(chunk)
+                    : batteryRepository.findByIds(chunk), List::size))
+                    .forEach(battery -> batteries.put(battery.getId(), battery));
+            for (UUID id : chunk) {
+                Battery battery = batteries.get(id);
+                if (battery == null) {
+                    missing.add(id);
+                    continue;
+                }
+                BatteryLookupDto batteryDto = new BatteryLookupDto();
+                batteryDto.setId(battery.getId());
+                batteryDto.setName(battery.getName());
+                batteryDto.setPostcode(battery.getPostcode());
+                batteryDto.setCapacity(battery.getWattCapacity());
+                found.accept(batteryDto);
+                foundCount++;
+            }
+        }
+        batteryMetrics.recordRows(ENDPOINT_LOOKUP, foundCount);
+        return missing;
+    }
+
+    /**
+     * Approximate capacity distribution of a postcode range, only answered from the fleet store's sketches.
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_DISTRIBUTION}, histogram = true)
+    public CapacityDistributionDto getCapacityDistribution(String minPostCode, String maxPostCode, int buckets) {
+        requireFleetStore("Capacity distribution");
+        CapacityDistribution distribution = query(ENDPOINT_DISTRIBUTION, QUERY_FLEET_STORE_DISTRIBUTION, () -> describe(minPostCode, maxPostCode),
+                () -> fleetColumnStore.capacityDistribution(minPostCode, maxPostCode, buckets), CapacityDistribution::count);
+
+        CapacityDistributionDto distributionDto = new CapacityDistributionDto();
+        distributionDto.setTotalBatteries(distribution.count());
+        distributionDto.setMinCapacity(distribution.minCapacity());
+        distributionDto.setMaxCapacity(distribution.maxCapacity());
+        distributionDto.setP10Capacity(distribution.p10Capacity());
+        distributionDto.setMedianCapacity(distribution.medianCapacity());
+        distributionDto.setP90Capacity(distribution.p90Capacity());
+        distributionDto.setBuckets(distribution.buckets().stream().map(bucket -> {
+            CapacityBucketDto bucketDto = new CapacityBucketDto();
+            bucketDto.setLowerBound(bucket.lowerBound());
+            bucketDto.setUpperBound(bucket.upperBound());
+            bucketDto.setCount(bucket.count());
+            return bucketDto;
+        }).collect(Collectors.toList()));
+
+        return distributionDto;
+    }
+
+    /**
+     * The fewest batteries of a postcode range covering a demand in watts, only answered from the fleet store's
+     * capacity-ordered runs.
+     */
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_DISPATCH}, histogram = true)
+    public DispatchSelectionDto selectForDispatch(String minPostCode, String maxPostCode, long demand, int maxBatteries) {
+        requireFleetStore("Dispatch selection");
+        DispatchSelection selection = query(ENDPOINT_DISPATCH, QUERY_FLEET_STORE_DISPATCH,
+                () -> describe(minPostCode, maxPostCode) + " demand=" + demand,
+                () -> fleetColumnStore.selectForDemand(minPostCode, maxPostCode, demand, maxBatteries),
+                result -> result.batteries().size());
+
+        DispatchSelectionDto selectionDto = new DispatchSelectionDto();
+        selectionDto.setDemand(selection.demand());
+        selectionDto.setTotalCapacity(selection.capacity());
+        selectionDto.setSatisfied(selection.satisfied());
+        selectionDto.setBatteries(selection.batteries().stream().map(battery -> {
+            DispatchBatteryDto batteryDto = new DispatchBatteryDto();
+            batteryDto.setId(battery.getId());
+            batteryDto.setName(battery.getName());
+            batteryDto.setPostcode(battery.getPostcode());
+            batteryDto.setCapacity(battery.getWattCapacity());
+            return batteryDto;
+        }).collect(Collectors.toList()));
+
+        return selectionDto;
+    }
+
+    @Timed(value = "battery.service", extraTags = {"endpoint", ENDPOINT_ASYNC}, histogram = true)
     public void sendBatteryCreationMessage(BatteryDto batteryDto) {
-        kafkaTemplate.send(batteryCreateTopic, batteryDto);
-        log.info("Battery creation message sent to Kafka topic '{}': {}", batteryCreateTopic, batteryDto);
+        long start = System.nanoTime();
+        kafkaTemplate.send(batteryCreateTopic, batteryDto).whenComplete((result, failure) -> {
+            batteryMetrics.recordKafkaSend(batteryCreateTopic, start, failure);
+            if (failure != null) {
+                log.error("Failed to send battery creation message to Kafka topic '{}': {}", batteryCreateTopic, batteryDto, failure);
+            }
+        });
+        sampledLog.info("Battery creation message sent to Kafka topic '{}': {}", batteryCreateTopic, batteryDto);
+    }
+
+    private SummaryDto approximateSummary(String endpoint, Supplier<String> criteria, String minPostCode, String maxPostCode,
+                                          Integer minCapacity, Integer maxCapacity, Supplier<SummaryDto> exact) {
+        if (isFleetStoreLoaded()) {
+            return exactly(exact.get());
+        }
+        BlockSample sample = readOnly(() -> query(endpoint, QUERY_SAMPLED_SUMMARY, criteria, () -> shardedBatteryOperations != null
+                ? shardedBatteryOperations.sampleSummaryBySearchCriteria(minPostCode, maxPostCode, minCapacity, maxCapacity, approximateSamplePercent)
+                : batteryRepository.sampleSummaryBySearchCriteria(minPostCode, maxPostCode, minCapacity, maxCapacity, approximateSamplePercent),
+                BlockSample::matched));
+        if (sample.matched() < approximateMinSampleRows) {
+            // the interval would be wide, and a range this sparse is cheap to summarize exactly
+            return exactly(exact.get());
+        }
+        ApproximateSummary estimate = sample.estimate(approximateSamplePercent / 100);
+
+        SummaryDto summaryDto = new SummaryDto();
+        summaryDto.setTotalBatteries(estimate.summary().count());
+        summaryDto.setTotalCapacity(estimate.summary().totalWattCapacity());
+        summaryDto.setAverageCapacity(estimate.summary().averageWattCapacity());
+        summaryDto.setApproximate(true);
+        summaryDto.setTotalBatteriesMargin(estimate.countMargin());
+        summaryDto.setTotalCapacityMargin(estimate.totalWattCapacityMargin());
+        summaryDto.setAverageCapacityMargin(estimate.averageWattCapacityMargin());
+        return summaryDto;
+    }
+
+    private List<FilterResult> summarizeFilters(String endpoint, List<BatteryFilter> batteryFilters, int nameLimit) {
+        return isFleetStoreLoaded() && batteryFilters.stream().allMatch(this::isFleetStoreLoadedFor)
+                ? query(endpoint, QUERY_FLEET_STORE_BATCH_SUMMARY, () -> "filters=" + batteryFilters.size(),
+                        () -> fleetColumnStore.summarizeAll(batteryFilters, nameLimit), List::size)
+                : readOnly(() -> query(endpoint, QUERY_BATCH_SUMMARY, () -> "filters=" + batteryFilters.size(), () -> shardedBatteryOperations != null
+                        ? shardedBatteryOperations.summarizeByFilters(batteryFilters, nameLimit)
+                        : batteryRepository.summarizeByFilters(batteryFilters, nameLimit), List::size));
+    }
+
+    private static SummaryDto exactly(SummaryDto summaryDto) {
+        summaryDto.setApproximate(false);
+        summaryDto.setTotalBatteriesMargin(0L);
+        summaryDto.setTotalCapacityMargin(0L);
+        summaryDto.setAverageCapacityMargin(0.0);
+        return summaryDto;
+    }
+
+    /**
+     * Times a repository call and emits a {@link QueryExecutedEvent}, the criteria are only rendered when JFR records the event.
+     */
+    private <T> T query(String endpoint, String queryType, Supplier<String> criteria, Supplier<T> call, ToLongFunction<T> rows) {
+        var event = new QueryExecutedEvent();
+        event.begin();
+        T result = batteryMetrics.recordQuery(endpoint, queryType, call);
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.queryType = queryType;
+            event.criteria = criteria.get();
+            event.rows = rows.applyAsLong(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    private <T> T readOnly(Supplier<T> call) {
+        return readOnlyTransaction.execute(status -> call.get());
+    }
+
+    // sharded summaries already fan out, one query per shard
+    private List<PostcodeRange> subRangesOf(String minPostCode, String maxPostCode) {
+        return parallelRangeSummaries == null || shardedBatteryOperations != null || isFleetStoreLoaded()
+                ? List.of()
+                : parallelRangeSummaries.split(minPostCode, maxPostCode);
+    }
+
+    private void requireFleetStore(String feature) {
+        if (!isFleetStoreLoaded()) {
+            throw new FleetStoreUnavailableException(fleetColumnStore == null
+                    ? feature + " needs the fleet store, it is disabled."
+                    : "Fleet store is still loading.");
+        }
+    }
+
+    private boolean isFleetStoreLoaded() {
+        return fleetColumnStore != null && fleetColumnStore.isLoaded();
+    }
+
+    // the store holds neither name trigrams nor registration times, typo-tolerant matching and windows go to the database
+    private boolean isFleetStoreLoadedFor(BatteryFilter criteria) {
+        return criteria.nameQuery() == null && criteria.createdFrom() == null && criteria.createdTo() == null
+                && isFleetStoreLoaded();
+    }
+
+    private static BatteryFilter toFilter(BatterySearchRequestDto searchRequest) {
+        return new BatteryFilter(searchRequest.getMinPostCode(), searchRequest.getMaxPostCode(),
+                searchRequest.getMinCapacity(), searchRequest.getMaxCapacity(),
+                searchRequest.getNamePrefix(), searchRequest.getNameQuery(),
+                searchRequest.getCreatedFrom(), searchRequest.getCreatedTo());
+    }
+
+    private static String describe(String minPostCode, String maxPostCode) {
+        return "postcode=" + minPostCode + ".." + maxPostCode;
+    }
+
+    private static String describe(BatterySearchRequestDto searchRequest) {
+        return describe(searchRequest.getMinPostCode(), searchRequest.getMaxPostCode())
+                + " capacity=" + searchRequest.getMinCapacity() + ".." + searchRequest.getMaxCapacity()
+                + (searchRequest.getNamePrefix() != null ? " namePrefix=" + searchRequest.getNamePrefix() : "")
+                + (searchRequest.getNameQuery() != null ? " nameQuery=" + searchRequest.getNameQuery() : "")
+                + (searchRequest.getCreatedFrom() != null || searchRequest.getCreatedTo() != null
+                        ? " created=" + searchRequest.getCreatedFrom() + ".." + searchRequest.getCreatedTo() : "");
+    }
+
+    private static long countOf(BatterySummary summary) {
+        return summary.count() != null ? summary.count() : 0;
     }
 }
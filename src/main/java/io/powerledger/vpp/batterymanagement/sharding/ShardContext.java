@@ -0,0 +1,21 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void setCurrentShard(String shardName) {
+        CURRENT_SHARD.set(shardName);
+    }
+
+    public static void clear() {
+        CURRENT_SHARD.remove();
+    }
+}
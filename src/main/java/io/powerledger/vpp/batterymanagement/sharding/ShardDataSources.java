@@ -0,0 +1,30 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ShardDataSources implements AutoCloseable {
+
+    private final Map<String, HikariDataSource> dataSources;
+
+    public ShardDataSources(Map<String, HikariDataSource> dataSources) {
+        this.dataSources = new LinkedHashMap<>(dataSources);
+    }
+
+    public Map<String, DataSource> byName() {
+        return Collections.unmodifiableMap(dataSources);
+    }
+
+    public DataSource defaultShard() {
+        return dataSources.values().iterator().next();
+    }
+
+    @Override
+    public void close() {
+        dataSources.values().forEach(HikariDataSource::close);
+    }
+}
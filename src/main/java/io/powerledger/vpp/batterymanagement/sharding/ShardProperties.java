@@ -0,0 +1,23 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties("sharding")
+public record ShardProperties(
+        boolean enabled,
+        @DefaultValue("64") int maxConcurrentQueries,
+        List<Shard> shards) {
+
+    public record Shard(
+            String name,
+            String minPostCode,
+            String maxPostCode,
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maximumPoolSize) {
+    }
+}
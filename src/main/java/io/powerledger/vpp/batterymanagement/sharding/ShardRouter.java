@@ -0,0 +1,77 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class ShardRouter {
+
+    private static final Pattern FOUR_DIGITS = Pattern.compile("[0-9]{4}");
+    private static final String FIRST_POSTCODE = "0000";
+    private static final String LAST_POSTCODE = "9999";
+
+    public record ShardRange(String name, String minPostCode, String maxPostCode) {
+
+        boolean contains(String postcode) {
+            return postcode.compareTo(minPostCode) >= 0 && postcode.compareTo(maxPostCode) <= 0;
+        }
+
+        boolean overlaps(String minPostCode, String maxPostCode) {
+            return (minPostCode == null || this.maxPostCode.compareTo(minPostCode) >= 0)
+                    && (maxPostCode == null || this.minPostCode.compareTo(maxPostCode) <= 0);
+        }
+    }
+
+    private final List<ShardRange> shards;
+
+    /**
+     * The ranges have to cover 0000 - 9999 in order, each starting right after the previous one, so every postcode has
+     * exactly one shard. A gap would only show when a battery of that postcode is written.
+     */
+    public ShardRouter(List<ShardRange> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured.");
+        }
+        for (ShardRange shard : shards) {
+            if (!FOUR_DIGITS.matcher(shard.minPostCode()).matches() || !FOUR_DIGITS.matcher(shard.maxPostCode()).matches()
+                    || shard.minPostCode().compareTo(shard.maxPostCode()) > 0) {
+                throw new IllegalArgumentException("Shard " + shard.name() + " must cover a range of four-digit postcodes: "
+                        + shard.minPostCode() + " - " + shard.maxPostCode());
+            }
+        }
+        if (!shards.get(0).minPostCode().equals(FIRST_POSTCODE)) {
+            throw new IllegalArgumentException("The first shard must start at " + FIRST_POSTCODE + ": " + shards.get(0).name());
+        }
+        for (int i = 1; i < shards.size(); i++) {
+            String next = String.format("%04d", Integer.parseInt(shards.get(i - 1).maxPostCode()) + 1);
+            if (!shards.get(i).minPostCode().equals(next)) {
+                throw new IllegalArgumentException("Shard postcode ranges must be ordered, without gaps or overlaps: "
+                        + shards.get(i - 1).name() + " ends at " + shards.get(i - 1).maxPostCode() + ", "
+                        + shards.get(i).name() + " has to start at " + next);
+            }
+        }
+        if (!shards.get(shards.size() - 1).maxPostCode().equals(LAST_POSTCODE)) {
+            throw new IllegalArgumentException("The last shard must end at " + LAST_POSTCODE + ": "
+                    + shards.get(shards.size() - 1).name());
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    public String shardFor(String postcode) {
+        return shards.stream()
+                .filter(shard -> shard.contains(postcode))
+                .map(ShardRange::name)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No shard configured for postcode " + postcode));
+    }
+
+    public List<String> shardsFor(String minPostCode, String maxPostCode) {
+        return shards.stream()
+                .filter(shard -> shard.overlaps(minPostCode, maxPostCode))
+                .map(ShardRange::name)
+                .toList();
+    }
+
+    public List<String> allShards() {
+        return shards.stream().map(ShardRange::name).toList();
+    }
+}
@@ -0,0 +1,25 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the shard set in {@link ShardContext}. Without a shard in context (schema tooling, health checks)
+ * connections come from the first shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(Map<String, DataSource> shardDataSources, DataSource defaultShard) {
+        setTargetDataSources(new HashMap<>(shardDataSources));
+        setDefaultTargetDataSource(defaultShard);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentShard();
+    }
+}
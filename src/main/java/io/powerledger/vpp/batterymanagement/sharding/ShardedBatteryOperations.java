@@ -0,0 +1,137 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.BlockSample;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
+import io.powerledger.vpp.batterymanagement.model.NameOrder;
+import io.powerledger.vpp.batterymanagement.repository.BatteryRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Runs {@link BatteryRepository} calls against the shards owning the postcodes: writes go to exactly one shard,
+ * range queries fan out in parallel to the shards overlapping the range and their results are merged. Lookups by id
+ * fan out to every shard.
+ */
+public class ShardedBatteryOperations {
+
+    private final BatteryRepository batteryRepository;
+    private final ShardRouter shardRouter;
+    private final Executor shardQueryExecutor;
+
+    public ShardedBatteryOperations(BatteryRepository batteryRepository, ShardRouter shardRouter, Executor shardQueryExecutor) {
+        this.batteryRepository = batteryRepository;
+        this.shardRouter = shardRouter;
+        this.shardQueryExecutor = shardQueryExecutor;
+    }
+
+    public Battery save(Battery battery) {
+        return onShard(shardRouter.shardFor(battery.getPostcode()), () -> batteryRepository.save(battery));
+    }
+
+    public List<Battery> findByPostcodeRangeOrderByName(String minPostCode, String maxPostCode, Pageable pageable) {
+        // every shard has to return everything up to the end of the requested page, the merge decides what is on it
+        Pageable shardPage = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize());
+        var partials = scatter(shardRouter.shardsFor(minPostCode, maxPostCode),
+                () -> batteryRepository.findByPostcodeRangeOrderByName(minPostCode, maxPostCode, shardPage).getContent());
+        return mergeByName(partials, pageable);
+    }
+
+    public List<Battery> findBySearchCriteria(BatteryFilter criteria, Pageable pageable) {
+        Pageable shardPage = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize());
+        var partials = scatter(shardRouter.shardsFor(criteria.minPostCode(), criteria.maxPostCode()),
+                () -> batteryRepository.findBySearchCriteria(criteria, shardPage).getContent());
+        return mergeByName(partials, pageable);
+    }
+
+    public BatterySummary findSummaryByPostcodeRange(String minPostCode, String maxPostCode) {
+        return BatterySummary.combine(scatter(shardRouter.shardsFor(minPostCode, maxPostCode),
+                () -> batteryRepository.findSummaryByPostcodeRange(minPostCode, maxPostCode)));
+    }
+
+    public BatterySummary findSummaryBySearchCriteria(BatteryFilter criteria) {
+        return BatterySummary.combine(scatter(shardRouter.shardsFor(criteria.minPostCode(), criteria.maxPostCode()),
+                () -> batteryRepository.findSummaryBySearchCriteria(criteria)));
+    }
+
+    public List<Battery> findTopByCapacity(String minPostCode, String maxPostCode, int k) {
+        // the top K of the range is among the top K of every shard
+        return scatter(shardRouter.shardsFor(minPostCode, maxPostCode),
+                () -> batteryRepository.findTopByCapacity(minPostCode, maxPostCode, k)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Battery::getWattCapacity).reversed().thenComparing(Battery::getName, NameOrder.COMPARATOR))
+                .limit(k)
+                .toList();
+    }
+
+    public BlockSample sampleSummaryBySearchCriteria(String minPostCode, String maxPostCode,
+                                                     Integer minCapacity, Integer maxCapacity, double samplePercent) {
+        // every shard samples its blocks with the same probability, the estimates and their variances add up
+        return BlockSample.combine(scatter(shardRouter.shardsFor(minPostCode, maxPostCode),
+                () -> batteryRepository.sampleSummaryBySearchCriteria(minPostCode, maxPostCode, minCapacity, maxCapacity, samplePercent)));
+    }
+
+    public List<FilterResult> summarizeByFilters(List<BatteryFilter> filters, int nameLimit) {
+        // each shard runs the whole batch once, filters outside its range come back empty
+        var shards = filters.stream()
+                .flatMap(filter -> shardRouter.shardsFor(filter.minPostCode(), filter.maxPostCode()).stream())
+                .distinct()
+                .toList();
+        var partials = scatter(shards, () -> batteryRepository.summarizeByFilters(filters, nameLimit));
+        return IntStream.range(0, filters.size())
+                .mapToObj(index -> FilterResult.combine(partials.stream().map(partial -> partial.get(index)).toList(), nameLimit))
+                .toList();
+    }
+
+    public List<Battery> findByIds(Collection<UUID> ids) {
+        // ids carry no postcode, every shard is asked for all of them
+        return scatter(shardRouter.allShards(), () -> batteryRepository.findByIds(ids)).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private <T> List<T> scatter(List<String> shards, Supplier<T> query) {
+        var futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> onShard(shard, query), shardQueryExecutor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static <T> T onShard(String shard, Supplier<T> query) {
+        String previous = ShardContext.currentShard();
+        ShardContext.setCurrentShard(shard);
+        try {
+            return query.get();
+        } finally {
+            ShardContext.setCurrentShard(previous);
+        }
+    }
+
+    private static List<Battery> mergeByName(List<List<Battery>> partials, Pageable pageable) {
+        return partials.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Battery::getName, NameOrder.COMPARATOR))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+}
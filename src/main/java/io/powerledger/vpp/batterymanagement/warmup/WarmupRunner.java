@@ -0,0 +1,139 @@
+package io.powerledger.vpp.batterymanagement.warmup;
+
+import io.powerledger.vpp.batterymanagement.dto.BatterySearchRequestDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends synthetic read-only range and search requests to the local web server before the application reports
+ * readiness, so the request path is compiled before real traffic arrives. Spring Boot publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC} only after all runners have returned, until then
+ * {@code /actuator/health/readiness} is {@code OUT_OF_SERVICE}.
+ */
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final Environment environment;
+    private final RestClient.Builder restClientBuilder;
+    private final Duration duration;
+    private final long iterations;
+    private final int concurrency;
+
+    public WarmupRunner(Environment environment,
+                        RestClient.Builder restClientBuilder,
+                        @Value("${warmup.duration:30s}") Duration duration,
+                        @Value("${warmup.iterations:0}") long iterations,
+                        @Value("${warmup.concurrency:4}") int concurrency) {
+        this.environment = environment;
+        this.restClientBuilder = restClientBuilder;
+        this.duration = duration;
+        this.iterations = iterations;
+        this.concurrency = concurrency;
+    }
+
+    public record Result(long requests, long failures, Duration elapsed) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            log.warn("No web server running, skipping warm-up");
+            return;
+        }
+        log.info("Warming up for {} ({} iterations) with {} clients", duration,
+                iterations > 0 ? iterations : "unlimited", concurrency);
+        var result = warmUp(restClientBuilder.clone().baseUrl("http://localhost:" + port).build());
+        log.info("Warm-up finished after {} requests ({} failed) in {} ms",
+                result.requests(), result.failures(), result.elapsed().toMillis());
+    }
+
+    Result warmUp(RestClient restClient) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        // whichever comes first, the duration or the iteration count
+        var remaining = new AtomicLong(iterations > 0 ? iterations : Long.MAX_VALUE);
+        var requests = new LongAdder();
+        var failures = new LongAdder();
+
+        List<Callable<Void>> clients = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            clients.add(() -> {
+                while (System.nanoTime() < deadline && remaining.getAndDecrement() > 0) {
+                    try {
+                        sendRandomRequest(restClient);
+                    } catch (RestClientException ex) {
+                        // rejected or failed requests still compile most of the path, a broken one must not block readiness
+                        failures.increment();
+                    }
+                    requests.increment();
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("warmup-", 0).factory());
+        try {
+            executor.invokeAll(clients);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        return new Result(requests.sum(), failures.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // mixes first pages, which also run the summary query, with later pages and all search criteria combinations
+    private static void sendRandomRequest(RestClient restClient) {
+        var random = ThreadLocalRandom.current();
+        int minPostCode = random.nextInt(1000, 9000);
+        String maxPostCode = String.valueOf(minPostCode + random.nextInt(0, 1000));
+        int page = random.nextInt(4) == 0 ? 1 : 0;
+
+        if (random.nextBoolean()) {
+            restClient.get()
+                    .uri("/batteries?minPostCode={min}&maxPostCode={max}&page={page}&size=10", minPostCode, maxPostCode, page)
+                    .retrieve()
+                    .toBodilessEntity();
+            return;
+        }
+        var searchRequest = new BatterySearchRequestDto();
+        if (random.nextBoolean()) {
+            searchRequest.setMinPostCode(String.valueOf(minPostCode));
+            searchRequest.setMaxPostCode(maxPostCode);
+        }
+        if (random.nextBoolean()) {
+            int minCapacity = random.nextInt(0, 10_000);
+            searchRequest.setMinCapacity(minCapacity);
+            searchRequest.setMaxCapacity(minCapacity + random.nextInt(0, 10_000));
+        }
+        restClient.post()
+                .uri("/batteries/search?page={page}&size=10", page)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(searchRequest)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,47 @@
+-- Range partition batteries by postcode, one partition per state band.
+-- The primary key has to contain the partition key, ids stay unique through gen_random_uuid().
+ALTER TABLE batteries RENAME TO batteries_unpartitioned;
+
+CREATE TABLE batteries (
+    id UUID DEFAULT gen_random_uuid() NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    postcode VARCHAR(20) NOT NULL,
+    watt_capacity INTEGER NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, postcode)
+) PARTITION BY RANGE (postcode);
+
+-- NT and ACT (0200 - 0999)
+CREATE TABLE batteries_nt_act PARTITION OF batteries FOR VALUES FROM (MINVALUE) TO ('1000');
+-- NSW PO boxes and large volume receivers (1000 - 1999)
+CREATE TABLE batteries_nsw_lvr PARTITION OF batteries FOR VALUES FROM ('1000') TO ('2000');
+-- NSW and ACT (2000 - 2999)
+CREATE TABLE batteries_nsw PARTITION OF batteries FOR VALUES FROM ('2000') TO ('3000');
+-- VIC (3000 - 3999)
+CREATE TABLE batteries_vic PARTITION OF batteries FOR VALUES FROM ('3000') TO ('4000');
+-- QLD (4000 - 4999)
+CREATE TABLE batteries_qld PARTITION OF batteries FOR VALUES FROM ('4000') TO ('5000');
+-- SA (5000 - 5999)
+CREATE TABLE batteries_sa PARTITION OF batteries FOR VALUES FROM ('5000') TO ('6000');
+-- WA (6000 - 6999)
+CREATE TABLE batteries_wa PARTITION OF batteries FOR VALUES FROM ('6000') TO ('7000');
+-- TAS (7000 - 7999)
+CREATE TABLE batteries_tas PARTITION OF batteries FOR VALUES FROM ('7000') TO ('8000');
+-- VIC PO boxes and large volume receivers (8000 - 8999)
+CREATE TABLE batteries_vic_lvr PARTITION OF batteries FOR VALUES FROM ('8000') TO ('9000');
+-- QLD PO boxes and large volume receivers (9000 - 9999)
+CREATE TABLE batteries_qld_lvr PARTITION OF batteries FOR VALUES FROM ('9000') TO (MAXVALUE);
+
+INSERT INTO batteries (id, name, postcode, watt_capacity, created_at, updated_at)
+SELECT id, name, postcode, watt_capacity, created_at, updated_at FROM batteries_unpartitioned;
+
+DROP TABLE batteries_unpartitioned;
+
+-- created on the parent, PostgreSQL creates one small index per partition
+-- range page queries: postcode range filter, ordered by name
+CREATE INDEX idx_batteries_postcode_name ON batteries (postcode, name);
+-- summaries and capacity filters can be answered from the index alone
+CREATE INDEX idx_batteries_postcode_capacity ON batteries (postcode, watt_capacity);
+
+ANALYZE batteries;
@@ -0,0 +1,3 @@
+-- rows are appended in created_at order, a BRIN index keeps "created since" scans (fleet store catch-up)
+-- off the heap blocks of older rows at a fraction of the size of a btree
+CREATE INDEX idx_batteries_created_at ON batteries USING brin (created_at);
@@ -0,0 +1,7 @@
+-- top-K by capacity: every postcode is read in capacity order, largest first, and the scan stops after K rows.
+-- name is the tie-breaker of the query, so equal capacities come out of the index already ordered.
+CREATE INDEX idx_batteries_postcode_capacity_desc ON batteries (postcode, watt_capacity DESC, name);
+
+-- it serves every query of idx_batteries_postcode_capacity as well: a backward scan is as cheap as a forward one and
+-- range summaries stay index-only, so that index would only be a third btree to maintain on every insert
+DROP INDEX idx_batteries_postcode_capacity;
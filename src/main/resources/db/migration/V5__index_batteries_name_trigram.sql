@@ -0,0 +1,4 @@
+-- name search: a trigram index answers both the prefix (LIKE 'abc%') and the typo-tolerant (<%) criteria. It is
+-- created on the partitioned table, so every partition gets its own.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_batteries_name_trgm ON batteries USING gin (name gin_trgm_ops);
@@ -0,0 +1,6 @@
+-- Names are ordered by code point, like the fleet store, the shard merge and the name index do in memory. Under a
+-- linguistic collation such as en_US.UTF-8 case and punctuation sort differently, and the same page request would
+-- return different rows from the database and from memory. The indexes on name are rebuilt with the column.
+ALTER TABLE batteries ALTER COLUMN name TYPE VARCHAR(255) COLLATE "C";
+
+ANALYZE batteries;
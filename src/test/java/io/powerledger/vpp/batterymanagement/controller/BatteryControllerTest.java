@@ -1,7 +1,11 @@
 package io.powerledger.vpp.batterymanagement.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import io.powerledger.vpp.batterymanagement.dto.BatteryLookupDto;
 import io.powerledger.vpp.batterymanagement.dto.BatteryResponseDto;
+import io.powerledger.vpp.batterymanagement.dto.BatterySearchRequestDto;
 import io.powerledger.vpp.batterymanagement.dto.SummaryDto;
 import io.powerledger.vpp.batterymanagement.service.BatteryService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,14 +13,24 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,6 +40,12 @@ class BatteryControllerTest {
     @Mock
     private BatteryService batteryService;
 
+    @Spy
+    private Executor queryExecutor = new SyncTaskExecutor();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private BatteryController batteryController;
 
@@ -111,7 +131,7 @@ class BatteryControllerTest {
                 .thenReturn(summaryDto);
 
         // when
-        ResponseEntity<BatteryResponseDto> response = batteryController.getBatteriesInRange(minPostCode, maxPostCode, 0, 10);
+        ResponseEntity<BatteryResponseDto> response = batteryController.getBatteriesInRange(minPostCode, maxPostCode, 0, 10, false);
 
         // then
         BatteryResponseDto responseBody = response.getBody();
@@ -123,6 +143,7 @@ class BatteryControllerTest {
 
         verify(batteryService, times(1)).getBatteryByMinAndMaxPostCode(minPostCode, maxPostCode, pageable);
         verify(batteryService, times(1)).getSummaryByPostcodeRange(minPostCode, maxPostCode);
+        verify(queryExecutor, never()).execute(any(Runnable.class));
     }
 
     @Test
@@ -146,7 +167,7 @@ class BatteryControllerTest {
                 .thenReturn(List.of(battery1, battery2));
 
         // when
-        ResponseEntity<BatteryResponseDto> response = batteryController.getBatteriesInRange(minPostCode, maxPostCode, 1, 10);
+        ResponseEntity<BatteryResponseDto> response = batteryController.getBatteriesInRange(minPostCode, maxPostCode, 1, 10, false);
 
         // then
         BatteryResponseDto responseBody = response.getBody();
@@ -159,4 +180,112 @@ class BatteryControllerTest {
         verify(batteryService, times(1)).getBatteryByMinAndMaxPostCode(minPostCode, maxPostCode, pageable);
         verify(batteryService, times(0)).getSummaryByPostcodeRange(minPostCode, maxPostCode);
     }
+
+    @Test
+    void should_search_batteries_with_summary() {
+        // given
+        BatterySearchRequestDto searchRequest = new BatterySearchRequestDto();
+        searchRequest.setMinPostCode("2000");
+        searchRequest.setMaxPostCode("3000");
+
+        BatteryDto battery1 = new BatteryDto();
+        battery1.setName("Battery A");
+        battery1.setPostcode("2000");
+        battery1.setCapacity(500);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        SummaryDto summaryDto = new SummaryDto();
+        summaryDto.setTotalBatteries(1L);
+        summaryDto.setTotalCapacity(500L);
+        summaryDto.setAverageCapacity(500.0);
+        when(batteryService.searchBatteries(searchRequest, pageable)).thenReturn(List.of(battery1));
+        when(batteryService.getSummaryBySearchCriteria(searchRequest)).thenReturn(summaryDto);
+        ReflectionTestUtils.setField(batteryController, "concurrentSummaries", true);
+
+        // when
+        ResponseEntity<BatteryResponseDto> response = batteryController.searchBatteries(searchRequest, 0, 10, false);
+
+        // then
+        BatteryResponseDto responseBody = response.getBody();
+        assertThat(responseBody).isNotNull();
+        assertThat(responseBody.getBatteries()).containsExactly("Battery A");
+        assertThat(responseBody.getTotalCapacity()).isEqualTo(500L);
+        assertThat(responseBody.getTotalBatteries()).isEqualTo(1L);
+
+        verify(queryExecutor, times(1)).execute(any(Runnable.class));
+        verify(batteryService, times(1)).getSummaryBySearchCriteria(searchRequest);
+    }
+
+    @Test
+    void should_search_batteries_with_approximate_summary() {
+        // given
+        BatterySearchRequestDto searchRequest = new BatterySearchRequestDto();
+
+        BatteryDto battery1 = new BatteryDto();
+        battery1.setName("Battery A");
+        battery1.setPostcode("2000");
+        battery1.setCapacity(500);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        SummaryDto summaryDto = new SummaryDto();
+        summaryDto.setTotalBatteries(200_000L);
+        summaryDto.setTotalCapacity(100_000_000L);
+        summaryDto.setAverageCapacity(500.0);
+        summaryDto.setApproximate(true);
+        summaryDto.setTotalBatteriesMargin(3_900L);
+        summaryDto.setTotalCapacityMargin(1_950_000L);
+        summaryDto.setAverageCapacityMargin(2.5);
+        when(batteryService.searchBatteries(searchRequest, pageable)).thenReturn(List.of(battery1));
+        when(batteryService.getApproximateSummaryBySearchCriteria(searchRequest)).thenReturn(summaryDto);
+
+        // when
+        ResponseEntity<BatteryResponseDto> response = batteryController.searchBatteries(searchRequest, 0, 10, true);
+
+        // then
+        BatteryResponseDto responseBody = response.getBody();
+        assertThat(responseBody).isNotNull();
+        assertThat(responseBody.getTotalBatteries()).isEqualTo(200_000L);
+        assertThat(responseBody.getApproximate()).isTrue();
+        assertThat(responseBody.getTotalBatteriesMargin()).isEqualTo(3_900L);
+        assertThat(responseBody.getAverageCapacityMargin()).isEqualTo(2.5);
+
+        verify(batteryService, times(0)).getSummaryBySearchCriteria(searchRequest);
+    }
+
+    @Test
+    void should_stream_looked_up_batteries_then_missing_ids() throws Exception {
+        // given
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        List<UUID> ids = List.of(id2, missingId, id1);
+
+        when(batteryService.lookupBatteries(eq(ids), any())).thenAnswer(invocation -> {
+            Consumer<BatteryLookupDto> found = invocation.getArgument(1);
+            found.accept(lookedUp(id2, "Battery B"));
+            found.accept(lookedUp(id1, "Battery A"));
+            return List.of(missingId);
+        });
+
+        // when
+        ResponseEntity<StreamingResponseBody> response = batteryController.lookupBatteries(ids);
+        var output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        // then
+        JsonNode body = objectMapper.readTree(output.toByteArray());
+        assertThat(body.path("batteries").findValuesAsText("id")).containsExactly(id2.toString(), id1.toString());
+        assertThat(body.path("batteries").findValuesAsText("name")).containsExactly("Battery B", "Battery A");
+        assertThat(body.path("missing").get(0).asText()).isEqualTo(missingId.toString());
+        assertThat(body.path("missing")).hasSize(1);
+    }
+
+    private static BatteryLookupDto lookedUp(UUID id, String name) {
+        BatteryLookupDto battery = new BatteryLookupDto();
+        battery.setId(id);
+        battery.setName(name);
+        battery.setPostcode("2000");
+        battery.setCapacity(500);
+        return battery;
+    }
 }
@@ -0,0 +1,58 @@
+package io.powerledger.vpp.batterymanagement.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(Duration.ofSeconds(30), Clock.systemUTC());
+    private final ReadWriteRoutingDataSource routingDataSource =
+            new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class), readYourWritesTracker);
+
+    @BeforeEach
+    void setUp() {
+        ClientContext.setClientId("writer");
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ClientContext.clear();
+    }
+
+    @Test
+    void should_record_write_once_transaction_commits() {
+        // when
+        Object route = routingDataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(route).isEqualTo(ReadWriteRoutingDataSource.Route.PRIMARY);
+        assertThat(readYourWritesTracker.wroteRecently("writer")).isFalse();
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertThat(readYourWritesTracker.wroteRecently("writer")).isTrue();
+    }
+
+    @Test
+    void should_not_record_write_of_rolled_back_transaction() {
+        // when
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // then
+        assertThat(readYourWritesTracker.wroteRecently("writer")).isFalse();
+    }
+}
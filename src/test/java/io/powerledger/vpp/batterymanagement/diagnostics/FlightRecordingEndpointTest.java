@@ -0,0 +1,85 @@
+package io.powerledger.vpp.batterymanagement.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecordingEndpointTest {
+
+    private final FlightRecordingEndpoint endpoint = new FlightRecordingEndpoint(Duration.ofMinutes(1), DataSize.ofMegabytes(10));
+
+    @AfterEach
+    void tearDown() throws Exception {
+        endpoint.destroy();
+    }
+
+    @Test
+    void should_cap_duration_at_maximum() {
+        // when
+        var response = endpoint.start(3600L, null);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(response.getBody()).containsEntry("state", "RUNNING").containsEntry("duration", "PT1M");
+    }
+
+    @Test
+    void should_reject_second_recording_while_one_is_running() {
+        // given
+        endpoint.start(30L, null);
+
+        // when
+        var response = endpoint.start(30L, null);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void should_reject_unknown_settings() {
+        // when
+        var response = endpoint.start(30L, "verbose");
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+
+    @Test
+    void should_download_recording_with_battery_events() throws Exception {
+        // given
+        long id = ((Number) endpoint.start(30L, "profile").getBody().get("id")).longValue();
+        var event = new BatteryBatchPersistedEvent();
+        event.source = "create";
+        event.batteries = 3;
+        event.commit();
+        endpoint.stop();
+
+        // when
+        var response = endpoint.download(id);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(response.getBody().getFile().toPath());
+        assertThat(events)
+                .filteredOn(recorded -> recorded.getEventType().getName().equals("io.powerledger.vpp.BatteryBatchPersisted"))
+                .singleElement()
+                .satisfies(recorded -> assertThat(recorded.getInt("batteries")).isEqualTo(3));
+    }
+
+    @Test
+    void should_return_not_found_for_unknown_recording() throws Exception {
+        // when
+        var response = endpoint.download(42L);
+
+        // then
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
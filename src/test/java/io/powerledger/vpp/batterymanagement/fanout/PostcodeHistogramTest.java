@@ -0,0 +1,73 @@
+package io.powerledger.vpp.batterymanagement.fanout;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PostcodeHistogramTest {
+
+    // NSW partition: 1M batteries evenly over 2000 - 2999, 10 buckets of 100 postcodes
+    private static final PostcodeHistogram.ColumnStatistics NSW = new PostcodeHistogram.ColumnStatistics(
+            IntStream.rangeClosed(0, 10).mapToObj(i -> String.valueOf(2000 + Math.min(i * 100, 999))).toArray(String[]::new),
+            new String[0], new double[0], 0, 1_000_000);
+
+    // NT partition: 100k batteries, half of them in 0800
+    private static final PostcodeHistogram.ColumnStatistics NT = new PostcodeHistogram.ColumnStatistics(
+            new String[]{"0801", "0850", "0899"}, new String[]{"0800"}, new double[]{0.5}, 0, 100_000);
+
+    private final PostcodeHistogram histogram = PostcodeHistogram.of(List.of(NSW, NT));
+
+    @Test
+    void should_estimate_rows_of_range_from_buckets_and_common_values() {
+        // when / then
+        assertThat(histogram.estimateRows("2000", "2999")).isCloseTo(1_000_000, within(1.0));
+        assertThat(histogram.estimateRows("0800", "0800")).isCloseTo(50_000, within(1.0));
+        assertThat(histogram.estimateRows("0800", "0899")).isCloseTo(100_000, within(1.0));
+        assertThat(histogram.estimateRows("3000", "3999")).isZero();
+        assertThat(histogram.estimateRows(null, null)).isCloseTo(1_100_000, within(1.0));
+    }
+
+    @Test
+    void should_split_range_into_sub_ranges_of_balanced_cardinality() {
+        // when
+        List<PostcodeRange> subRanges = histogram.split("2000", "2999", 4);
+
+        // then
+        assertThat(subRanges).hasSize(4);
+        assertThat(subRanges.get(0).minPostCode()).isEqualTo("2000");
+        assertThat(subRanges.get(3).maxPostCode()).isEqualTo("2999");
+        for (int i = 0; i < subRanges.size(); i++) {
+            if (i > 0) {
+                // contiguous, the next sub-range starts right after the previous one
+                assertThat(Integer.parseInt(subRanges.get(i).minPostCode()))
+                        .isEqualTo(Integer.parseInt(subRanges.get(i - 1).maxPostCode()) + 1);
+            }
+            assertThat(histogram.estimateRows(subRanges.get(i).minPostCode(), subRanges.get(i).maxPostCode()))
+                    .isCloseTo(250_000, within(5_000.0));
+        }
+    }
+
+    @Test
+    void should_keep_open_bounds_open() {
+        // when
+        List<PostcodeRange> subRanges = histogram.split(null, null, 2);
+
+        // then
+        assertThat(subRanges).hasSize(2);
+        assertThat(subRanges.get(0).minPostCode()).isNull();
+        assertThat(subRanges.get(1).maxPostCode()).isNull();
+    }
+
+    @Test
+    void should_not_split_range_without_statistics() {
+        // when
+        List<PostcodeRange> subRanges = PostcodeHistogram.EMPTY.split("2000", "2999", 4);
+
+        // then
+        assertThat(subRanges).containsExactly(new PostcodeRange("2000", "2999"));
+    }
+}
@@ -0,0 +1,76 @@
+package io.powerledger.vpp.batterymanagement.fanout;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+@Testcontainers
+class PostcodeStatisticsTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void seed() {
+        Flyway.configure()
+                .dataSource(postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword())
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(postgreSQLContainer.getJdbcUrl(),
+                postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword()));
+        // NSW partition: 30k batteries evenly over 2000 - 2999, VIC partition: 10k batteries all in 3000
+        jdbcTemplate.update("INSERT INTO batteries (name, postcode, watt_capacity) "
+                + "SELECT 'Battery ' || i, (2000 + i % 1000)::text, 500 FROM generate_series(1, 30000) i");
+        jdbcTemplate.update("INSERT INTO batteries (name, postcode, watt_capacity) "
+                + "SELECT 'Battery ' || i, '3000', 500 FROM generate_series(30001, 40000) i");
+        jdbcTemplate.execute("ANALYZE batteries");
+    }
+
+    @Test
+    void should_read_histogram_from_statistics_of_partitions() {
+        // when
+        var histogram = new PostcodeStatistics(jdbcTemplate, Duration.ofMinutes(10), Clock.systemUTC()).histogram();
+
+        // then
+        assertThat(histogram).isNotSameAs(PostcodeHistogram.EMPTY);
+        assertThat(histogram.estimateRows(null, null)).isCloseTo(40_000, withinPercentage(5));
+        assertThat(histogram.estimateRows("2000", "2999")).isCloseTo(30_000, withinPercentage(5));
+        assertThat(histogram.estimateRows("3000", "3000")).isCloseTo(10_000, withinPercentage(5));
+    }
+
+    @Test
+    void should_split_range_into_sub_ranges_of_balanced_row_counts() {
+        // given
+        var histogram = new PostcodeStatistics(jdbcTemplate, Duration.ofMinutes(10), Clock.systemUTC()).histogram();
+
+        // when
+        var ranges = histogram.split("2000", "3999", 4);
+
+        // then
+        assertThat(ranges).hasSize(4);
+        assertThat(ranges.get(0).minPostCode()).isEqualTo("2000");
+        assertThat(ranges.get(3).maxPostCode()).isEqualTo("3999");
+        for (PostcodeRange range : ranges) {
+            Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM batteries WHERE postcode BETWEEN ? AND ?",
+                    Long.class, range.minPostCode(), range.maxPostCode());
+            assertThat(rows).isCloseTo(10_000L, withinPercentage(10));
+        }
+    }
+}
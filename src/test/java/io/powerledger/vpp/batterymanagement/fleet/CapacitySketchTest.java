@@ -0,0 +1,113 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapacitySketchTest {
+
+    private static final int K = 200;
+    private static final int ITEMS = 100_000;
+
+    @Test
+    void should_estimate_quantiles_within_rank_error() {
+        // given
+        var random = new Random(42);
+        int[] capacities = new int[ITEMS];
+        var sketch = new CapacitySketch(K, 7);
+        for (int i = 0; i < ITEMS; i++) {
+            capacities[i] = 1 + random.nextInt(20_000);
+            sketch.update(capacities[i]);
+        }
+        Arrays.sort(capacities);
+
+        // when
+        var view = sketch.sortedView();
+
+        // then
+        assertThat(sketch.count()).isEqualTo(ITEMS);
+        assertThat(view.totalWeight()).isEqualTo(ITEMS);
+        assertThat(sketch.min()).isEqualTo(capacities[0]);
+        assertThat(sketch.max()).isEqualTo(capacities[ITEMS - 1]);
+        for (double fraction : new double[]{0.1, 0.5, 0.9}) {
+            assertThat(rankError(capacities, view.quantile(fraction), fraction)).isLessThan(0.02);
+        }
+    }
+
+    @Test
+    void should_merge_sketches_like_a_single_sketch() {
+        // given
+        var random = new Random(42);
+        int[] capacities = new int[ITEMS];
+        var merged = new CapacitySketch(K, 1);
+        var parts = new CapacitySketch[10];
+        for (int part = 0; part < parts.length; part++) {
+            parts[part] = new CapacitySketch(K, part + 1);
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            // skewed, one part only holds large capacities
+            capacities[i] = i % parts.length == 0 ? 10_000 + random.nextInt(1_000) : 1 + random.nextInt(5_000);
+            parts[i % parts.length].update(capacities[i]);
+        }
+        Arrays.sort(capacities);
+
+        // when
+        for (CapacitySketch part : parts) {
+            merged.merge(part);
+        }
+        var view = merged.sortedView();
+
+        // then
+        assertThat(merged.count()).isEqualTo(ITEMS);
+        assertThat(view.totalWeight()).isEqualTo(ITEMS);
+        assertThat(merged.min()).isEqualTo(capacities[0]);
+        assertThat(merged.max()).isEqualTo(capacities[ITEMS - 1]);
+        for (double fraction : new double[]{0.1, 0.5, 0.9, 0.95}) {
+            assertThat(rankError(capacities, view.quantile(fraction), fraction)).isLessThan(0.02);
+        }
+        assertThat(Math.abs(view.rank(5_000) - 0.9 * ITEMS) / ITEMS).isLessThan(0.02);
+    }
+
+    @Test
+    void should_answer_exactly_below_capacity() {
+        // given
+        var sketch = new CapacitySketch(K, 7);
+        for (int capacity = 1; capacity <= 100; capacity++) {
+            sketch.update(capacity);
+        }
+
+        // when
+        var view = sketch.sortedView();
+
+        // then
+        assertThat(view.quantile(0.5)).isEqualTo(50);
+        assertThat(view.rank(25)).isEqualTo(25);
+        assertThat(view.rank(0)).isZero();
+    }
+
+    // distance between the wanted rank and the nearest rank the estimate actually has among the sorted capacities
+    private static double rankError(int[] sorted, int estimate, double fraction) {
+        int firstAtOrAbove = lowerBound(sorted, estimate);
+        int firstAbove = lowerBound(sorted, estimate + 1);
+        double wanted = fraction * sorted.length;
+        double nearest = Math.max(firstAtOrAbove, Math.min(wanted, firstAbove));
+        return Math.abs(nearest - wanted) / sorted.length;
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
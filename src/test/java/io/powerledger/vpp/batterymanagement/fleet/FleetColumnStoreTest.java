@@ -0,0 +1,315 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.CapacityDistribution;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FleetColumnStoreTest {
+
+    private final FleetColumnStore fleetColumnStore = new FleetColumnStore();
+
+    @Test
+    void should_skip_batteries_already_in_store() {
+        // given
+        var id = UUID.randomUUID();
+        fleetColumnStore.add(id, "Battery A", "2000", 500);
+
+        // when
+        boolean added = fleetColumnStore.add(id, "Battery A", "2000", 500);
+
+        // then
+        assertThat(added).isFalse();
+        assertThat(fleetColumnStore.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_return_page_of_matching_batteries_ordered_by_name() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery D", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2500", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "0800", 700);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "3000", 800);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery E", "6000", 900);
+
+        // when
+        var firstPage = fleetColumnStore.findPage("0800", "3000", null, null, PageRequest.of(0, 3));
+        var secondPage = fleetColumnStore.findPage("0800", "3000", null, null, PageRequest.of(1, 3));
+
+        // then
+        assertThat(firstPage).extracting(Battery::getName).containsExactly("Battery A", "Battery B", "Battery C");
+        assertThat(firstPage.get(2).getPostcode()).isEqualTo("0800");
+        assertThat(secondPage).extracting(Battery::getName).containsExactly("Battery D");
+    }
+
+    @Test
+    void should_summarize_batteries_matching_postcode_and_capacity() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "3000", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "4000", 700);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery D", "6000", 700);
+
+        // when
+        var summary = fleetColumnStore.summarize("2000", "5000", 550, null);
+
+        // then
+        assertThat(summary).isEqualTo(new BatterySummary(2L, 1300L, 650.0));
+    }
+
+    @Test
+    void should_return_empty_summary_for_inverted_range() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+
+        // when
+        var summary = fleetColumnStore.summarize("3000", "2000", null, null);
+
+        // then
+        assertThat(summary).isEqualTo(new BatterySummary(0L, null, null));
+    }
+
+    @Test
+    void should_keep_every_battery_when_columns_grow() {
+        // given
+        for (int i = 0; i < 100_000; i++) {
+            fleetColumnStore.add(UUID.randomUUID(), "Battery " + (i % 1000), String.valueOf(1000 + i % 9000), 1 + i % 10);
+        }
+
+        // when
+        var summary = fleetColumnStore.summarize(null, null, null, null);
+
+        // then
+        assertThat(summary.count()).isEqualTo(100_000L);
+        assertThat(summary.totalWattCapacity()).isEqualTo(550_000L);
+    }
+
+    @Test
+    void should_return_capacity_distribution_of_postcode_range() {
+        // given
+        for (int capacity = 1; capacity <= 100; capacity++) {
+            fleetColumnStore.add(UUID.randomUUID(), "Battery " + capacity, capacity % 2 == 0 ? "2000" : "2999", capacity);
+        }
+        fleetColumnStore.add(UUID.randomUUID(), "Battery X", "3000", 1000);
+
+        // when
+        var distribution = fleetColumnStore.capacityDistribution("2000", "2999", 4);
+
+        // then
+        assertThat(distribution.count()).isEqualTo(100);
+        assertThat(distribution.minCapacity()).isEqualTo(1);
+        assertThat(distribution.maxCapacity()).isEqualTo(100);
+        assertThat(distribution.p10Capacity()).isEqualTo(10);
+        assertThat(distribution.medianCapacity()).isEqualTo(50);
+        assertThat(distribution.p90Capacity()).isEqualTo(90);
+        assertThat(distribution.buckets()).containsExactly(
+                new CapacityDistribution.Bucket(1, 25, 25),
+                new CapacityDistribution.Bucket(26, 50, 25),
+                new CapacityDistribution.Bucket(51, 75, 25),
+                new CapacityDistribution.Bucket(76, 100, 25));
+    }
+
+    @Test
+    void should_return_empty_capacity_distribution_for_range_without_batteries() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+
+        // when
+        var distribution = fleetColumnStore.capacityDistribution("3000", "4000", 10);
+
+        // then
+        assertThat(distribution).isEqualTo(new CapacityDistribution(0, null, null, null, null, null, List.of()));
+    }
+
+    @Test
+    void should_return_largest_batteries_of_postcode_range_with_ties_ordered_by_name() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery D", "2500", 900);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "2000", 700);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2999", 700);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery E", "2500", 650);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery F", "3000", 1000);
+
+        // when
+        var top = fleetColumnStore.findTopByCapacity("2000", "2999", 3);
+
+        // then
+        assertThat(top).extracting(Battery::getName, Battery::getPostcode, Battery::getWattCapacity)
+                .containsExactly(tuple("Battery D", "2500", 900), tuple("Battery B", "2999", 700), tuple("Battery C", "2000", 700));
+    }
+
+    @Test
+    void should_return_every_battery_when_range_holds_fewer_than_k() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2000", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "4000", 700);
+
+        // when
+        var top = fleetColumnStore.findTopByCapacity("2000", "2999", 10);
+
+        // then
+        assertThat(top).extracting(Battery::getName).containsExactly("Battery B", "Battery A");
+    }
+
+    @Test
+    void should_order_battery_appended_after_a_query_into_its_postcode() {
+        // given
+        for (int i = 0; i < 100; i++) {
+            fleetColumnStore.add(UUID.randomUUID(), "Battery " + i, "2000", 1000 - 2 * i);
+        }
+        fleetColumnStore.findTopByCapacity("2000", "2000", 1);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery Late", "2000", 999);
+
+        // when
+        var top = fleetColumnStore.findTopByCapacity("2000", "2000", 3);
+
+        // then
+        assertThat(top).extracting(Battery::getName).containsExactly("Battery 0", "Battery Late", "Battery 1");
+    }
+
+    @Test
+    void should_select_fewest_batteries_covering_demand_with_smallest_last_battery() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 900);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2000", 800);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "2500", 700);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery D", "2500", 300);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery E", "2999", 150);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery F", "3000", 5000);
+
+        // when
+        var selection = fleetColumnStore.selectForDemand("2000", "2999", 1200, 10);
+
+        // then
+        assertThat(selection.batteries()).extracting(Battery::getName).containsExactly("Battery A", "Battery D");
+        assertThat(selection.capacity()).isEqualTo(1200);
+        assertThat(selection.satisfied()).isTrue();
+    }
+
+    @Test
+    void should_close_demand_with_battery_past_the_largest_max_batteries_of_its_postcode() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 900);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2000", 800);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "2000", 400);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery D", "2000", 100);
+
+        // when
+        var selection = fleetColumnStore.selectForDemand("2000", "2999", 1000, 2);
+
+        // then
+        assertThat(selection.batteries()).extracting(Battery::getName).containsExactly("Battery A", "Battery D");
+        assertThat(selection.capacity()).isEqualTo(1000);
+    }
+
+    @Test
+    void should_return_largest_batteries_when_demand_cannot_be_met() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 900);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2000", 800);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "2500", 700);
+
+        // when
+        var selection = fleetColumnStore.selectForDemand("2000", "2999", 5000, 2);
+
+        // then
+        assertThat(selection.batteries()).extracting(Battery::getName).containsExactly("Battery A", "Battery B");
+        assertThat(selection.capacity()).isEqualTo(1700);
+        assertThat(selection.satisfied()).isFalse();
+    }
+
+    @Test
+    void should_complete_names_starting_with_prefix_in_order() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 12", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 10", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Melbourne 1", "3000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 10", "2001", 600);
+        fleetColumnStore.completeNames("Syd", 10);
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 11", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Syd", "2000", 500);
+
+        // when
+        var names = fleetColumnStore.completeNames("Sydney 1", 3);
+
+        // then
+        assertThat(names).containsExactly("Sydney 10", "Sydney 11", "Sydney 12");
+        assertThat(fleetColumnStore.completeNames("Syd", 10)).containsExactly("Syd", "Sydney 10", "Sydney 11", "Sydney 12");
+        assertThat(fleetColumnStore.completeNames("Perth", 10)).isEmpty();
+    }
+
+    @Test
+    void should_complete_and_page_names_by_code_point_like_the_database() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Battery_D", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery \ud83d\ude00", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "battery b", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery \uff21", "2000", 500);
+        fleetColumnStore.completeNames("B", 10);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery-c", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+
+        // when
+        var names = fleetColumnStore.completeNames("Battery", 10);
+        var page = fleetColumnStore.findPage("2000", "2000", null, null, "Battery", PageRequest.of(1, 2));
+
+        // then
+        assertThat(names).containsExactly("Battery A", "Battery \uff21", "Battery \ud83d\ude00", "Battery-c", "Battery_D");
+        assertThat(page).extracting(Battery::getName).containsExactly("Battery \ud83d\ude00", "Battery-c");
+    }
+
+    @Test
+    void should_filter_page_and_summary_by_name_prefix() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 2", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 1", "2500", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Melbourne 1", "2000", 700);
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 3", "4000", 800);
+
+        // when
+        var page = fleetColumnStore.findPage("2000", "2999", null, null, "Syd", PageRequest.of(0, 10));
+        var summary = fleetColumnStore.summarize("2000", "2999", null, null, "Syd");
+
+        // then
+        assertThat(page).extracting(Battery::getName).containsExactly("Sydney 1", "Sydney 2");
+        assertThat(summary).isEqualTo(new BatterySummary(2L, 1100L, 550.0));
+    }
+
+    @Test
+    void should_summarize_overlapping_filters_with_names_in_one_pass() {
+        // given
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 2", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 1", "2500", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Melbourne 1", "3000", 700);
+        fleetColumnStore.add(UUID.randomUUID(), "Perth 1", "6000", 800);
+        var filters = List.of(
+                new BatteryFilter("2000", "2999", null, null),
+                new BatteryFilter("2500", "3000", 650, null),
+                new BatteryFilter(null, null, null, null, "Syd", null, null, null),
+                new BatteryFilter("7000", "7999", null, null),
+                new BatteryFilter("3000", "2000", null, null));
+
+        // when
+        var results = fleetColumnStore.summarizeAll(filters, 2);
+
+        // then
+        assertThat(results).containsExactly(
+                new FilterResult(new BatterySummary(2L, 1100L, 550.0), List.of("Sydney 1", "Sydney 2")),
+                new FilterResult(new BatterySummary(1L, 700L, 700.0), List.of("Melbourne 1")),
+                new FilterResult(new BatterySummary(2L, 1100L, 550.0), List.of("Sydney 1", "Sydney 2")),
+                new FilterResult(new BatterySummary(0L, null, null), List.of()),
+                new FilterResult(new BatterySummary(0L, null, null), List.of()));
+        assertThat(fleetColumnStore.summarizeAll(filters, 0)).extracting(FilterResult::names).allMatch(List::isEmpty);
+    }
+}
@@ -0,0 +1,95 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FleetSnapshotsTest {
+
+    private static final LocalDateTime HIGH_WATER_MARK = LocalDateTime.of(2025, 5, 1, 10, 15, 30, 123_456_000);
+
+    @TempDir
+    private Path directory;
+
+    private Path snapshot;
+    private FleetColumnStore source;
+    private UUID firstId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshot = directory.resolve("fleet-store.snapshot");
+        source = new FleetColumnStore();
+        firstId = UUID.randomUUID();
+        source.add(firstId, "Battery B", "2500", 600);
+        source.add(UUID.randomUUID(), "Battery A", "0800", 500);
+        source.add(UUID.randomUUID(), "Battery Ä", "6000", 700);
+        source.advanceHighWaterMark(HIGH_WATER_MARK);
+        source.markLoaded();
+        new FleetSnapshots(source, snapshot).write();
+    }
+
+    @Test
+    void should_restore_store_from_snapshot() {
+        // given
+        var restored = new FleetColumnStore();
+
+        // when
+        boolean usable = new FleetSnapshots(restored, snapshot).restore();
+
+        // then
+        assertThat(usable).isTrue();
+        assertThat(restored.highWaterMark()).isEqualTo(HIGH_WATER_MARK);
+        assertThat(restored.findPage(null, null, null, null, PageRequest.of(0, 10)))
+                .extracting(Battery::getName, Battery::getPostcode, Battery::getWattCapacity)
+                .containsExactly(tuple("Battery A", "0800", 500), tuple("Battery B", "2500", 600), tuple("Battery Ä", "6000", 700));
+        assertThat(restored.summarize("0800", "3000", null, null)).isEqualTo(source.summarize("0800", "3000", null, null));
+        assertThat(restored.add(firstId, "Battery B", "2500", 600)).isFalse();
+    }
+
+    @Test
+    void should_ignore_snapshot_with_checksum_mismatch() throws IOException {
+        // given
+        try (var file = new RandomAccessFile(snapshot.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+        var restored = new FleetColumnStore();
+
+        // when
+        boolean usable = new FleetSnapshots(restored, snapshot).restore();
+
+        // then
+        assertThat(usable).isFalse();
+        assertThat(restored.size()).isZero();
+    }
+
+    @Test
+    void should_ignore_snapshot_of_other_format_version() throws IOException {
+        // given
+        try (var file = new RandomAccessFile(snapshot.toFile(), "rw")) {
+            file.seek(8);
+            file.write(FleetSnapshots.FORMAT_VERSION + 1);
+        }
+        var restored = new FleetColumnStore();
+
+        // when
+        boolean usable = new FleetSnapshots(restored, snapshot).restore();
+
+        // then
+        assertThat(usable).isFalse();
+        assertThat(restored.size()).isZero();
+    }
+}
@@ -0,0 +1,154 @@
+package io.powerledger.vpp.batterymanagement.fleet;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@Testcontainers
+class FleetStoreLoaderTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 5, 1, 10, 0);
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(1);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    // the data source of the instance under test and the one of another instance writing to the same database
+    private final DataSource dataSource = dataSource();
+    private final JdbcTemplate otherInstance = new JdbcTemplate(dataSource());
+    private final ListAppender<ILoggingEvent> logEvents = new ListAppender<>();
+    private FleetColumnStore fleetColumnStore;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(), postgreSQLContainer.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        otherInstance.update("TRUNCATE batteries");
+        fleetColumnStore = new FleetColumnStore();
+        logEvents.start();
+        ((Logger) LoggerFactory.getLogger(FleetStoreLoader.class)).addAppender(logEvents);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(FleetStoreLoader.class)).detachAppender(logEvents);
+    }
+
+    @Test
+    void should_catch_up_with_batteries_written_through_another_instance() throws SQLException {
+        // given
+        insert("Battery A", "2000", 500, CREATED_AT);
+        insert("Battery B", "3000", 600, CREATED_AT.plusSeconds(1));
+        var loader = new FleetStoreLoader(fleetColumnStore, List.of(dataSource), CATCH_UP_OVERLAP, null);
+        loader.run(null);
+        // committed late, created before the high-water mark but within the overlap
+        insert("Battery C", "2500", 700, CREATED_AT.plusNanos(500_000_000));
+        insert("Battery D", "4000", 800, CREATED_AT.plusSeconds(2));
+
+        // when
+        loader.catchUp();
+        loader.catchUp();
+
+        // then
+        assertThat(fleetColumnStore.isLoaded()).isTrue();
+        assertThat(fleetColumnStore.size()).isEqualTo(4);
+        assertThat(fleetColumnStore.highWaterMark()).isEqualTo(CREATED_AT.plusSeconds(2));
+        assertThat(fleetColumnStore.summarize(null, null, null, null)).isEqualTo(new BatterySummary(4L, 2600L, 650.0));
+    }
+
+    @Test
+    void should_skip_and_warn_about_batteries_without_four_digit_postcode() throws SQLException {
+        // given
+        insert("Battery A", "2000", 500, CREATED_AT);
+        insert("Battery B", "200", 600, CREATED_AT.plusSeconds(1));
+        insert("Battery C", "20000", 700, CREATED_AT.plusSeconds(2));
+        insert("Battery D", "NSW1", 800, CREATED_AT.plusSeconds(3));
+
+        // when
+        new FleetStoreLoader(fleetColumnStore, List.of(dataSource), CATCH_UP_OVERLAP, null).run(null);
+
+        // then
+        assertThat(fleetColumnStore.size()).isEqualTo(1);
+        assertThat(fleetColumnStore.highWaterMark()).isEqualTo(CREATED_AT.plusSeconds(3));
+        assertThat(logEvents.list)
+                .filteredOn(event -> event.getLevel() == Level.WARN)
+                .extracting(ILoggingEvent::getLevel, ILoggingEvent::getFormattedMessage)
+                .containsExactly(tuple(Level.WARN, "Fleet store skipped 3 batteries without a four digit postcode"));
+    }
+
+    @Test
+    void should_restore_snapshot_and_replay_only_batteries_created_since(@TempDir Path directory) throws Exception {
+        // given
+        Path snapshot = directory.resolve("fleet-store.snapshot");
+        insert("Battery A", "2000", 500, CREATED_AT);
+        insert("Battery B", "3000", 600, CREATED_AT.plusSeconds(1));
+        new FleetStoreLoader(fleetColumnStore, List.of(dataSource), CATCH_UP_OVERLAP, null).run(null);
+        new FleetSnapshots(fleetColumnStore, snapshot).write();
+        insert("Battery C", "2500", 700, CREATED_AT.plusSeconds(2));
+        insert("Battery D", "4000", 800, CREATED_AT.plusSeconds(3));
+        // created long before the high-water mark, outside the overlap the restart replays
+        insert("Battery E", "5000", 900, CREATED_AT.minusHours(1));
+        var restarted = new FleetColumnStore();
+
+        // when
+        new FleetStoreLoader(restarted, List.of(dataSource), CATCH_UP_OVERLAP, new FleetSnapshots(restarted, snapshot)).run(null);
+
+        // then
+        assertThat(restarted.isLoaded()).isTrue();
+        assertThat(restarted.size()).isEqualTo(4);
+        assertThat(restarted.highWaterMark()).isEqualTo(CREATED_AT.plusSeconds(3));
+        assertThat(restarted.findPage(null, null, null, null, PageRequest.of(0, 10)))
+                .extracting(Battery::getName)
+                .containsExactly("Battery A", "Battery B", "Battery C", "Battery D");
+        assertThat(logEvents.list)
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .anyMatch(message -> message.startsWith("Fleet store restored 2 batteries from snapshot and replayed 2 created since "
+                        + CREATED_AT.plusSeconds(1).minus(CATCH_UP_OVERLAP)));
+    }
+
+    private void insert(String name, String postcode, int capacity, LocalDateTime createdAt) {
+        otherInstance.update("INSERT INTO batteries (name, postcode, watt_capacity, created_at) VALUES (?, ?, ?, ?)",
+                name, postcode, capacity, createdAt);
+    }
+
+    private static DataSource dataSource() {
+        return new DriverManagerDataSource(postgreSQLContainer.getJdbcUrl(), postgreSQLContainer.getUsername(),
+                postgreSQLContainer.getPassword());
+    }
+}
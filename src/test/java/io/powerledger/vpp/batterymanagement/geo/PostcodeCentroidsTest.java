@@ -0,0 +1,92 @@
+package io.powerledger.vpp.batterymanagement.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PostcodeCentroidsTest {
+
+    @Test
+    void should_return_postcodes_within_radius_nearest_first() throws IOException {
+        // given
+        var centroids = PostcodeCentroids.read(csv("""
+                # comment
+                postcode,locality,state,latitude,longitude
+                2150,Parramatta,NSW,-33.8150,151.0011
+                2010,Surry Hills,NSW,-33.8845,151.2117
+                2000,Sydney,NSW,-33.8688,151.2093
+                3000,Melbourne,VIC,-37.8136,144.9631
+                """));
+
+        // when
+        var nearby = centroids.nearest(-33.8688, 151.2093, 25, 10);
+
+        // then
+        assertThat(nearby).extracting(PostcodeDistance::postcode).containsExactly("2000", "2010", "2150");
+        assertThat(nearby.get(0).distanceKm()).isZero();
+        assertThat(nearby.get(2).distanceKm()).isCloseTo(20.1, within(0.1));
+    }
+
+    @Test
+    void should_match_great_circle_distances_of_a_full_scan() {
+        // given
+        var random = new Random(7);
+        List<PostcodeCentroid> all = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            all.add(new PostcodeCentroid(String.format("%04d", i), -44 + random.nextDouble() * 34, 113 + random.nextDouble() * 41));
+        }
+        var centroids = new PostcodeCentroids(all);
+
+        for (int query = 0; query < 200; query++) {
+            double latitude = -44 + random.nextDouble() * 34;
+            double longitude = 113 + random.nextDouble() * 41;
+            double radiusKm = random.nextDouble() * 500;
+            int limit = 1 + random.nextInt(50);
+
+            // when
+            var nearby = centroids.nearest(latitude, longitude, radiusKm, limit);
+
+            // then
+            var expected = all.stream()
+                    .map(centroid -> new PostcodeDistance(centroid.postcode(),
+                            haversineKm(latitude, longitude, centroid.latitude(), centroid.longitude())))
+                    .filter(distance -> distance.distanceKm() <= radiusKm)
+                    .sorted(Comparator.comparingDouble(PostcodeDistance::distanceKm))
+                    .limit(limit)
+                    .map(PostcodeDistance::postcode)
+                    .toList();
+            assertThat(nearby).extracting(PostcodeDistance::postcode).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void should_reject_rows_with_missing_columns() {
+        assertThatThrownBy(() -> PostcodeCentroids.read(csv("""
+                postcode,locality,state,latitude,longitude
+                2000,Sydney,-33.8688,151.2093
+                """))).isInstanceOf(IOException.class);
+    }
+
+    private static ByteArrayInputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static double haversineKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double halfPhi = (phi2 - phi1) / 2;
+        double halfLambda = Math.toRadians(longitude2 - longitude1) / 2;
+        double h = Math.sin(halfPhi) * Math.sin(halfPhi) + Math.cos(phi1) * Math.cos(phi2) * Math.sin(halfLambda) * Math.sin(halfLambda);
+        return 2 * PostcodeCentroids.EARTH_RADIUS_KM * Math.asin(Math.sqrt(h));
+    }
+}
@@ -0,0 +1,134 @@
+package io.powerledger.vpp.batterymanagement.integration;
+
+import io.powerledger.vpp.batterymanagement.VppBatteryManagementApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same read workload against the application in platform thread and virtual thread mode.
+ * Excluded from the regular test task, run it with {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+@Testcontainers
+class ExecutionModeLoadTest {
+
+    private static final int FLEET_SIZE = 50_000;
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 25;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @Test
+    void compare_platform_and_virtual_thread_throughput() throws Exception {
+        // when
+        double platformThroughput = measureThroughput(false);
+        double virtualThroughput = measureThroughput(true);
+
+        // then
+        log.info("Throughput with platform threads: {} req/s, with virtual threads: {} req/s",
+                String.format("%.1f", platformThroughput), String.format("%.1f", virtualThroughput));
+        assertThat(platformThroughput).isPositive();
+        assertThat(virtualThroughput).isPositive();
+    }
+
+    private double measureThroughput(boolean virtualThreads) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.threads.virtual.enabled", virtualThreads);
+        properties.put("spring.datasource.url", postgreSQLContainer.getJdbcUrl());
+        properties.put("spring.datasource.username", postgreSQLContainer.getUsername());
+        properties.put("spring.datasource.password", postgreSQLContainer.getPassword());
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.kafka.listener.auto-startup", false);
+        // measure the raw execution model, not the load shedding in front of it
+        properties.put("concurrency-limit.enabled", false);
+
+        try (var context = new SpringApplicationBuilder(VppBatteryManagementApiApplication.class)
+                .properties(properties)
+                .run()) {
+            seedFleet(context.getBean(JdbcTemplate.class));
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            // warm up the JIT and the connection pool before measuring
+            runWorkload(port, CLIENTS / 4, REQUESTS_PER_CLIENT);
+
+            long start = System.nanoTime();
+            int completed = runWorkload(port, CLIENTS, REQUESTS_PER_CLIENT);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            assertThat(completed).isEqualTo(CLIENTS * REQUESTS_PER_CLIENT);
+            return completed / seconds;
+        }
+    }
+
+    private int runWorkload(int port, int clients, int requestsPerClient) throws Exception {
+        var succeeded = new AtomicInteger();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+             var httpClient = HttpClient.newBuilder().executor(executor).build()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                int clientId = client;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        var request = HttpRequest.newBuilder(rangeUri(port, clientId, i)).GET().build();
+                        var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return succeeded.get();
+    }
+
+    private URI rangeUri(int port, int clientId, int requestIndex) {
+        int minPostCode = 2000 + (clientId * 7 + requestIndex * 13) % 1500;
+        int page = requestIndex % 3;
+        return URI.create("http://localhost:" + port + "/batteries?minPostCode=" + minPostCode
+                + "&maxPostCode=" + (minPostCode + 400) + "&page=" + page + "&size=10");
+    }
+
+    private void seedFleet(JdbcTemplate jdbcTemplate) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM batteries", Long.class);
+        if (existing != null && existing >= FLEET_SIZE) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO batteries (id, name, postcode, watt_capacity, created_at, updated_at) "
+                + "SELECT gen_random_uuid(), 'Battery ' || g, (2000 + g % 2000)::text, 100 + g % 900, now(), now() "
+                + "FROM generate_series(1, ?) g", FLEET_SIZE);
+        jdbcTemplate.execute("ANALYZE batteries");
+    }
+}
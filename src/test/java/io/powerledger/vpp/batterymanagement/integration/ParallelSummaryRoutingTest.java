@@ -0,0 +1,136 @@
+package io.powerledger.vpp.batterymanagement.integration;
+
+import io.powerledger.vpp.batterymanagement.datasource.ClientContextFilter;
+import io.powerledger.vpp.batterymanagement.fanout.ParallelRangeSummaries;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "datasource.replica.enabled=true",
+        "datasource.replica.read-your-writes-window=30s",
+        "summary.parallel.enabled=true",
+        "summary.parallel.min-rows-per-sub-range=100",
+        "summary.parallel.statistics-refresh=0s",
+        "spring.kafka.listener.auto-startup=false"
+})
+class ParallelSummaryRoutingTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> primaryContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("primarydb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @Container
+    private static final PostgreSQLContainer<?> replicaContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("replicadb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primaryContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", primaryContainer::getUsername);
+        registry.add("spring.datasource.password", primaryContainer::getPassword);
+        registry.add("spring.datasource.replica.url", replicaContainer::getJdbcUrl);
+        registry.add("spring.datasource.replica.username", replicaContainer::getUsername);
+        registry.add("spring.datasource.replica.password", replicaContainer::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        // there is no streaming replication between the containers, the replica only gets the schema
+        Flyway.configure()
+                .dataSource(replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ParallelRangeSummaries parallelRangeSummaries;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    private final DataSource replicaDataSource = new DriverManagerDataSource(
+            replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword());
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/batteries";
+    }
+
+    @BeforeEach
+    void setUp() {
+        var primary = new JdbcTemplate(primaryDataSource);
+        primary.update("DELETE FROM batteries");
+        new JdbcTemplate(replicaDataSource).update("DELETE FROM batteries");
+        // 1000 batteries evenly over 2000 - 3999 on the primary only, analyzed so wide summaries are split
+        primary.update("INSERT INTO batteries (name, postcode, watt_capacity) "
+                + "SELECT 'Battery ' || i, (2000 + i * 2)::text, 500 FROM generate_series(0, 999) i");
+        primary.execute("ANALYZE batteries");
+    }
+
+    @Test
+    void should_route_sub_range_summaries_of_recent_writer_to_primary() {
+        // given
+        var batteries = List.of(Map.of("name", "Battery A", "postcode", "2001", "capacity", 500));
+        restTemplate.exchange(getBaseUrl(), HttpMethod.POST, new HttpEntity<>(batteries, clientHeaders("writer")), List.class);
+
+        // when
+        ResponseEntity<Map> writerResponse = restTemplate.exchange(
+                getBaseUrl() + "?minPostCode=2000&maxPostCode=3999", HttpMethod.GET,
+                new HttpEntity<>(clientHeaders("writer")), Map.class);
+        ResponseEntity<Map> otherClientResponse = restTemplate.exchange(
+                getBaseUrl() + "?minPostCode=2000&maxPostCode=3999", HttpMethod.GET,
+                new HttpEntity<>(clientHeaders("reader")), Map.class);
+
+        // then
+        assertThat(parallelRangeSummaries.split("2000", "3999")).hasSizeGreaterThan(1);
+        assertThat(writerResponse.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(writerResponse.getBody().get("totalBatteries")).isEqualTo(1001);
+        assertThat(writerResponse.getBody().get("totalCapacity")).isEqualTo(500_500);
+        assertThat(otherClientResponse.getBody().get("totalBatteries")).isEqualTo(0);
+    }
+
+    private HttpHeaders clientHeaders(String clientId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(ClientContextFilter.CLIENT_ID_HEADER, clientId);
+        return headers;
+    }
+}
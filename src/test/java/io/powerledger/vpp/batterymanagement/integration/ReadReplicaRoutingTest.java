@@ -0,0 +1,158 @@
+package io.powerledger.vpp.batterymanagement.integration;
+
+import io.powerledger.vpp.batterymanagement.datasource.ClientContextFilter;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "datasource.replica.enabled=true",
+        "datasource.replica.read-your-writes-window=30s",
+        "spring.kafka.listener.auto-startup=false"
+})
+class ReadReplicaRoutingTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> primaryContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("primarydb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @Container
+    private static final PostgreSQLContainer<?> replicaContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("replicadb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primaryContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", primaryContainer::getUsername);
+        registry.add("spring.datasource.password", primaryContainer::getPassword);
+        registry.add("spring.datasource.replica.url", replicaContainer::getJdbcUrl);
+        registry.add("spring.datasource.replica.username", replicaContainer::getUsername);
+        registry.add("spring.datasource.replica.password", replicaContainer::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        // there is no streaming replication between the containers, the replica only gets the schema
+        Flyway.configure()
+                .dataSource(replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    // the application pool of the replica is read-only, tests seed it through their own connection
+    private final DataSource replicaDataSource = new DriverManagerDataSource(
+            replicaContainer.getJdbcUrl(), replicaContainer.getUsername(), replicaContainer.getPassword());
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/batteries";
+    }
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(primaryDataSource).update("DELETE FROM batteries");
+        new JdbcTemplate(replicaDataSource).update("DELETE FROM batteries");
+    }
+
+    @Test
+    void should_serve_range_queries_from_replica() {
+        // given
+        insertBattery(replicaDataSource, "Replica Battery", "2000", 500);
+
+        // when
+        ResponseEntity<Map> response = restTemplate.exchange(
+                getBaseUrl() + "?minPostCode=2000&maxPostCode=3000",
+                HttpMethod.GET,
+                new HttpEntity<>(clientHeaders("reader")),
+                Map.class
+        );
+
+        // then
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat((List<String>) response.getBody().get("batteries")).containsExactly("Replica Battery");
+        assertThat(response.getBody().get("totalBatteries")).isEqualTo(1);
+    }
+
+    @Test
+    void should_write_to_primary_and_read_own_writes_from_primary() {
+        // given
+        var batteries = List.of(Map.of("name", "Battery A", "postcode", "2000", "capacity", 500));
+        restTemplate.exchange(getBaseUrl(), HttpMethod.POST, new HttpEntity<>(batteries, clientHeaders("writer")), List.class);
+
+        // when
+        ResponseEntity<Map> writerResponse = restTemplate.exchange(
+                getBaseUrl() + "/search",
+                HttpMethod.POST,
+                new HttpEntity<>(Map.of("minPostCode", "2000"), clientHeaders("writer")),
+                Map.class
+        );
+        ResponseEntity<Map> otherClientResponse = restTemplate.exchange(
+                getBaseUrl() + "/search",
+                HttpMethod.POST,
+                new HttpEntity<>(Map.of("minPostCode", "2000"), clientHeaders("reader")),
+                Map.class
+        );
+
+        // then
+        Long primaryCount = new JdbcTemplate(primaryDataSource).queryForObject("SELECT COUNT(*) FROM batteries", Long.class);
+        assertThat(primaryCount).isEqualTo(1L);
+
+        assertThat((List<String>) writerResponse.getBody().get("batteries")).containsExactly("Battery A");
+        assertThat(writerResponse.getBody().get("totalBatteries")).isEqualTo(1);
+
+        assertThat((List<String>) otherClientResponse.getBody().get("batteries")).isEmpty();
+        assertThat(otherClientResponse.getBody().get("totalBatteries")).isEqualTo(0);
+    }
+
+    private HttpHeaders clientHeaders(String clientId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(ClientContextFilter.CLIENT_ID_HEADER, clientId);
+        return headers;
+    }
+
+    private void insertBattery(DataSource dataSource, String name, String postcode, int capacity) {
+        new JdbcTemplate(dataSource).update(
+                "INSERT INTO batteries (name, postcode, watt_capacity) VALUES (?, ?, ?)", name, postcode, capacity);
+    }
+}
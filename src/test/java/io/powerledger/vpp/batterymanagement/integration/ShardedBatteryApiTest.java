@@ -0,0 +1,180 @@
+package io.powerledger.vpp.batterymanagement.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "sharding.enabled=true",
+        "spring.kafka.listener.auto-startup=false"
+})
+class ShardedBatteryApiTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> northShard = shardContainer("northdb");
+
+    @Container
+    private static final PostgreSQLContainer<?> southShard = shardContainer("southdb");
+
+    @Container
+    private static final PostgreSQLContainer<?> westShard = shardContainer("westdb");
+
+    private static PostgreSQLContainer<?> shardContainer(String databaseName) {
+        return new PostgreSQLContainer<>("postgres:15-alpine")
+                .withDatabaseName(databaseName)
+                .withUsername("testuser")
+                .withPassword("testpass");
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registerShard(registry, 0, "north", "0000", "2999", northShard);
+        registerShard(registry, 1, "south", "3000", "5999", southShard);
+        registerShard(registry, 2, "west", "6000", "9999", westShard);
+    }
+
+    private static void registerShard(DynamicPropertyRegistry registry, int index, String name,
+                                      String minPostCode, String maxPostCode, PostgreSQLContainer<?> container) {
+        String prefix = "sharding.shards[" + index + "].";
+        registry.add(prefix + "name", () -> name);
+        registry.add(prefix + "min-post-code", () -> minPostCode);
+        registry.add(prefix + "max-post-code", () -> maxPostCode);
+        registry.add(prefix + "url", container::getJdbcUrl);
+        registry.add(prefix + "username", container::getUsername);
+        registry.add(prefix + "password", container::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/batteries";
+    }
+
+    @BeforeEach
+    void setUp() {
+        List.of(northShard, southShard, westShard).forEach(container -> jdbcTemplate(container).update("DELETE FROM batteries"));
+    }
+
+    @Test
+    void should_write_each_battery_to_owning_shard() {
+        // given
+        var batteries = List.of(
+                Map.of("name", "Battery A", "postcode", "2000", "capacity", 500),
+                Map.of("name", "Battery B", "postcode", "3000", "capacity", 600),
+                Map.of("name", "Battery C", "postcode", "6000", "capacity", 700)
+        );
+
+        // when
+        ResponseEntity<List> response = restTemplate.exchange(getBaseUrl(), HttpMethod.POST, new HttpEntity<>(batteries), List.class);
+
+        // then
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(namesOn(northShard)).containsExactly("Battery A");
+        assertThat(namesOn(southShard)).containsExactly("Battery B");
+        assertThat(namesOn(westShard)).containsExactly("Battery C");
+    }
+
+    @Test
+    void should_merge_pages_and_summaries_across_shards() {
+        // given
+        var batteries = List.of(
+                Map.of("name", "Battery D", "postcode", "2000", "capacity", 500),
+                Map.of("name", "Battery A", "postcode", "2500", "capacity", 600),
+                Map.of("name", "Battery C", "postcode", "3000", "capacity", 700),
+                Map.of("name", "Battery B", "postcode", "4000", "capacity", 800),
+                Map.of("name", "Battery E", "postcode", "6000", "capacity", 900)
+        );
+        restTemplate.exchange(getBaseUrl(), HttpMethod.POST, new HttpEntity<>(batteries), List.class);
+
+        // when
+        ResponseEntity<Map> firstPage = restTemplate.exchange(
+                getBaseUrl() + "?minPostCode=2000&maxPostCode=5000&page=0&size=3", HttpMethod.GET, null, Map.class);
+        ResponseEntity<Map> secondPage = restTemplate.exchange(
+                getBaseUrl() + "?minPostCode=2000&maxPostCode=5000&page=1&size=3", HttpMethod.GET, null, Map.class);
+
+        // then
+        assertThat((List<String>) firstPage.getBody().get("batteries")).containsExactly("Battery A", "Battery B", "Battery C");
+        assertThat(firstPage.getBody().get("totalBatteries")).isEqualTo(4);
+        assertThat(firstPage.getBody().get("totalCapacity")).isEqualTo(2600);
+        assertThat(firstPage.getBody().get("averageCapacity")).isEqualTo(650.0);
+        assertThat((List<String>) secondPage.getBody().get("batteries")).containsExactly("Battery D");
+    }
+
+    @Test
+    void should_merge_pages_of_mixed_case_and_punctuated_names_in_database_order() {
+        // given
+        var batteries = List.of(
+                Map.of("name", "battery b", "postcode", "2000", "capacity", 500),
+                Map.of("name", "Battery_D", "postcode", "2500", "capacity", 500),
+                Map.of("name", "BATTERY E", "postcode", "2900", "capacity", 500),
+                Map.of("name", "Battery-c", "postcode", "3000", "capacity", 500),
+                Map.of("name", "Battery A", "postcode", "3500", "capacity", 500),
+                Map.of("name", "zeta", "postcode", "4000", "capacity", 500)
+        );
+        restTemplate.exchange(getBaseUrl(), HttpMethod.POST, new HttpEntity<>(batteries), List.class);
+
+        // when
+        List<String> names = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            ResponseEntity<Map> response = restTemplate.exchange(
+                    getBaseUrl() + "?minPostCode=2000&maxPostCode=5000&page=" + page + "&size=2", HttpMethod.GET, null, Map.class);
+            names.addAll((List<String>) response.getBody().get("batteries"));
+        }
+
+        // then
+        assertThat(names).containsExactly("BATTERY E", "Battery A", "Battery-c", "Battery_D", "battery b", "zeta");
+    }
+
+    @Test
+    void should_search_all_shards_without_postcode_criteria() {
+        // given
+        var batteries = List.of(
+                Map.of("name", "Battery A", "postcode", "2000", "capacity", 500),
+                Map.of("name", "Battery B", "postcode", "3000", "capacity", 600),
+                Map.of("name", "Battery C", "postcode", "6000", "capacity", 700)
+        );
+        restTemplate.exchange(getBaseUrl(), HttpMethod.POST, new HttpEntity<>(batteries), List.class);
+
+        // when
+        ResponseEntity<Map> response = restTemplate.exchange(
+                getBaseUrl() + "/search", HttpMethod.POST, new HttpEntity<>(Map.of("minCapacity", 550)), Map.class);
+
+        // then
+        assertThat((List<String>) response.getBody().get("batteries")).containsExactly("Battery B", "Battery C");
+        assertThat(response.getBody().get("totalCapacity")).isEqualTo(1300);
+    }
+
+    private List<String> namesOn(PostgreSQLContainer<?> container) {
+        return jdbcTemplate(container).queryForList("SELECT name FROM batteries ORDER BY name", String.class);
+    }
+
+    private JdbcTemplate jdbcTemplate(PostgreSQLContainer<?> container) {
+        return new JdbcTemplate(new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+    }
+}
@@ -0,0 +1,112 @@
+package io.powerledger.vpp.batterymanagement.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE_RTT = 10_000_000L;
+
+    private AdaptiveConcurrencyLimiter newLimiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 2, 100, 0.2, 1.5, 600, 0.9);
+    }
+
+    @Test
+    void should_reject_when_in_flight_reaches_limit() {
+        // given
+        var limiter = newLimiter(2);
+
+        // when
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void should_grow_limit_while_latency_stays_at_baseline() {
+        // given
+        var limiter = newLimiter(10);
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            saturateAndComplete(limiter, BASELINE_RTT);
+        }
+
+        // then
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void should_shrink_limit_when_latency_grows() {
+        // given
+        var limiter = newLimiter(50);
+        for (int i = 0; i < 20; i++) {
+            saturateAndComplete(limiter, BASELINE_RTT);
+        }
+        int limitBeforeSlowdown = limiter.getLimit();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            saturateAndComplete(limiter, BASELINE_RTT * 10);
+        }
+
+        // then
+        assertThat(limiter.getLimit()).isLessThan(limitBeforeSlowdown);
+    }
+
+    @Test
+    void should_back_off_on_drop_but_never_below_min_limit() {
+        // given
+        var limiter = newLimiter(10);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        }
+
+        // then
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void should_not_change_limit_when_application_limited() {
+        // given
+        var limiter = newLimiter(40);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(BASELINE_RTT * (i % 2 == 0 ? 1 : 20));
+        }
+
+        // then
+        assertThat(limiter.getLimit()).isEqualTo(40);
+    }
+
+    @Test
+    void should_fail_on_invalid_limits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(1, 2, 100, 0.2, 1.5, 600, 0.9))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void saturateAndComplete(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.powerledger.vpp.batterymanagement.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DropCountingAsyncAppenderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final CountDownLatch delivering = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DropCountingAsyncAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        // holds the worker on the first event so the queue behind it fills up
+        var blockingAppender = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                delivering.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blockingAppender.setContext(loggerContext);
+        blockingAppender.start();
+
+        appender = new DropCountingAsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setQueueSize(1);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        appender.addAppender(blockingAppender);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void should_count_every_event_the_full_queue_rejects() throws InterruptedException {
+        // given
+        appender.doAppend(event("Battery A"));
+        assertThat(delivering.await(10, TimeUnit.SECONDS)).isTrue();
+        appender.doAppend(event("Battery B"));
+        long before = DropCountingAsyncAppender.queueFullEvents();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            appender.doAppend(event("Battery " + i));
+        }
+
+        // then
+        assertThat(DropCountingAsyncAppender.queueFullEvents() - before).isEqualTo(8);
+        assertThat(appender.getNumberOfElementsInQueue()).isEqualTo(1);
+    }
+
+    private ILoggingEvent event(String name) {
+        return new LoggingEvent(getClass().getName(), loggerContext.getLogger("battery"), Level.WARN,
+                "Battery saved to database: {}", null, new Object[]{name});
+    }
+}
@@ -0,0 +1,71 @@
+package io.powerledger.vpp.batterymanagement.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimitedLoggerTest {
+
+    private static final Duration INTERVAL = Duration.ofSeconds(10);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private Logger delegate;
+    private RateLimitedLogger rateLimitedLogger;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(Logger.class);
+        when(delegate.isInfoEnabled()).thenReturn(true);
+        rateLimitedLogger = new RateLimitedLogger(delegate, INTERVAL, nanoTime::get);
+    }
+
+    @Test
+    void should_log_once_per_interval() {
+        // when
+        rateLimitedLogger.info("Battery saved: {}", "Battery A");
+        rateLimitedLogger.info("Battery saved: {}", "Battery B");
+        rateLimitedLogger.info("Battery saved: {}", "Battery C");
+
+        // then
+        verify(delegate, times(1)).info("Battery saved: {}", "Battery A");
+        verify(delegate, never()).info(anyString(), any(Object.class), any(Object.class));
+    }
+
+    @Test
+    void should_report_suppressed_messages_in_next_interval() {
+        // given
+        rateLimitedLogger.info("Battery saved: {}", "Battery A");
+        rateLimitedLogger.info("Battery saved: {}", "Battery B");
+        rateLimitedLogger.info("Battery saved: {}", "Battery C");
+
+        // when
+        nanoTime.addAndGet(INTERVAL.toNanos());
+        rateLimitedLogger.info("Battery saved: {}", "Battery D");
+
+        // then
+        verify(delegate).info("Battery saved: {} ({} similar messages suppressed)", "Battery D", 2L);
+    }
+
+    @Test
+    void should_not_log_when_info_is_disabled() {
+        // given
+        when(delegate.isInfoEnabled()).thenReturn(false);
+
+        // when
+        rateLimitedLogger.info("Battery saved: {}", "Battery A");
+
+        // then
+        verify(delegate, never()).info(anyString(), any(Object.class));
+    }
+}
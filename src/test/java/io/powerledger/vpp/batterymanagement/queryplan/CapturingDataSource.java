@@ -0,0 +1,100 @@
+package io.powerledger.vpp.batterymanagement.queryplan;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL and bound parameters of every query executed while capturing, so the exact statements Hibernate
+ * generated can be replayed under EXPLAIN.
+ */
+class CapturingDataSource extends DelegatingDataSource {
+
+    record Parameter(Method setter, Object[] arguments) {
+    }
+
+    record CapturedStatement(String sql, List<Parameter> parameters) {
+
+        void bind(PreparedStatement statement) throws SQLException {
+            for (Parameter parameter : parameters) {
+                try {
+                    parameter.setter().invoke(statement, parameter.arguments());
+                } catch (ReflectiveOperationException ex) {
+                    throw new SQLException("Could not bind " + parameter.setter().getName(), ex);
+                }
+            }
+        }
+    }
+
+    private final List<CapturedStatement> captured = new CopyOnWriteArrayList<>();
+    private volatile boolean capturing;
+
+    CapturingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    void startCapture() {
+        captured.clear();
+        capturing = true;
+    }
+
+    List<CapturedStatement> stopCapture() {
+        capturing = false;
+        return List.copyOf(captured);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return capture(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return capture(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection capture(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(method, connection, args);
+            if (capturing && method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                return capture(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement capture(PreparedStatement statement, String sql) {
+        List<Parameter> parameters = new ArrayList<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.add(new Parameter(method, args.clone()));
+            } else if (method.getName().equals("executeQuery")) {
+                captured.add(new CapturedStatement(sql, List.copyOf(parameters)));
+            }
+            return invoke(method, statement, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(CapturingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
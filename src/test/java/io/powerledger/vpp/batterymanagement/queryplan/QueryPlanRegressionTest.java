@@ -0,0 +1,295 @@
+package io.powerledger.vpp.batterymanagement.queryplan;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.repository.BatteryRepository;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Runs every repository query against a large seeded table, replays the generated SQL under
+ * EXPLAIN (ANALYZE, BUFFERS) and checks the plans against query-plan-thresholds.properties.
+ * Excluded from the regular test task, run it with {@code ./gradlew queryPlanTest}.
+ */
+@Tag("query-plan")
+@Testcontainers
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false"
+})
+@Import(QueryPlanRegressionTest.CapturingDataSourceConfig.class)
+class QueryPlanRegressionTest {
+
+    private static final int FLEET_SIZE = Integer.getInteger("queryplan.fleet-size", 1_000_000);
+    private static final Path REPORT_DIRECTORY = Path.of(System.getProperty("queryplan.report-dir", "build/reports/query-plans"));
+    private static final String EXPLAIN = "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) ";
+
+    private static final Properties THRESHOLDS = loadThresholds();
+    private static final Map<String, Consumer<BatteryRepository>> SHAPES = new LinkedHashMap<>();
+
+    private static UUID sampleId;
+    private static List<UUID> sampleIds;
+    private static boolean seeded;
+
+    static {
+        SHAPES.put("range-page", repository -> repository.findByPostcodeRangeOrderByName("2000", "2001", PageRequest.of(0, 10)));
+        SHAPES.put("range-page-deep", repository -> repository.findByPostcodeRangeOrderByName("2000", "2001", PageRequest.of(20, 10)));
+        SHAPES.put("range-summary", repository -> repository.findSummaryByPostcodeRange("3000", "3004"));
+        SHAPES.put("search-postcode-page", repository -> repository.findBySearchCriteria("4000", "4001", null, null, PageRequest.of(0, 10)));
+        SHAPES.put("search-postcode-capacity-page", repository -> repository.findBySearchCriteria("4000", "4009", 5000, 6000, PageRequest.of(0, 10)));
+        SHAPES.put("search-postcode-summary", repository -> repository.findSummaryBySearchCriteria("5000", "5009", null, null));
+        SHAPES.put("search-capacity-page", repository -> repository.findBySearchCriteria(null, null, 13000, null, PageRequest.of(0, 10)));
+        SHAPES.put("search-empty-page", repository -> repository.findBySearchCriteria(null, null, null, null, PageRequest.of(0, 10)));
+        SHAPES.put("search-capacity-summary", repository -> repository.findSummaryBySearchCriteria(null, null, 5000, 6000));
+        SHAPES.put("sampled-summary", repository -> repository.sampleSummaryBySearchCriteria(null, null, null, null, 1));
+        SHAPES.put("batch-summary", repository -> repository.summarizeByFilters(IntStream.range(0, 50)
+                .mapToObj(i -> new BatteryFilter(String.valueOf(2000 + 20 * i), String.valueOf(2001 + 20 * i), null, null))
+                .toList(), 10));
+        SHAPES.put("name-prefix-page", repository -> repository.findBySearchCriteria(
+                new BatteryFilter(null, null, null, null, "Battery 42424", null, null, null), PageRequest.of(0, 10)));
+        SHAPES.put("name-query-page", repository -> repository.findBySearchCriteria(
+                new BatteryFilter(null, null, null, null, null, "4242421", null, null), PageRequest.of(0, 10)));
+        SHAPES.put("name-query-summary", repository -> repository.findSummaryBySearchCriteria(
+                new BatteryFilter(null, null, null, null, null, "4242421", null, null)));
+        // the seeded batteries are registered one second apart, the last hour holds 3600 of them
+        SHAPES.put("created-window-page", repository -> repository.findBySearchCriteria(
+                new BatteryFilter(null, null, null, null, null, null, Instant.now().minus(1, ChronoUnit.HOURS), null), PageRequest.of(0, 10)));
+        SHAPES.put("created-window-summary", repository -> repository.findSummaryBySearchCriteria(
+                new BatteryFilter(null, null, null, null, null, null, Instant.now().minus(1, ChronoUnit.HOURS), null)));
+        SHAPES.put("top-capacity", repository -> repository.findTopByCapacity("2000", "2999", 100));
+        SHAPES.put("find-by-id", repository -> repository.findById(sampleId));
+        SHAPES.put("find-by-ids", repository -> repository.findByIds(sampleIds));
+    }
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass")
+            // always plan with the bound values, like the first executions of a statement in the application
+            .withUrlParam("prepareThreshold", "0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    }
+
+    @TestConfiguration
+    static class CapturingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof CapturingDataSource)
+                            ? new CapturingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private BatteryRepository batteryRepository;
+
+    @Autowired
+    private CapturingDataSource capturingDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<String> shapes() {
+        return SHAPES.keySet().stream();
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (!seeded) {
+            seedFleet();
+            seeded = true;
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("shapes")
+    void should_keep_query_plan_within_thresholds(String shape) throws Exception {
+        // given
+        capturingDataSource.startCapture();
+        SHAPES.get(shape).accept(batteryRepository);
+        var statements = capturingDataSource.stopCapture();
+
+        // when
+        List<JsonNode> plans = new ArrayList<>();
+        for (int i = 0; i < statements.size(); i++) {
+            JsonNode plan = explain(statements.get(i));
+            savePlan(shape, i, statements.get(i).sql(), plan);
+            plans.add(plan);
+        }
+
+        // then
+        double scale = Math.max(1.0, FLEET_SIZE / 1_000_000.0);
+        var softly = new SoftAssertions();
+        softly.assertThat(plans).as("statements of %s", shape).isNotEmpty();
+        for (int i = 0; i < plans.size(); i++) {
+            JsonNode plan = plans.get(i);
+            List<String> nodeTypes = new ArrayList<>();
+            collectNodeTypes(plan.path("Plan"), nodeTypes);
+            String statement = shape + " statement " + i;
+
+            List<String> forbiddenNodes = nodeList(threshold(shape, "forbidden-nodes"));
+            if (!forbiddenNodes.isEmpty()) {
+                softly.assertThat(nodeTypes).as("node types of %s", statement).doesNotContainAnyElementsOf(forbiddenNodes);
+            }
+            List<String> requiredNodes = nodeList(threshold(shape, "required-nodes"));
+            if (i == 0 && !requiredNodes.isEmpty()) {
+                softly.assertThat(nodeTypes).as("node types of %s", statement).containsAll(requiredNodes);
+            }
+            long buffers = plan.path("Plan").path("Shared Hit Blocks").asLong() + plan.path("Plan").path("Shared Read Blocks").asLong();
+            softly.assertThat(buffers).as("shared buffers of %s", statement)
+                    .isLessThanOrEqualTo((long) (Long.parseLong(threshold(shape, "max-buffers")) * scale));
+            softly.assertThat(plan.path("Execution Time").asDouble()).as("execution time (ms) of %s", statement)
+                    .isLessThanOrEqualTo(Double.parseDouble(threshold(shape, "max-execution-ms")) * scale);
+        }
+        softly.assertAll();
+    }
+
+    private JsonNode explain(CapturingDataSource.CapturedStatement statement) throws Exception {
+        try (Connection connection = capturingDataSource.getTargetDataSource().getConnection()) {
+            // the first run warms the buffer cache, so timings do not depend on the order of the shapes
+            runExplain(connection, statement);
+            return runExplain(connection, statement);
+        }
+    }
+
+    private JsonNode runExplain(Connection connection, CapturingDataSource.CapturedStatement statement) throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement(EXPLAIN + statement.sql())) {
+            statement.bind(explain);
+            try (ResultSet resultSet = explain.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1)).get(0);
+            }
+        }
+    }
+
+    private void savePlan(String shape, int index, String sql, JsonNode plan) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("shape", shape);
+        report.put("fleetSize", FLEET_SIZE);
+        report.put("sql", sql);
+        report.put("plan", plan);
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(REPORT_DIRECTORY.resolve(shape + "-" + index + ".json").toFile(), report);
+    }
+
+    private void seedFleet() {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM batteries", Long.class);
+        if (existing == null || existing < FLEET_SIZE) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (var seed = connection.createStatement()) {
+                    seed.execute("SELECT setseed(0.42)");
+                }
+                // state bands weighted by dwellings, postcodes uniform within a band
+                try (var insert = connection.prepareStatement("INSERT INTO batteries (name, postcode, watt_capacity, created_at) "
+                        + "SELECT 'Battery ' || g, lpad((CASE "
+                        + "WHEN r < 0.32 THEN 2000 + floor(u * 1000) "
+                        + "WHEN r < 0.58 THEN 3000 + floor(u * 1000) "
+                        + "WHEN r < 0.78 THEN 4000 + floor(u * 1000) "
+                        + "WHEN r < 0.85 THEN 5000 + floor(u * 1000) "
+                        + "WHEN r < 0.95 THEN 6000 + floor(u * 1000) "
+                        + "WHEN r < 0.97 THEN 7000 + floor(u * 1000) "
+                        + "ELSE 800 + floor(u * 100) END)::int::text, 4, '0'), "
+                        + "5000 + floor(random() * 8501)::int, "
+                        // one registration a second up to now, in insertion order like the real table
+                        + "localtimestamp - make_interval(secs => ? - g) "
+                        + "FROM (SELECT g, random() AS r, random() AS u FROM generate_series(1, ?) g) fleet")) {
+                    insert.setInt(1, FLEET_SIZE);
+                    insert.setInt(2, FLEET_SIZE);
+                    insert.executeUpdate();
+                }
+                return null;
+            });
+            // sets the visibility map, index-only scans depend on it
+            jdbcTemplate.execute("VACUUM ANALYZE batteries");
+        }
+        sampleId = jdbcTemplate.queryForObject("SELECT id FROM batteries WHERE postcode = '3000' LIMIT 1", UUID.class);
+        // one lookup chunk of ids spread over the fleet
+        sampleIds = jdbcTemplate.queryForList("SELECT id FROM batteries TABLESAMPLE BERNOULLI (0.2) REPEATABLE (42) LIMIT 1000", UUID.class);
+    }
+
+    private static void collectNodeTypes(JsonNode node, List<String> nodeTypes) {
+        nodeTypes.add(node.path("Node Type").asText());
+        node.path("Plans").forEach(child -> collectNodeTypes(child, nodeTypes));
+    }
+
+    private static String threshold(String shape, String key) {
+        return THRESHOLDS.getProperty(shape + "." + key, THRESHOLDS.getProperty("default." + key));
+    }
+
+    private static List<String> nodeList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(nodeType -> !nodeType.isEmpty())
+                .toList();
+    }
+
+    private static Properties loadThresholds() {
+        var properties = new Properties();
+        try (InputStream in = QueryPlanRegressionTest.class.getResourceAsStream("/query-plan-thresholds.properties")) {
+            properties.load(in);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not load query plan thresholds", ex);
+        }
+        return properties;
+    }
+}
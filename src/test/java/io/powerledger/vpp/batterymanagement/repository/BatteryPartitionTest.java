@@ -0,0 +1,201 @@
+package io.powerledger.vpp.batterymanagement.repository;
+
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=none")
+class BatteryPartitionTest {
+
+    private static final int PLANNED_EXECUTIONS = 10;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgreSQLContainer =
+            new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    @Autowired
+    private BatteryRepository batteryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        batteryRepository.deleteAll();
+    }
+
+    @Test
+    void should_store_batteries_in_state_partitions() {
+        // given
+        batteryRepository.saveAllAndFlush(List.of(
+                battery("Battery A", "0800", 500),
+                battery("Battery B", "2000", 600),
+                battery("Battery C", "3000", 700),
+                battery("Battery D", "9726", 800)
+        ));
+
+        // when
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT tableoid::regclass::text FROM batteries ORDER BY postcode", String.class);
+
+        // then
+        assertThat(partitions).containsExactly("batteries_nt_act", "batteries_nsw", "batteries_vic", "batteries_qld_lvr");
+    }
+
+    @Test
+    void should_keep_existing_queries_working_on_partitioned_table() {
+        // given
+        batteryRepository.saveAllAndFlush(List.of(
+                battery("Battery A", "2000", 500),
+                battery("Battery B", "2999", 600),
+                battery("Battery C", "3000", 700)
+        ));
+
+        // when
+        var batteries = batteryRepository.findByPostcodeRangeOrderByName("2000", "3000", PageRequest.of(0, 10));
+        BatterySummary summary = batteryRepository.findSummaryBySearchCriteria("2000", "2999", null, null);
+
+        // then
+        assertThat(batteries.getContent()).extracting(Battery::getName).containsExactly("Battery A", "Battery B", "Battery C");
+        assertThat(summary.count()).isEqualTo(2L);
+        assertThat(summary.totalWattCapacity()).isEqualTo(1100L);
+    }
+
+    @Test
+    void should_order_pages_by_name_like_the_fleet_store() {
+        // given
+        List<Battery> batteries = List.of(
+                battery("battery b", "2000", 500),
+                battery("Battery A", "2100", 500),
+                battery("Battery_D", "2200", 500),
+                battery("BATTERY E", "2300", 500),
+                battery("Battery-c", "2400", 500),
+                battery("\u00c9clair", "2500", 500),
+                battery("zeta", "2600", 500),
+                battery("Battery \ud83d\ude00", "2700", 500),
+                battery("Battery \uff21", "2800", 500));
+        batteryRepository.saveAllAndFlush(batteries);
+        var fleetColumnStore = new FleetColumnStore();
+        batteries.forEach(battery -> fleetColumnStore.add(battery.getId(), battery.getName(), battery.getPostcode(),
+                battery.getWattCapacity()));
+        var prefix = new BatteryFilter("2000", "2999", null, null, "Battery", null, null, null);
+
+        for (int page = 0; page < 4; page++) {
+            // when
+            var pageable = PageRequest.of(page, 3);
+            var fromDatabase = batteryRepository.findByPostcodeRangeOrderByName("2000", "2999", pageable).getContent();
+            var fromStore = fleetColumnStore.findPage("2000", "2999", null, null, pageable);
+            var prefixFromDatabase = batteryRepository.findBySearchCriteria(prefix, pageable).getContent();
+            var prefixFromStore = fleetColumnStore.findPage("2000", "2999", null, null, "Battery", pageable);
+
+            // then
+            assertThat(fromStore).extracting(Battery::getName)
+                    .containsExactlyElementsOf(fromDatabase.stream().map(Battery::getName).toList());
+            assertThat(prefixFromStore).extracting(Battery::getName)
+                    .containsExactlyElementsOf(prefixFromDatabase.stream().map(Battery::getName).toList());
+        }
+        assertThat(batteryRepository.findByPostcodeRangeOrderByName("2000", "2999", PageRequest.of(0, 10)).getContent())
+                .extracting(Battery::getName)
+                .containsExactly("BATTERY E", "Battery A", "Battery \uff21", "Battery \ud83d\ude00", "Battery-c", "Battery_D",
+                        "battery b", "zeta", "\u00c9clair");
+    }
+
+    @Test
+    void should_prune_partitions_outside_postcode_range_after_prepare_threshold() {
+        // given
+        String filterCount = "SELECT COUNT(*) FROM batteries WHERE " + BatteryRepository.FILTER_CRITERIA;
+        String sample = BatteryRepository.SAMPLE_BLOCKS_BY_SEARCH_CRITERIA;
+
+        // when
+        List<String> filterCountPlans = plansOfPreparedStatement(filterCount,
+                List.of("minPostCode", "maxPostCode", "minCapacity", "maxCapacity", "namePattern", "nameQuery", "createdFrom", "createdTo"),
+                "varchar, varchar, integer, integer, varchar, varchar, timestamptz, timestamptz",
+                "'2000', '2999', NULL, NULL, 'Battery%', NULL, NULL, NULL");
+        List<String> samplePlans = plansOfPreparedStatement(sample,
+                List.of("minPostCode", "maxPostCode", "minCapacity", "maxCapacity", "samplePercent"),
+                "varchar, varchar, integer, integer, float8",
+                "'2000', '2999', NULL, NULL, 1");
+
+        // then
+        assertThat(jdbcTemplate.queryForObject("SHOW plan_cache_mode", String.class)).isEqualTo("force_custom_plan");
+        assertThat(filterCountPlans).hasSize(PLANNED_EXECUTIONS).allSatisfy(plan -> {
+            assertThat(plan).contains("batteries_nsw");
+            assertThat(plan).doesNotContain("batteries_vic", "batteries_qld", "batteries_nt_act");
+        });
+        assertThat(samplePlans).hasSize(PLANNED_EXECUTIONS).allSatisfy(plan -> {
+            assertThat(plan).contains("batteries_nsw");
+            assertThat(plan).doesNotContain("batteries_vic", "batteries_qld", "batteries_nt_act");
+        });
+    }
+
+    /**
+     * Plans of a repository statement prepared on the server with its parameters bound, as pgjdbc runs it past its
+     * prepare threshold. PostgreSQL considers a generic plan, which cannot prune by the optional criteria, from the
+     * sixth execution on, so the statement is executed beyond that.
+     */
+    private List<String> plansOfPreparedStatement(String statement, List<String> parameters, String types, String arguments) {
+        String positional = statement;
+        for (int i = 0; i < parameters.size(); i++) {
+            positional = positional.replace(":" + parameters.get(i), "$" + (i + 1));
+        }
+        String prepare = "PREPARE repository_statement (" + types + ") AS " + positional;
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            try (Statement sql = connection.createStatement()) {
+                sql.execute(prepare);
+                List<String> plans = new ArrayList<>();
+                for (int execution = 0; execution < PLANNED_EXECUTIONS; execution++) {
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet rows = sql.executeQuery("EXPLAIN EXECUTE repository_statement (" + arguments + ")")) {
+                        while (rows.next()) {
+                            plan.append(rows.getString(1)).append('\n');
+                        }
+                    }
+                    plans.add(plan.toString());
+                }
+                sql.execute("DEALLOCATE repository_statement");
+                return plans;
+            }
+        });
+    }
+
+    private Battery battery(String name, String postcode, int capacity) {
+        Battery battery = new Battery();
+        battery.setName(name);
+        battery.setPostcode(postcode);
+        battery.setWattCapacity(capacity);
+        return battery;
+    }
+}
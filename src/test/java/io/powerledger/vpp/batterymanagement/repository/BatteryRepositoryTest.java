@@ -1,7 +1,10 @@
 package io.powerledger.vpp.batterymanagement.repository;
 
 import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
 import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.BlockSample;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +19,13 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @Testcontainers
 @DataJpaTest
@@ -309,4 +316,207 @@ class BatteryRepositoryTest {
         assertThat(summary.totalWattCapacity()).isEqualTo(1800L);
         assertThat(summary.averageWattCapacity()).isEqualTo(600.0);
     }
+
+    @Test
+    void sample_summary_by_search_criteria_aggregates_per_block() {
+        // given
+        Battery battery1 = new Battery();
+        battery1.setName("Battery A");
+        battery1.setPostcode("2000");
+        battery1.setWattCapacity(500);
+
+        Battery battery2 = new Battery();
+        battery2.setName("Battery B");
+        battery2.setPostcode("2500");
+        battery2.setWattCapacity(600);
+
+        Battery battery3 = new Battery();
+        battery3.setName("Battery C");
+        battery3.setPostcode("3500");
+        battery3.setWattCapacity(700);
+
+        batteryRepository.saveAllAndFlush(List.of(battery1, battery2, battery3));
+
+        // when
+        // a 100 percent sample keeps every block, the two matching batteries share one
+        BlockSample sample = batteryRepository.sampleSummaryBySearchCriteria(
+                "2000", "3000", null, null, 100
+        );
+
+        // then
+        assertThat(sample).isEqualTo(new BlockSample(2, 1100, 4, 1_210_000, 2200));
+        assertThat(sample.estimate(1.0).summary()).isEqualTo(new BatterySummary(2L, 1100L, 550.0));
+        assertThat(sample.estimate(1.0).countMargin()).isZero();
+    }
+
+    @Test
+    void summarize_by_filters_in_filter_order() {
+        // given
+        Battery battery1 = new Battery();
+        battery1.setName("Battery A");
+        battery1.setPostcode("2000");
+        battery1.setWattCapacity(500);
+
+        Battery battery2 = new Battery();
+        battery2.setName("Battery B");
+        battery2.setPostcode("2500");
+        battery2.setWattCapacity(600);
+
+        Battery battery3 = new Battery();
+        battery3.setName("Battery C");
+        battery3.setPostcode("3500");
+        battery3.setWattCapacity(700);
+
+        batteryRepository.saveAllAndFlush(List.of(battery1, battery2, battery3));
+
+        // when
+        List<FilterResult> results = batteryRepository.summarizeByFilters(List.of(
+                new BatteryFilter("3000", "3999", null, null),
+                new BatteryFilter(null, null, 550, null),
+                new BatteryFilter("0800", "0899", null, null)
+        ), 1);
+
+        // then
+        assertThat(results).containsExactly(
+                new FilterResult(new BatterySummary(1L, 700L, 700.0), List.of("Battery C")),
+                new FilterResult(new BatterySummary(2L, 1300L, 650.0), List.of("Battery B")),
+                new FilterResult(new BatterySummary(0L, null, null), List.of()));
+    }
+
+    @Test
+    void find_by_search_criteria_with_name_prefix_matching_wildcards_literally() {
+        // given
+        Battery battery1 = new Battery();
+        battery1.setName("Sydney_2");
+        battery1.setPostcode("2000");
+        battery1.setWattCapacity(500);
+
+        Battery battery2 = new Battery();
+        battery2.setName("Sydney 1");
+        battery2.setPostcode("2500");
+        battery2.setWattCapacity(600);
+
+        Battery battery3 = new Battery();
+        battery3.setName("Sydney_1");
+        battery3.setPostcode("3500");
+        battery3.setWattCapacity(700);
+
+        batteryRepository.saveAll(List.of(battery1, battery2, battery3));
+
+        // when
+        List<Battery> batteries = batteryRepository.findBySearchCriteria(
+                new BatteryFilter("2000", "2999", null, null, "Sydney_", null, null, null), PageRequest.of(0, 10)
+        ).getContent();
+        BatterySummary summary = batteryRepository.findSummaryBySearchCriteria(
+                new BatteryFilter(null, null, null, null, "Sydney_", null, null, null));
+
+        // then
+        assertThat(batteries).extracting(Battery::getName).containsExactly("Sydney_2");
+        assertThat(summary).isEqualTo(new BatterySummary(2L, 1200L, 600.0));
+    }
+
+    @Test
+    void find_by_search_criteria_with_misspelled_name_query() {
+        // given
+        Battery battery1 = new Battery();
+        battery1.setName("Sydney North 2");
+        battery1.setPostcode("2000");
+        battery1.setWattCapacity(500);
+
+        Battery battery2 = new Battery();
+        battery2.setName("Melbourne North 1");
+        battery2.setPostcode("2500");
+        battery2.setWattCapacity(600);
+
+        Battery battery3 = new Battery();
+        battery3.setName("Sydney South 1");
+        battery3.setPostcode("2500");
+        battery3.setWattCapacity(700);
+
+        batteryRepository.saveAllAndFlush(List.of(battery1, battery2, battery3));
+
+        // when
+        List<Battery> batteries = batteryRepository.findBySearchCriteria(
+                new BatteryFilter(null, null, null, null, null, "Sydny", null, null), PageRequest.of(0, 10)
+        ).getContent();
+        List<FilterResult> results = batteryRepository.summarizeByFilters(List.of(
+                new BatteryFilter(null, null, 600, null, null, "Sydny", null, null),
+                new BatteryFilter("2500", "2500", null, null, "Melb", null, null, null)
+        ), 1);
+
+        // then
+        assertThat(batteries).extracting(Battery::getName).containsExactly("Sydney North 2", "Sydney South 1");
+        assertThat(results).containsExactly(
+                new FilterResult(new BatterySummary(1L, 700L, 700.0), List.of("Sydney South 1")),
+                new FilterResult(new BatterySummary(1L, 600L, 600.0), List.of("Melbourne North 1")));
+    }
+
+    @Test
+    void find_by_search_criteria_within_registration_window() {
+        // given
+        Battery battery1 = new Battery();
+        battery1.setName("Perth 1");
+        battery1.setPostcode("6000");
+        battery1.setWattCapacity(500);
+
+        Battery battery2 = new Battery();
+        battery2.setName("Perth 2");
+        battery2.setPostcode("6000");
+        battery2.setWattCapacity(600);
+
+        Battery battery3 = new Battery();
+        battery3.setName("Perth 3");
+        battery3.setPostcode("6100");
+        battery3.setWattCapacity(700);
+
+        batteryRepository.saveAndFlush(battery1);
+        batteryRepository.saveAndFlush(battery2);
+        batteryRepository.saveAndFlush(battery3);
+        // the column keeps microseconds, the bounds must not fall between a stored value and the one in memory
+        Instant createdFrom = battery2.getCreatedAt().truncatedTo(ChronoUnit.MICROS);
+        Instant createdTo = battery3.getCreatedAt().truncatedTo(ChronoUnit.MICROS);
+
+        // when
+        List<Battery> batteries = batteryRepository.findBySearchCriteria(
+                new BatteryFilter(null, null, null, null, null, null, createdFrom, null), PageRequest.of(0, 10)
+        ).getContent();
+        BatterySummary summary = batteryRepository.findSummaryBySearchCriteria(
+                new BatteryFilter("6000", "6999", null, null, null, null, null, createdTo));
+        List<FilterResult> results = batteryRepository.summarizeByFilters(List.of(
+                new BatteryFilter(null, null, null, null, null, null, createdFrom, createdTo)
+        ), 1);
+
+        // then
+        assertThat(batteries).extracting(Battery::getName).containsExactly("Perth 2", "Perth 3");
+        assertThat(summary).isEqualTo(new BatterySummary(2L, 1100L, 550.0));
+        assertThat(results).containsExactly(new FilterResult(new BatterySummary(1L, 600L, 600.0), List.of("Perth 2")));
+    }
+
+    @Test
+    void find_by_ids_ignoring_unknown_ids() {
+        // given
+        Battery battery1 = new Battery();
+        battery1.setName("Darwin 1");
+        battery1.setPostcode("0800");
+        battery1.setWattCapacity(500);
+
+        Battery battery2 = new Battery();
+        battery2.setName("Hobart 1");
+        battery2.setPostcode("7000");
+        battery2.setWattCapacity(600);
+
+        Battery battery3 = new Battery();
+        battery3.setName("Sydney 1");
+        battery3.setPostcode("2000");
+        battery3.setWattCapacity(700);
+
+        batteryRepository.saveAllAndFlush(List.of(battery1, battery2, battery3));
+
+        // when
+        List<Battery> batteries = batteryRepository.findByIds(List.of(battery3.getId(), UUID.randomUUID(), battery1.getId()));
+
+        // then
+        assertThat(batteries).extracting(Battery::getName, Battery::getPostcode, Battery::getWattCapacity)
+                .containsExactlyInAnyOrder(tuple("Darwin 1", "0800", 500), tuple("Sydney 1", "2000", 700));
+    }
 }
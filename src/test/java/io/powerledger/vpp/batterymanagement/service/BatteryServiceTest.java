@@ -1,10 +1,30 @@
 package io.powerledger.vpp.batterymanagement.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.powerledger.vpp.batterymanagement.dto.BatteryDto;
+import io.powerledger.vpp.batterymanagement.dto.BatteryLookupDto;
+import io.powerledger.vpp.batterymanagement.dto.BatteryResponseDto;
 import io.powerledger.vpp.batterymanagement.dto.BatterySearchRequestDto;
+import io.powerledger.vpp.batterymanagement.dto.CapacityBucketDto;
+import io.powerledger.vpp.batterymanagement.dto.CapacityDistributionDto;
+import io.powerledger.vpp.batterymanagement.dto.DispatchBatteryDto;
+import io.powerledger.vpp.batterymanagement.dto.DispatchSelectionDto;
+import io.powerledger.vpp.batterymanagement.dto.NearbyBatteriesDto;
+import io.powerledger.vpp.batterymanagement.dto.NearbyPostcodeDto;
 import io.powerledger.vpp.batterymanagement.dto.SummaryDto;
+import io.powerledger.vpp.batterymanagement.exception.FleetStoreUnavailableException;
+import io.powerledger.vpp.batterymanagement.fanout.ParallelRangeSummaries;
+import io.powerledger.vpp.batterymanagement.fanout.PostcodeHistogram;
+import io.powerledger.vpp.batterymanagement.fanout.PostcodeStatistics;
+import io.powerledger.vpp.batterymanagement.fleet.FleetColumnStore;
+import io.powerledger.vpp.batterymanagement.geo.PostcodeCentroid;
+import io.powerledger.vpp.batterymanagement.geo.PostcodeCentroids;
+import io.powerledger.vpp.batterymanagement.metrics.BatteryMetrics;
 import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
 import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.model.BlockSample;
+import io.powerledger.vpp.batterymanagement.model.FilterResult;
 import io.powerledger.vpp.batterymanagement.repository.BatteryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,21 +32,36 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class BatteryServiceTest {
@@ -37,6 +72,11 @@ class BatteryServiceTest {
     @Mock
     private KafkaTemplate<String, BatteryDto> kafkaTemplate;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private BatteryMetrics batteryMetrics = new BatteryMetrics(meterRegistry);
+
     @InjectMocks
     private BatteryService batteryService;
 
@@ -44,6 +84,9 @@ class BatteryServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         ReflectionTestUtils.setField(batteryService, "batteryCreateTopic", "battery-create-topic");
+        ReflectionTestUtils.setField(batteryService, "approximateSamplePercent", 1.0);
+        ReflectionTestUtils.setField(batteryService, "approximateMinSampleRows", 1000L);
+        when(kafkaTemplate.send(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
     }
 
     @Test
@@ -97,6 +140,271 @@ class BatteryServiceTest {
         assertThat(capturedBattery.getCapacity()).isEqualTo(500);
     }
 
+    @Test
+    void should_count_failed_kafka_sends() {
+        // given
+        BatteryDto batteryDto = new BatteryDto();
+        batteryDto.setName("Battery A");
+        batteryDto.setPostcode("2000");
+        batteryDto.setCapacity(500);
+
+        when(kafkaTemplate.send(any(), any())).thenReturn(CompletableFuture.failedFuture(new KafkaException("broker unavailable")));
+
+        // when
+        batteryService.sendBatteryCreationMessage(batteryDto);
+
+        // then
+        assertThat(meterRegistry.get("battery.kafka.send.failures").tag("topic", "battery-create-topic").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("battery.kafka.send").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_record_query_time_and_rows_of_search() {
+        // given
+        Battery battery = new Battery();
+        battery.setName("Battery A");
+        battery.setPostcode("2000");
+        battery.setWattCapacity(500);
+
+        Pageable pageable = PageRequest.of(0, 10);
+        when(batteryRepository.findBySearchCriteria(any(BatteryFilter.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(battery), pageable, 1));
+
+        // when
+        batteryService.searchBatteries(new BatterySearchRequestDto(), pageable);
+
+        // then
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "search", "query", "page").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("battery.query.rows").tag("endpoint", "search").summary().totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_answer_search_and_summary_from_loaded_fleet_store() {
+        // given
+        var fleetColumnStore = new FleetColumnStore();
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2500", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "4000", 700);
+        fleetColumnStore.markLoaded();
+        batteryService.setFleetColumnStore(fleetColumnStore);
+
+        var searchRequest = new BatterySearchRequestDto();
+        searchRequest.setMinPostCode("2000");
+        searchRequest.setMaxPostCode("3000");
+
+        // when
+        List<BatteryDto> batteries = batteryService.searchBatteries(searchRequest, PageRequest.of(0, 10));
+        SummaryDto summary = batteryService.getSummaryBySearchCriteria(searchRequest);
+
+        // then
+        assertThat(batteries).extracting(BatteryDto::getName).containsExactly("Battery A", "Battery B");
+        assertThat(summary.getTotalBatteries()).isEqualTo(2);
+        assertThat(summary.getTotalCapacity()).isEqualTo(1100);
+        verifyNoInteractions(batteryRepository);
+    }
+
+    @Test
+    void should_search_name_query_in_repository_when_fleet_store_is_loaded() {
+        // given
+        var fleetColumnStore = new FleetColumnStore();
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 1", "2000", 500);
+        fleetColumnStore.markLoaded();
+        batteryService.setFleetColumnStore(fleetColumnStore);
+
+        Battery battery = new Battery();
+        battery.setName("Sydney 1");
+        battery.setPostcode("2000");
+        battery.setWattCapacity(500);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(batteryRepository.findBySearchCriteria(new BatteryFilter(null, null, null, null, null, "Sydny", null, null), pageable))
+                .thenReturn(new PageImpl<>(List.of(battery), pageable, 1));
+
+        var searchRequest = new BatterySearchRequestDto();
+        searchRequest.setNameQuery("Sydny");
+
+        // when
+        List<BatteryDto> batteries = batteryService.searchBatteries(searchRequest, pageable);
+
+        // then
+        assertThat(batteries).extracting(BatteryDto::getName).containsExactly("Sydney 1");
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "search", "query", "page").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_summarize_registration_window_in_repository_when_fleet_store_is_loaded() {
+        // given
+        var fleetColumnStore = new FleetColumnStore();
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 1", "2000", 500);
+        fleetColumnStore.markLoaded();
+        batteryService.setFleetColumnStore(fleetColumnStore);
+
+        Instant createdFrom = Instant.parse("2025-01-01T00:00:00Z");
+        when(batteryRepository.findSummaryBySearchCriteria(new BatteryFilter("2000", "2999", null, null, null, null, createdFrom, null)))
+                .thenReturn(new BatterySummary(0L, 0L, 0.0));
+
+        var searchRequest = new BatterySearchRequestDto();
+        searchRequest.setMinPostCode("2000");
+        searchRequest.setMaxPostCode("2999");
+        searchRequest.setCreatedFrom(createdFrom);
+
+        // when
+        SummaryDto summary = batteryService.getSummaryBySearchCriteria(searchRequest);
+
+        // then
+        assertThat(summary.getTotalBatteries()).isZero();
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "search", "query", "summary").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_complete_names_from_loaded_fleet_store() {
+        // given
+        var fleetColumnStore = new FleetColumnStore();
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 2", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Melbourne 1", "3000", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Sydney 1", "2500", 700);
+        fleetColumnStore.markLoaded();
+        batteryService.setFleetColumnStore(fleetColumnStore);
+
+        // when
+        List<String> names = batteryService.completeNames("Syd", 10);
+
+        // then
+        assertThat(names).containsExactly("Sydney 1", "Sydney 2");
+        verifyNoInteractions(batteryRepository);
+    }
+
+    @Test
+    void should_look_up_batteries_in_chunks_in_order_of_ids() {
+        // given
+        List<UUID> ids = IntStream.range(0, BatteryService.LOOKUP_CHUNK_SIZE + 2).mapToObj(i -> UUID.randomUUID()).toList();
+        UUID missingId = ids.get(1);
+        when(batteryRepository.findByIds(any())).thenAnswer(invocation -> {
+            // rows come back in no particular order
+            Collection<UUID> requested = invocation.getArgument(0);
+            List<UUID> chunk = new ArrayList<>(requested);
+            Collections.reverse(chunk);
+            return chunk.stream().filter(id -> !id.equals(missingId)).map(id -> {
+                Battery battery = new Battery();
+                battery.setId(id);
+                battery.setName("Battery " + ids.indexOf(id));
+                battery.setPostcode("2000");
+                battery.setWattCapacity(500);
+                return battery;
+            }).toList();
+        });
+
+        // when
+        List<BatteryLookupDto> found = new ArrayList<>();
+        List<UUID> missing = batteryService.lookupBatteries(ids, found::add);
+
+        // then
+        assertThat(found).extracting(BatteryLookupDto::getId)
+                .containsExactlyElementsOf(ids.stream().filter(id -> !id.equals(missingId)).toList());
+        assertThat(found.get(1).getName()).isEqualTo("Battery 2");
+        assertThat(missing).containsExactly(missingId);
+        verify(batteryRepository, times(2)).findByIds(any());
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "lookup", "query", "lookup").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_answer_capacity_distribution_from_loaded_fleet_store() {
+        // given
+        var fleetColumnStore = new FleetColumnStore();
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2500", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "4000", 700);
+        fleetColumnStore.markLoaded();
+        batteryService.setFleetColumnStore(fleetColumnStore);
+
+        // when
+        CapacityDistributionDto distribution = batteryService.getCapacityDistribution("2000", "3000", 2);
+
+        // then
+        assertThat(distribution.getTotalBatteries()).isEqualTo(2);
+        assertThat(distribution.getMinCapacity()).isEqualTo(500);
+        assertThat(distribution.getMaxCapacity()).isEqualTo(600);
+        assertThat(distribution.getBuckets()).extracting(CapacityBucketDto::getCount).containsExactly(1L, 1L);
+        verifyNoInteractions(batteryRepository);
+    }
+
+    @Test
+    void should_refuse_capacity_distribution_while_fleet_store_is_loading() {
+        // given
+        batteryService.setFleetColumnStore(new FleetColumnStore());
+
+        // when / then
+        assertThatThrownBy(() -> batteryService.getCapacityDistribution("2000", "3000", 10))
+                .isInstanceOf(FleetStoreUnavailableException.class);
+        verifyNoInteractions(batteryRepository);
+    }
+
+    @Test
+    void should_return_largest_batteries_from_repository() {
+        // given
+        Battery battery = new Battery();
+        battery.setName("Battery A");
+        battery.setPostcode("2500");
+        battery.setWattCapacity(900);
+        when(batteryRepository.findTopByCapacity("2000", "2999", 100)).thenReturn(List.of(battery));
+
+        // when
+        List<BatteryDto> result = batteryService.getTopBatteriesByCapacity("2000", "2999", 100);
+
+        // then
+        assertThat(result).extracting(BatteryDto::getName, BatteryDto::getPostcode, BatteryDto::getCapacity)
+                .containsExactly(tuple("Battery A", "2500", 900));
+    }
+
+    @Test
+    void should_answer_largest_batteries_from_loaded_fleet_store() {
+        // given
+        var fleetColumnStore = new FleetColumnStore();
+        fleetColumnStore.add(UUID.randomUUID(), "Battery A", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2500", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "4000", 700);
+        fleetColumnStore.markLoaded();
+        batteryService.setFleetColumnStore(fleetColumnStore);
+
+        // when
+        List<BatteryDto> result = batteryService.getTopBatteriesByCapacity("2000", "2999", 1);
+
+        // then
+        assertThat(result).extracting(BatteryDto::getName).containsExactly("Battery B");
+        verifyNoInteractions(batteryRepository);
+    }
+
+    @Test
+    void should_select_batteries_for_dispatch_from_loaded_fleet_store() {
+        // given
+        var fleetColumnStore = new FleetColumnStore();
+        var id = UUID.randomUUID();
+        fleetColumnStore.add(id, "Battery A", "2000", 500);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery B", "2500", 600);
+        fleetColumnStore.add(UUID.randomUUID(), "Battery C", "4000", 700);
+        fleetColumnStore.markLoaded();
+        batteryService.setFleetColumnStore(fleetColumnStore);
+
+        // when
+        DispatchSelectionDto selection = batteryService.selectForDispatch("2000", "2999", 1000, 10);
+
+        // then
+        assertThat(selection.getBatteries()).extracting(DispatchBatteryDto::getName).containsExactly("Battery B", "Battery A");
+        assertThat(selection.getBatteries().get(1).getId()).isEqualTo(id);
+        assertThat(selection.getTotalCapacity()).isEqualTo(1100);
+        assertThat(selection.getSatisfied()).isTrue();
+        verifyNoInteractions(batteryRepository);
+    }
+
+    @Test
+    void should_refuse_dispatch_selection_without_fleet_store() {
+        // when / then
+        assertThatThrownBy(() -> batteryService.selectForDispatch("2000", "2999", 1000, 10))
+                .isInstanceOf(FleetStoreUnavailableException.class)
+                .hasMessageContaining("disabled");
+        verifyNoInteractions(batteryRepository);
+    }
+
     @Test
     void should_return_filtered_batteries_in_get_battery_by_min_and_max_postcode() {
         // given
@@ -174,7 +482,7 @@ class BatteryServiceTest {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Battery> batteryPage = new PageImpl<>(List.of(battery1, battery2), pageable, 2);
 
-        when(batteryRepository.findBySearchCriteria(any(), any(), any(), any(), eq(pageable)))
+        when(batteryRepository.findBySearchCriteria(any(BatteryFilter.class), eq(pageable)))
                 .thenReturn(batteryPage);
 
         // when
@@ -216,12 +524,7 @@ class BatteryServiceTest {
 
         BatterySummary summary = new BatterySummary(3L, 1800L, 600.0);
 
-        when(batteryRepository.findSummaryBySearchCriteria(
-                searchRequest.getMinPostCode(),
-                searchRequest.getMaxPostCode(),
-                searchRequest.getMinCapacity(),
-                searchRequest.getMaxCapacity()
-        )).thenReturn(summary);
+        when(batteryRepository.findSummaryBySearchCriteria(new BatteryFilter("2000", "3000", 400, 700))).thenReturn(summary);
 
         // when
         SummaryDto result = batteryService.getSummaryBySearchCriteria(searchRequest);
@@ -231,11 +534,160 @@ class BatteryServiceTest {
         assertThat(result.getTotalCapacity()).isEqualTo(1800);
         assertThat(result.getAverageCapacity()).isEqualTo(600.0);
 
-        verify(batteryRepository, times(1)).findSummaryBySearchCriteria(
-                searchRequest.getMinPostCode(),
-                searchRequest.getMaxPostCode(),
-                searchRequest.getMinCapacity(),
-                searchRequest.getMaxCapacity()
-        );
+        verify(batteryRepository, times(1)).findSummaryBySearchCriteria(new BatteryFilter("2000", "3000", 400, 700));
+    }
+
+    @Test
+    void should_estimate_summary_from_block_sample() {
+        // given
+        BatterySearchRequestDto searchRequest = new BatterySearchRequestDto();
+        searchRequest.setMinCapacity(400);
+
+        // 100 sampled blocks of 20 batteries of 500 W
+        when(batteryRepository.sampleSummaryBySearchCriteria(null, null, 400, null, 1.0))
+                .thenReturn(new BlockSample(2000, 1_000_000, 100 * 400.0, 100 * 10_000.0 * 10_000, 100 * 20.0 * 10_000));
+
+        // when
+        SummaryDto result = batteryService.getApproximateSummaryBySearchCriteria(searchRequest);
+
+        // then
+        assertThat(result.getApproximate()).isTrue();
+        assertThat(result.getTotalBatteries()).isEqualTo(200_000);
+        assertThat(result.getTotalCapacity()).isEqualTo(100_000_000);
+        assertThat(result.getAverageCapacity()).isEqualTo(500.0);
+        // sqrt(0.99 / 0.0001 * 40000) * 1.96
+        assertThat(result.getTotalBatteriesMargin()).isEqualTo(39_004);
+        assertThat(result.getAverageCapacityMargin()).isZero();
+        verify(batteryRepository, times(0)).findSummaryBySearchCriteria(any(BatteryFilter.class));
+    }
+
+    @Test
+    void should_summarize_exactly_when_block_sample_is_sparse() {
+        // given
+        when(batteryRepository.sampleSummaryBySearchCriteria("7000", "7001", null, null, 1.0))
+                .thenReturn(new BlockSample(12, 6000, 12, 3_000_000, 3000));
+        when(batteryRepository.findSummaryByPostcodeRange("7000", "7001")).thenReturn(new BatterySummary(1150L, 575_000L, 500.0));
+
+        // when
+        SummaryDto result = batteryService.getApproximateSummaryByPostcodeRange("7000", "7001");
+
+        // then
+        assertThat(result.getApproximate()).isFalse();
+        assertThat(result.getTotalBatteries()).isEqualTo(1150);
+        assertThat(result.getTotalBatteriesMargin()).isZero();
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "range", "query", "sampled-summary").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_summarize_batch_of_filters_in_one_query() {
+        // given
+        BatterySearchRequestDto north = new BatterySearchRequestDto();
+        north.setMinPostCode("0800");
+        north.setMaxPostCode("0899");
+        BatterySearchRequestDto large = new BatterySearchRequestDto();
+        large.setMinCapacity(10_000);
+        Map<String, BatterySearchRequestDto> filters = new LinkedHashMap<>();
+        filters.put("north", north);
+        filters.put("large", large);
+
+        when(batteryRepository.summarizeByFilters(List.of(
+                new BatteryFilter("0800", "0899", null, null),
+                new BatteryFilter(null, null, 10_000, null)), 5))
+                .thenReturn(List.of(
+                        new FilterResult(new BatterySummary(2L, 1100L, 550.0), List.of("Battery A", "Battery B")),
+                        new FilterResult(new BatterySummary(0L, null, null), List.of())));
+
+        // when
+        Map<String, BatteryResponseDto> result = batteryService.summarizeBatch(filters, true, 5);
+
+        // then
+        assertThat(result).containsOnlyKeys("north", "large");
+        assertThat(result.get("north").getBatteries()).containsExactly("Battery A", "Battery B");
+        assertThat(result.get("north").getTotalCapacity()).isEqualTo(1100L);
+        assertThat(result.get("large").getTotalBatteries()).isZero();
+        assertThat(result.get("large").getAverageCapacity()).isNull();
+        verify(batteryRepository, times(1)).summarizeByFilters(any(), eq(5));
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "batch", "query", "batch-summary").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_summarize_batteries_of_postcodes_within_radius() {
+        // given
+        batteryService.setPostcodeCentroids(new PostcodeCentroids(List.of(
+                new PostcodeCentroid("2000", -33.8688, 151.2093),
+                new PostcodeCentroid("2010", -33.8845, 151.2117),
+                new PostcodeCentroid("2150", -33.8150, 151.0011))));
+        when(batteryRepository.summarizeByFilters(List.of(
+                new BatteryFilter("2000", "2000", null, null),
+                new BatteryFilter("2010", "2010", null, null)), 2))
+                .thenReturn(List.of(
+                        new FilterResult(new BatterySummary(2L, 1100L, 550.0), List.of("Battery C", "Battery D")),
+                        new FilterResult(new BatterySummary(1L, 700L, 700.0), List.of("Battery A"))));
+
+        // when
+        NearbyBatteriesDto result = batteryService.findNearby(-33.8688, 151.2093, 5, 100, 2);
+
+        // then
+        assertThat(result.getPostcodes()).extracting(NearbyPostcodeDto::getPostcode, NearbyPostcodeDto::getTotalBatteries)
+                .containsExactly(tuple("2000", 2L), tuple("2010", 1L));
+        assertThat(result.getPostcodes().get(1).getDistanceKm()).isCloseTo(1.76, within(0.01));
+        assertThat(result.getBatteries()).containsExactly("Battery A", "Battery C");
+        assertThat(result.getTotalBatteries()).isEqualTo(3);
+        assertThat(result.getTotalCapacity()).isEqualTo(1800);
+        assertThat(result.getPartialCoverage()).isTrue();
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "nearby", "query", "batch-summary").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_flag_nearby_batteries_as_partial_with_complete_centroids() {
+        // given
+        ReflectionTestUtils.setField(batteryService, "completePostcodeCentroids", true);
+        batteryService.setPostcodeCentroids(new PostcodeCentroids(List.of(new PostcodeCentroid("2150", -33.8150, 151.0011))));
+
+        // when
+        NearbyBatteriesDto result = batteryService.findNearby(-33.8688, 151.2093, 5, 100, 10);
+
+        // then
+        assertThat(result.getPartialCoverage()).isFalse();
+    }
+
+    @Test
+    void should_not_query_batteries_when_no_postcode_is_within_radius() {
+        // given
+        batteryService.setPostcodeCentroids(new PostcodeCentroids(List.of(new PostcodeCentroid("2150", -33.8150, 151.0011))));
+
+        // when
+        NearbyBatteriesDto result = batteryService.findNearby(-33.8688, 151.2093, 5, 100, 10);
+
+        // then
+        assertThat(result.getPostcodes()).isEmpty();
+        assertThat(result.getTotalBatteries()).isZero();
+        verifyNoInteractions(batteryRepository);
+    }
+
+    @Test
+    void should_split_wide_summary_into_concurrent_sub_range_queries() {
+        // given
+        var postcodeStatistics = mock(PostcodeStatistics.class);
+        when(postcodeStatistics.histogram()).thenReturn(PostcodeHistogram.of(List.of(new PostcodeHistogram.ColumnStatistics(
+                new String[]{"2000", "2999"}, new String[0], new double[0], 0, 1_000_000))));
+        batteryService.setParallelRangeSummaries(new ParallelRangeSummaries(postcodeStatistics, Runnable::run, 2, 100_000));
+
+        BatterySearchRequestDto searchRequest = new BatterySearchRequestDto();
+        searchRequest.setMinPostCode("2000");
+        searchRequest.setMaxPostCode("2999");
+        searchRequest.setMinCapacity(400);
+        when(batteryRepository.findSummaryBySearchCriteria(new BatteryFilter("2000", "2499", 400, null))).thenReturn(new BatterySummary(3L, 1500L, 500.0));
+        when(batteryRepository.findSummaryBySearchCriteria(new BatteryFilter("2500", "2999", 400, null))).thenReturn(new BatterySummary(1L, 700L, 700.0));
+
+        // when
+        SummaryDto result = batteryService.getSummaryBySearchCriteria(searchRequest);
+
+        // then
+        assertThat(result.getTotalBatteries()).isEqualTo(4);
+        assertThat(result.getTotalCapacity()).isEqualTo(2200);
+        assertThat(result.getAverageCapacity()).isEqualTo(550.0);
+        verify(batteryRepository, times(2)).findSummaryBySearchCriteria(any(BatteryFilter.class));
+        assertThat(meterRegistry.get("battery.query").tags("endpoint", "search", "query", "parallel-summary").timer().count()).isEqualTo(1);
     }
 }
@@ -0,0 +1,59 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRouterTest {
+
+    private final ShardRouter shardRouter = new ShardRouter(List.of(
+            new ShardRouter.ShardRange("north", "0000", "2999"),
+            new ShardRouter.ShardRange("south", "3000", "5999"),
+            new ShardRouter.ShardRange("west", "6000", "9999")
+    ));
+
+    @Test
+    void should_route_postcode_to_owning_shard() {
+        assertThat(shardRouter.shardFor("0800")).isEqualTo("north");
+        assertThat(shardRouter.shardFor("2999")).isEqualTo("north");
+        assertThat(shardRouter.shardFor("3000")).isEqualTo("south");
+        assertThat(shardRouter.shardFor("6000")).isEqualTo("west");
+    }
+
+    @Test
+    void should_return_only_shards_overlapping_range() {
+        assertThat(shardRouter.shardsFor("2000", "2999")).containsExactly("north");
+        assertThat(shardRouter.shardsFor("2500", "3500")).containsExactly("north", "south");
+        assertThat(shardRouter.shardsFor("6500", null)).containsExactly("west");
+        assertThat(shardRouter.shardsFor(null, null)).containsExactly("north", "south", "west");
+    }
+
+    @Test
+    void should_reject_overlapping_shards() {
+        assertThatThrownBy(() -> new ShardRouter(List.of(
+                new ShardRouter.ShardRange("a", "0000", "3000"),
+                new ShardRouter.ShardRange("b", "3000", "9999")
+        ))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_reject_gaps_between_shards() {
+        assertThatThrownBy(() -> new ShardRouter(List.of(
+                new ShardRouter.ShardRange("a", "0000", "2999"),
+                new ShardRouter.ShardRange("b", "3100", "9999")
+        ))).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("has to start at 3000");
+    }
+
+    @Test
+    void should_reject_shards_not_covering_every_postcode() {
+        assertThatThrownBy(() -> new ShardRouter(List.of(
+                new ShardRouter.ShardRange("a", "0800", "9999")
+        ))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ShardRouter(List.of(
+                new ShardRouter.ShardRange("a", "0000", "8999")
+        ))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
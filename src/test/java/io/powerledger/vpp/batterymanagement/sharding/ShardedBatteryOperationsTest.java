@@ -0,0 +1,170 @@
+package io.powerledger.vpp.batterymanagement.sharding;
+
+import io.powerledger.vpp.batterymanagement.model.Battery;
+import io.powerledger.vpp.batterymanagement.model.BatteryFilter;
+import io.powerledger.vpp.batterymanagement.model.BatterySummary;
+import io.powerledger.vpp.batterymanagement.repository.BatteryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardedBatteryOperationsTest {
+
+    @Mock
+    private BatteryRepository batteryRepository;
+
+    private ShardedBatteryOperations shardedBatteryOperations;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        var shardRouter = new ShardRouter(List.of(
+                new ShardRouter.ShardRange("north", "0000", "2999"),
+                new ShardRouter.ShardRange("south", "3000", "9999")
+        ));
+        shardedBatteryOperations = new ShardedBatteryOperations(batteryRepository, shardRouter, new SyncTaskExecutor());
+    }
+
+    @Test
+    void should_save_battery_on_owning_shard() {
+        // given
+        Battery battery = battery("Battery A", "3500", 500);
+        when(batteryRepository.save(battery)).thenAnswer(invocation -> {
+            assertThat(ShardContext.currentShard()).isEqualTo("south");
+            return battery;
+        });
+
+        // when
+        shardedBatteryOperations.save(battery);
+
+        // then
+        verify(batteryRepository).save(battery);
+        assertThat(ShardContext.currentShard()).isNull();
+    }
+
+    @Test
+    void should_merge_pages_of_overlapping_shards_by_name() {
+        // given
+        Map<String, List<Battery>> shardContent = Map.of(
+                "north", List.of(battery("Battery A", "2000", 500), battery("Battery C", "2500", 600)),
+                "south", List.of(battery("Battery B", "3000", 700), battery("Battery D", "3500", 800))
+        );
+        when(batteryRepository.findByPostcodeRangeOrderByName(eq("2000"), eq("3500"), eq(PageRequest.of(0, 4))))
+                .thenAnswer(invocation -> new PageImpl<>(shardContent.get(ShardContext.currentShard())));
+
+        // when
+        List<Battery> secondPage = shardedBatteryOperations.findByPostcodeRangeOrderByName("2000", "3500", PageRequest.of(1, 2));
+
+        // then
+        assertThat(secondPage).extracting(Battery::getName).containsExactly("Battery C", "Battery D");
+    }
+
+    @Test
+    void should_merge_pages_of_shards_in_code_point_order_of_names() {
+        // given each shard's page in the database's "C" collation order
+        Map<String, List<Battery>> shardContent = Map.of(
+                "north", List.of(battery("BATTERY E", "2000", 500), battery("Battery \uff21", "2100", 500),
+                        battery("Battery_D", "2200", 500), battery("battery b", "2300", 500)),
+                "south", List.of(battery("Battery A", "3000", 500), battery("Battery \ud83d\ude00", "3100", 500),
+                        battery("Battery-c", "3200", 500), battery("zeta", "3300", 500))
+        );
+        when(batteryRepository.findByPostcodeRangeOrderByName(eq("2000"), eq("3500"), eq(PageRequest.of(0, 8))))
+                .thenAnswer(invocation -> new PageImpl<>(shardContent.get(ShardContext.currentShard())));
+
+        // when
+        List<Battery> page = shardedBatteryOperations.findByPostcodeRangeOrderByName("2000", "3500", PageRequest.of(0, 8));
+
+        // then
+        assertThat(page).extracting(Battery::getName).containsExactly("BATTERY E", "Battery A", "Battery \uff21",
+                "Battery \ud83d\ude00", "Battery-c", "Battery_D", "battery b", "zeta");
+    }
+
+    @Test
+    void should_query_only_shards_overlapping_range() {
+        // given
+        when(batteryRepository.findSummaryByPostcodeRange("2000", "2999"))
+                .thenAnswer(invocation -> {
+                    assertThat(ShardContext.currentShard()).isEqualTo("north");
+                    return new BatterySummary(2L, 1100L, 550.0);
+                });
+
+        // when
+        BatterySummary summary = shardedBatteryOperations.findSummaryByPostcodeRange("2000", "2999");
+
+        // then
+        assertThat(summary).isEqualTo(new BatterySummary(2L, 1100L, 550.0));
+        verify(batteryRepository, never()).findSummaryBySearchCriteria(any(BatteryFilter.class));
+    }
+
+    @Test
+    void should_combine_summaries_of_all_shards() {
+        // given
+        Map<String, BatterySummary> shardSummaries = Map.of(
+                "north", new BatterySummary(2L, 1100L, 550.0),
+                "south", new BatterySummary(1L, 700L, 700.0)
+        );
+        when(batteryRepository.findSummaryBySearchCriteria(new BatteryFilter(null, null, 400, null)))
+                .thenAnswer(invocation -> shardSummaries.get(ShardContext.currentShard()));
+
+        // when
+        BatterySummary summary = shardedBatteryOperations.findSummaryBySearchCriteria(new BatteryFilter(null, null, 400, null));
+
+        // then
+        assertThat(summary.count()).isEqualTo(3L);
+        assertThat(summary.totalWattCapacity()).isEqualTo(1800L);
+        assertThat(summary.averageWattCapacity()).isEqualTo(600.0);
+    }
+
+    @Test
+    void should_return_empty_summary_when_no_shard_has_batteries() {
+        // given
+        when(batteryRepository.findSummaryBySearchCriteria(new BatteryFilter(null, null, null, null)))
+                .thenReturn(new BatterySummary(0L, null, null));
+
+        // when
+        BatterySummary summary = shardedBatteryOperations.findSummaryBySearchCriteria(new BatteryFilter(null, null, null, null));
+
+        // then
+        assertThat(summary).isEqualTo(new BatterySummary(0L, null, null));
+    }
+
+    @Test
+    void should_look_up_ids_on_every_shard() {
+        // given
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        Map<String, List<Battery>> shardContent = Map.of(
+                "north", List.of(battery("Battery A", "2000", 500)),
+                "south", List.of(battery("Battery B", "3000", 700))
+        );
+        when(batteryRepository.findByIds(ids)).thenAnswer(invocation -> shardContent.get(ShardContext.currentShard()));
+
+        // when
+        List<Battery> batteries = shardedBatteryOperations.findByIds(ids);
+
+        // then
+        assertThat(batteries).extracting(Battery::getName).containsExactlyInAnyOrder("Battery A", "Battery B");
+    }
+
+    private Battery battery(String name, String postcode, int capacity) {
+        Battery battery = new Battery();
+        battery.setName(name);
+        battery.setPostcode(postcode);
+        battery.setWattCapacity(capacity);
+        return battery;
+    }
+}
@@ -0,0 +1,89 @@
+package io.powerledger.vpp.batterymanagement.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class WarmupRunnerTest {
+
+    private final RestClient.Builder restClientBuilder = RestClient.builder().baseUrl("http://localhost:8080");
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(restClientBuilder).ignoreExpectOrder(true).build();
+
+    @Test
+    void should_stop_after_configured_iterations() throws InterruptedException {
+        // given
+        server.expect(ExpectedCount.manyTimes(), requestTo(startsWith("http://localhost:8080/batteries")))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        var warmupRunner = warmupRunner(Duration.ofMinutes(1), 25);
+
+        // when
+        var result = warmupRunner.warmUp(restClientBuilder.build());
+
+        // then
+        assertThat(result.requests()).isEqualTo(25);
+        assertThat(result.failures()).isZero();
+        server.verify();
+    }
+
+    @Test
+    void should_stop_after_configured_duration() throws InterruptedException {
+        // given
+        server.expect(ExpectedCount.manyTimes(), requestTo(startsWith("http://localhost:8080/batteries")))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        var warmupRunner = warmupRunner(Duration.ofMillis(200), 0);
+
+        // when
+        var result = warmupRunner.warmUp(restClientBuilder.build());
+
+        // then
+        assertThat(result.requests()).isPositive();
+        assertThat(result.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void should_count_failed_requests_and_continue() throws InterruptedException {
+        // given
+        server.expect(ExpectedCount.manyTimes(), requestTo(startsWith("http://localhost:8080/batteries")))
+                .andRespond(withServerError());
+        var warmupRunner = warmupRunner(Duration.ofMinutes(1), 10);
+
+        // when
+        var result = warmupRunner.warmUp(restClientBuilder.build());
+
+        // then
+        assertThat(result.requests()).isEqualTo(10);
+        assertThat(result.failures()).isEqualTo(10);
+    }
+
+    @Test
+    void should_skip_warm_up_without_web_server() throws Exception {
+        // given
+        var builder = mock(RestClient.Builder.class);
+        var warmupRunner = new WarmupRunner(new MockEnvironment(), builder, Duration.ofMinutes(1), 10, 1);
+
+        // when
+        warmupRunner.run(new DefaultApplicationArguments());
+
+        // then
+        verifyNoInteractions(builder);
+    }
+
+    private WarmupRunner warmupRunner(Duration duration, long iterations) {
+        return new WarmupRunner(new MockEnvironment().withProperty("local.server.port", "8080"),
+                restClientBuilder, duration, iterations, 1);
+    }
+}